@@ -0,0 +1,81 @@
+package th.co.autox.logging.benchmark;
+
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.core.AsyncLogDispatcher;
+import th.co.autox.logging.model.ResponseInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caller-side latency of request and application logging with off-thread
+ * serialization on and off. Run with {@code ./gradlew jmh} and compare the
+ * p0.99 sample of each mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class AsyncSerializationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean asyncSerialization;
+
+    private AppLogger logger;
+    private AsyncLogDispatcher dispatcher;
+    private ResponseInfo response;
+    private Map<String, Object> extra;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoggingProperties properties = new LoggingProperties();
+        properties.getAsyncSerialization().setEnabled(asyncSerialization);
+        dispatcher = new AsyncLogDispatcher(properties.getAsyncSerialization());
+        AppLogger.configureAsyncDispatcher(dispatcher);
+        logger = new AppLogger(AsyncSerializationBenchmark.class, "benchmark", properties);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("applicationId", "APP-2026-000123");
+        body.put("applicant", Map.of("firstName", "Somchai", "lastName", "Jaidee", "income", 85000));
+        body.put("collaterals", List.of(Map.of("type", "CAR", "value", 650000), Map.of("type", "LAND", "value", 2400000)));
+        body.put("notes", "x".repeat(2048));
+        response = ResponseInfo.builder()
+                .headers(Map.of("Content-Type", "application/json"))
+                .body(body)
+                .contentType("application/json")
+                .build();
+        extra = Map.of("step", "creditCheck", "score", 712);
+        CorrelationContext.setCorrelationId(CorrelationContext.generateCorrelationId());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dispatcher.shutdown();
+        AppLogger.configureAsyncDispatcher(null);
+    }
+
+    @Benchmark
+    public void requestLog() {
+        logger.logIncomingResponse("POST", "/api/loan-applications", 200, 42, response);
+    }
+
+    @Benchmark
+    public void applicationLog() {
+        logger.info("Credit check completed", extra);
+    }
+}
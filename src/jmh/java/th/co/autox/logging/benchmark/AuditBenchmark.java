@@ -0,0 +1,73 @@
+package th.co.autox.logging.benchmark;
+
+import th.co.autox.logging.core.AuditLogWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable audit events per second: group commit ({@link AuditLogWriter}) against
+ * a write and {@code force} per event. Both block the caller until the event is
+ * on disk. Set {@code -Daudit.benchmark.dir} to benchmark a specific disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class AuditBenchmark {
+
+    private static final byte[] LINE = ("{\"@timestamp\":\"2026-01-01T00:00:00.000+07:00\",\"type\":\"audit\","
+            + "\"message\":\"Loan decision\",\"extra\":{\"loan_id\":\"L-000123\",\"decision\":\"APPROVED\"}}\n")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private Path directory;
+    private AuditLogWriter groupCommit;
+    private FileChannel naive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String base = System.getProperty("audit.benchmark.dir", System.getProperty("java.io.tmpdir"));
+        directory = Files.createTempDirectory(Path.of(base), "audit-benchmark");
+        groupCommit = new AuditLogWriter(directory.resolve("group.log"), 512);
+        naive = FileChannel.open(directory.resolve("naive.log"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        groupCommit.close();
+        naive.close();
+        Files.deleteIfExists(directory.resolve("group.log"));
+        Files.deleteIfExists(directory.resolve("naive.log"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void groupCommit() {
+        groupCommit.submit(LINE).join();
+    }
+
+    @Benchmark
+    public void fsyncPerEvent() throws IOException {
+        synchronized (naive) {
+            naive.write(ByteBuffer.wrap(LINE));
+            naive.force(false);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package th.co.autox.logging.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import th.co.autox.logging.encoder.LogEntryWriter;
+import th.co.autox.logging.model.LogEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time and bytes per event of {@link JsonLogEncoder} writing JSON lines and
+ * Smile records, for a plain log line and for an {@code AppLogger} entry with a request
+ * body. The {@code bytes} and {@code events} counters give the bytes per event:
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=EncoderFormatBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EncoderFormatBenchmark {
+
+    @Param({"json", "smile"})
+    public String format;
+
+    @Param({"plain", "entry"})
+    public String event;
+
+    private JsonLogEncoder encoder;
+    private LoggingEvent loggingEvent;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long bytes;
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            events = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.setApplicationName("orders");
+        encoder.setFormat(format);
+        encoder.start();
+
+        MDC.put(CorrelationContext.CORRELATION_ID_MDC_KEY, "3f2c9a1e-7b4d-4e8a-9c61-2d5f8e0b7a13");
+        try {
+            if ("entry".equals(event)) {
+                LogEntry entry = LogEntry.builder()
+                        .timestamp("2026-10-18T10:15:30.123+07:00")
+                        .application("orders")
+                        .message("Request completed")
+                        .loggerName("th.co.autox.orders.OrderController")
+                        .threadName("http-nio-8080-exec-1")
+                        .level("INFO")
+                        .levelValue(20000)
+                        .type("request")
+                        .correlationId("3f2c9a1e-7b4d-4e8a-9c61-2d5f8e0b7a13")
+                        .method("POST")
+                        .uri("/api/orders")
+                        .statusCode(201)
+                        .durationMs(42L)
+                        .requestBody(Map.of("customerId", "C-1001", "currency", "THB",
+                                "items", List.of(Map.of("sku", "SKU-1", "quantity", 2, "price", 199.0),
+                                        Map.of("sku", "SKU-2", "quantity", 1, "price", 450.0))))
+                        .responseBody(Map.of("orderId", "O-90001", "status", "ACCEPTED"))
+                        .build();
+                loggingEvent = event(context, new ObjectMapper().writeValueAsString(entry));
+                loggingEvent.addMarker(LogEntryWriter.ENTRY);
+            } else {
+                loggingEvent = event(context, "Reserved stock for order O-90001 in warehouse BKK-2");
+            }
+        } finally {
+            MDC.remove(CorrelationContext.CORRELATION_ID_MDC_KEY);
+        }
+    }
+
+    private static LoggingEvent event(LoggerContext context, String message) {
+        LoggingEvent event = new LoggingEvent(EncoderFormatBenchmark.class.getName(),
+                context.getLogger("th.co.autox.orders.OrderService"), ch.qos.logback.classic.Level.INFO,
+                message, null, null);
+        event.prepareForDeferredProcessing();
+        return event;
+    }
+
+    @Benchmark
+    public int encode(Size size) throws IOException {
+        out.reset();
+        encoder.encodeTo(loggingEvent, out);
+        size.bytes += out.size();
+        size.events++;
+        return out.size();
+    }
+}
@@ -0,0 +1,95 @@
+package th.co.autox.logging.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AppLoggerFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained after resolving 10,000 distinct logger names (per tenant or partner)
+ * through {@link AppLoggerFactory}, with the cache sized below and above the number of
+ * names, against a mapper per logger as {@code AppLogger} used to build. The retained
+ * heap is reported as the {@code retainedKb} counter, summed over the measurement
+ * iterations:
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=LoggerCacheBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class LoggerCacheBenchmark {
+
+    private static final int LOGGER_NAMES = 10_000;
+
+    @Param({"1000", "10000"})
+    public int maxSize;
+
+    private LoggingProperties properties;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Retained {
+        public long retainedKb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedKb = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        properties = new LoggingProperties();
+        properties.getLoggerCache().setMaxSize(maxSize);
+    }
+
+    @Benchmark
+    public AppLoggerFactory sharedRuntime(Retained retained) {
+        long before = usedHeap();
+        AppLoggerFactory factory = new AppLoggerFactory("benchmark", properties);
+        for (int i = 0; i < LOGGER_NAMES; i++) {
+            factory.getLogger("th.co.autox.partner." + i);
+        }
+        retained.retainedKb = (usedHeap() - before) / 1024;
+        return factory;
+    }
+
+    @Benchmark
+    public Map<String, ObjectMapper> mapperPerLogger(Retained retained) {
+        long before = usedHeap();
+        Map<String, ObjectMapper> mappers = new HashMap<>();
+        for (int i = 0; i < LOGGER_NAMES; i++) {
+            ObjectMapper mapper = new ObjectMapper();
+            mapper.registerModule(new JavaTimeModule());
+            mappers.put("th.co.autox.partner." + i, mapper);
+        }
+        retained.retainedKb = (usedHeap() - before) / 1024;
+        return mappers;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
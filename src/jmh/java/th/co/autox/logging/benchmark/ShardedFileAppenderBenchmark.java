@@ -0,0 +1,144 @@
+package th.co.autox.logging.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import th.co.autox.logging.appender.ShardedFileAppender;
+import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Events per second written to files by {@link ShardedFileAppender} with 1 to 8 shards,
+ * from eight logging threads and many correlation IDs.
+ *
+ * <p>Logging threads only queue events; the shard threads encode and write them, so the
+ * rate is that of the writers once the queues are full. One shard is the equivalent of a
+ * single rolling file appender behind an async queue. Files go to a temporary directory
+ * that is emptied after each iteration.</p>
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=ShardedFileAppenderBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class ShardedFileAppenderBenchmark {
+
+    private static final int REQUESTS_PER_THREAD = 64;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    private final AtomicInteger iteration = new AtomicInteger();
+    private LoggerContext context;
+    private JsonLogEncoder encoder;
+    private Path directory;
+    private ShardedFileAppender appender;
+
+    /**
+     * Events of one logging thread, each with its own correlation ID.
+     */
+    @State(Scope.Thread)
+    public static class Requests {
+        private LoggingEvent[] events;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ShardedFileAppenderBenchmark benchmark) {
+            events = new LoggingEvent[REQUESTS_PER_THREAD];
+            for (int i = 0; i < events.length; i++) {
+                MDC.put(CorrelationContext.CORRELATION_ID_MDC_KEY, UUID.randomUUID().toString());
+                try {
+                    events[i] = new LoggingEvent("benchmark",
+                            benchmark.context.getLogger("th.co.autox.benchmark.OrderService"),
+                            ch.qos.logback.classic.Level.INFO, "Order created for customer {} with {} items",
+                            null, new Object[]{"C-" + i, 3});
+                    events[i].prepareForDeferredProcessing();
+                } finally {
+                    MDC.remove(CorrelationContext.CORRELATION_ID_MDC_KEY);
+                }
+            }
+        }
+
+        LoggingEvent next() {
+            LoggingEvent event = events[next];
+            next = (next + 1) % events.length;
+            return event;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.setApplicationName("benchmark");
+        encoder.start();
+        directory = Files.createTempDirectory("sharded-benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        appender = new ShardedFileAppender();
+        appender.setContext(context);
+        appender.setName("benchmark-" + iteration.incrementAndGet());
+        appender.setEncoder(encoder);
+        appender.setShards(shards);
+        appender.setIndexEnabled(false);
+        appender.setFile(directory.resolve("app.json.log").toString());
+        appender.setFileNamePattern(directory.resolve("app.%d{yyyy-MM-dd}.json.log").toString());
+        appender.setMaxFlushTimeMs(10_000);
+        appender.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+        appender.stop();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void append(Requests requests) {
+        appender.doAppend(requests.next());
+    }
+}
@@ -0,0 +1,46 @@
+package th.co.autox.logging.benchmark;
+
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AppLogger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup probe: time from process start to {@code main}, to the first logger and to the
+ * first and second log lines. Run it on the JVM with {@code ./gradlew startupBenchmark}
+ * and as a native image built from {@code ./gradlew -q startupClasspath} (see README),
+ * then compare the lines printed to stderr.
+ *
+ * <p>Not a JMH benchmark: every run is one cold start, so run it several times.</p>
+ */
+public final class StartupBenchmark {
+
+    private StartupBenchmark() {
+        // Entry point only
+    }
+
+    public static void main(String[] args) {
+        Instant processStart = ProcessHandle.current().info().startInstant().orElse(null);
+        long toMainMs = processStart != null ? Duration.between(processStart, Instant.now()).toMillis() : -1;
+
+        long start = System.nanoTime();
+        AppLogger logger = new AppLogger(StartupBenchmark.class, "startup-benchmark", new LoggingProperties());
+        long created = System.nanoTime();
+        logger.info("First log line", Map.of("phase", "startup"));
+        long first = System.nanoTime();
+        logger.info("Second log line", Map.of("phase", "steady"));
+        long second = System.nanoTime();
+
+        System.err.printf("process start to main: %d ms%n", toMainMs);
+        System.err.printf("logger created:        %d us%n", micros(created - start));
+        System.err.printf("first log line:        %d us%n", micros(first - created));
+        System.err.printf("second log line:       %d us%n", micros(second - first));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,186 @@
+package th.co.autox.logging.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import th.co.autox.logging.appender.GatheringStdoutAppender;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Events per second and write syscalls per event for JSON lines written to stdout,
+ * through a {@code ConsoleAppender} (the current {@code JSON_CONSOLE}) and through
+ * {@link GatheringStdoutAppender}, from four logging threads.
+ *
+ * <p>Output goes to {@code /dev/null} so that JMH does not capture it. The console case
+ * writes through a {@link PrintStream} built like {@code System.out} (autoflush over a
+ * 128-byte buffer); the gathering case writes through a {@link FileChannel}, as it does
+ * on {@code FileDescriptor.out}. The {@code writes} and {@code events} counters give the
+ * syscalls per event:</p>
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=StdoutAppenderBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class StdoutAppenderBenchmark {
+
+    private static final LongAdder WRITES = new LongAdder();
+    private static final LongAdder EVENTS = new LongAdder();
+
+    @Param({"console", "gathering"})
+    public String appender;
+
+    private Appender<ILoggingEvent> target;
+    private LoggingEvent event;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Syscalls {
+        public long writes;
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            writes = 0;
+            events = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            // The first thread to tear down takes the iteration's totals
+            writes = WRITES.sumThenReset();
+            events = EVENTS.sumThenReset();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.setApplicationName("benchmark");
+        encoder.start();
+
+        if ("console".equals(appender)) {
+            OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+            console.setContext(context);
+            console.setEncoder(encoder);
+            console.setOutputStream(new PrintStream(new BufferedOutputStream(
+                    new CountingOutputStream(new FileOutputStream("/dev/null")), 128), true));
+            console.start();
+            target = console;
+        } else {
+            GatheringStdoutAppender gathering = new GatheringStdoutAppender() {
+                @Override
+                protected GatheringByteChannel openChannel() throws IOException {
+                    return new CountingChannel(FileChannel.open(Path.of("/dev/null"), StandardOpenOption.WRITE));
+                }
+            };
+            gathering.setContext(context);
+            gathering.setName("benchmark");
+            gathering.setEncoder(encoder);
+            gathering.start();
+            target = gathering;
+        }
+        event = new LoggingEvent("benchmark", context.getLogger("th.co.autox.benchmark.OrderService"),
+                ch.qos.logback.classic.Level.INFO, "Order created for customer {} with {} items",
+                null, new Object[]{"C-1001", 3});
+        event.getFormattedMessage();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        target.stop();
+    }
+
+    @Benchmark
+    public void append(Syscalls syscalls) {
+        target.doAppend(event);
+        EVENTS.increment();
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            WRITES.increment();
+            out.write(bytes, offset, length);
+        }
+    }
+
+    private static final class CountingChannel implements GatheringByteChannel {
+
+        private final FileChannel channel;
+
+        CountingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+            WRITES.increment();
+            return channel.write(sources, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources) throws IOException {
+            return write(sources, 0, sources.length);
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            WRITES.increment();
+            return channel.write(source);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package th.co.autox.logging.appender;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Block-framed gzip archives of log files, with a block index for reading a range
+ * without decompressing the whole file.
+ *
+ * <p>{@link #compress} writes each block of whole lines, about {@code blockSize}
+ * uncompressed bytes, as a separate gzip member, so {@code zcat} and
+ * {@link java.util.zip.GZIPInputStream} read the archive as one stream. Next to it,
+ * {@code <archive>.bidx} holds a 16-byte header ({@code int magic, int version,
+ * long blocks}) followed by {@code blocks + 1} records of {@code [long uncompressed offset]
+ * [long compressed offset]}, the last one holding both sizes. {@link Reader} finds the block
+ * of an uncompressed offset by binary search and inflates only that block.</p>
+ */
+public final class BlockGzip {
+
+    static final String BLOCK_INDEX_SUFFIX = ".bidx";
+
+    private static final int MAGIC = 0x42494458;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 16;
+
+    // Member header: magic, deflate, no flags, no mtime, no extra flags, unknown OS
+    private static final byte[] MEMBER_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int MEMBER_TRAILER_BYTES = 8;
+
+    private BlockGzip() {
+        // Utility class
+    }
+
+    /**
+     * Block index of an archive.
+     */
+    public static Path blockIndexFor(Path archive) {
+        return archive.resolveSibling(archive.getFileName() + BLOCK_INDEX_SUFFIX);
+    }
+
+    /**
+     * Whether a file is a block index rather than a log file.
+     */
+    public static boolean isSidecar(Path file) {
+        return file.getFileName().toString().endsWith(BLOCK_INDEX_SUFFIX);
+    }
+
+    /**
+     * Compress a log file into a block-framed archive and its block index. Both are written
+     * to temporary files first, and the archive is moved into place after its index. The
+     * source file is left in place.
+     *
+     * @param blockSize uncompressed bytes per block; a longer line gets a block of its own
+     * @param level     {@link Deflater} compression level
+     */
+    public static void compress(Path source, Path archive, int blockSize, int level) throws IOException {
+        Path index = blockIndexFor(archive);
+        Path tempArchive = archive.resolveSibling(archive.getFileName() + ".tmp");
+        Path tempIndex = index.resolveSibling(index.getFileName() + ".tmp");
+        long[] offsets = new long[64];
+        int blocks = 0;
+        Deflater deflater = new Deflater(level, true);
+        try (InputStream in = Files.newInputStream(source);
+             CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(tempArchive), 65536))) {
+            byte[] buffer = new byte[Math.max(1, blockSize)];
+            byte[] deflated = new byte[65536];
+            CRC32 crc = new CRC32();
+            long uncompressed = 0;
+            int limit = buffer.length;
+            int filled = 0;
+            boolean eof = false;
+            while (!eof || filled > 0) {
+                while (!eof && filled < limit) {
+                    int read = in.read(buffer, filled, limit - filled);
+                    if (read < 0) {
+                        eof = true;
+                    } else {
+                        filled += read;
+                    }
+                }
+                int end = filled < limit ? filled : lastLineEnd(buffer, filled);
+                if (end == 0) {
+                    // No line ends within the block: read on until one does
+                    limit = Math.max(limit, filled) * 2;
+                    buffer = Arrays.copyOf(buffer, limit);
+                    continue;
+                }
+                if (2 * blocks + 2 > offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[2 * blocks] = uncompressed;
+                offsets[2 * blocks + 1] = out.count;
+                blocks++;
+                writeMember(out, buffer, end, deflater, crc, deflated);
+                uncompressed += end;
+                System.arraycopy(buffer, end, buffer, 0, filled - end);
+                filled -= end;
+                limit = Math.max(1, blockSize);
+            }
+            if (blocks == 0) {
+                // An empty member keeps an empty archive a valid gzip file
+                offsets[1] = out.count;
+                blocks++;
+                writeMember(out, buffer, 0, deflater, crc, deflated);
+            }
+            out.flush();
+            offsets = Arrays.copyOf(offsets, 2 * blocks + 2);
+            offsets[2 * blocks] = uncompressed;
+            offsets[2 * blocks + 1] = out.count;
+        } finally {
+            deflater.end();
+        }
+        writeIndex(tempIndex, offsets, blocks);
+        Files.move(tempIndex, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(tempArchive, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int lastLineEnd(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static void writeMember(OutputStream out, byte[] block, int length, Deflater deflater, CRC32 crc,
+                                    byte[] deflated) throws IOException {
+        out.write(MEMBER_HEADER);
+        deflater.reset();
+        deflater.setInput(block, 0, length);
+        deflater.finish();
+        while (!deflater.finished()) {
+            int count = deflater.deflate(deflated);
+            out.write(deflated, 0, count);
+        }
+        crc.reset();
+        crc.update(block, 0, length);
+        ByteBuffer trailer = ByteBuffer.allocate(MEMBER_TRAILER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putInt((int) crc.getValue()).putInt(length);
+        out.write(trailer.array());
+    }
+
+    private static void writeIndex(Path index, long[] offsets, int blocks) throws IOException {
+        int size = HEADER_BYTES + (blocks + 1) * RECORD_BYTES;
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            map.putInt(MAGIC).putInt(VERSION).putLong(blocks);
+            for (int i = 0; i < 2 * blocks + 2; i++) {
+                map.putLong(offsets[i]);
+            }
+            map.force();
+        }
+    }
+
+    /**
+     * Reads uncompressed ranges of an archive through its block index. Not thread-safe.
+     */
+    public static final class Reader implements Closeable {
+
+        private final Path archive;
+        private final FileChannel channel;
+        private final long[] uncompressed;
+        private final long[] compressed;
+        private final Inflater inflater = new Inflater(true);
+        private final CRC32 crc = new CRC32();
+
+        private int cachedBlock = -1;
+        private byte[] cached;
+
+        public Reader(Path archive) throws IOException {
+            this.archive = archive;
+            Path index = blockIndexFor(archive);
+            try (FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.READ)) {
+                long size = indexChannel.size();
+                if (size < HEADER_BYTES + RECORD_BYTES || size > Integer.MAX_VALUE) {
+                    throw new IOException("Unsupported block index size " + size + ": " + index);
+                }
+                MappedByteBuffer map = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+                    throw new IOException("Not a block index: " + index);
+                }
+                long blocks = map.getLong(8);
+                if (blocks < 0 || HEADER_BYTES + (blocks + 1) * RECORD_BYTES > size) {
+                    throw new IOException("Truncated block index: " + index);
+                }
+                uncompressed = new long[(int) blocks + 1];
+                compressed = new long[(int) blocks + 1];
+                map.position(HEADER_BYTES);
+                for (int i = 0; i <= blocks; i++) {
+                    uncompressed[i] = map.getLong();
+                    compressed[i] = map.getLong();
+                }
+            }
+            this.channel = FileChannel.open(archive, StandardOpenOption.READ);
+            if (channel.size() != compressed[compressed.length - 1]) {
+                channel.close();
+                throw new IOException("Archive does not match its block index: " + archive);
+            }
+        }
+
+        /**
+         * Uncompressed size of the archive.
+         */
+        public long size() {
+            return uncompressed[uncompressed.length - 1];
+        }
+
+        /**
+         * Number of blocks.
+         */
+        public int blockCount() {
+            return uncompressed.length - 1;
+        }
+
+        /**
+         * Uncompressed bytes from an offset, decompressing only the blocks they span.
+         * Fewer bytes are returned when the range runs past the end.
+         */
+        public byte[] read(long offset, int length) throws IOException {
+            long end = Math.min(size(), offset + length);
+            if (offset < 0 || offset >= end) {
+                return new byte[0];
+            }
+            byte[] result = new byte[(int) (end - offset)];
+            int written = 0;
+            long position = offset;
+            while (position < end) {
+                int block = blockOf(position);
+                byte[] bytes = block(block);
+                int from = (int) (position - uncompressed[block]);
+                int count = (int) Math.min(bytes.length - from, end - position);
+                System.arraycopy(bytes, from, result, written, count);
+                written += count;
+                position += count;
+            }
+            return result;
+        }
+
+        /**
+         * The line starting at an uncompressed offset, without its line separator, or null
+         * past the end.
+         */
+        public String readLine(long offset) throws IOException {
+            if (offset < 0 || offset >= size()) {
+                return null;
+            }
+            int block = blockOf(offset);
+            byte[] bytes = block(block);
+            int from = (int) (offset - uncompressed[block]);
+            int end = from;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            if (end > from && bytes[end - 1] == '\r') {
+                end--;
+            }
+            // Blocks end at line ends, so the line is within this block
+            return new String(bytes, from, end - from, StandardCharsets.UTF_8);
+        }
+
+        private int blockOf(long offset) {
+            int low = 0;
+            int high = blockCount() - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (uncompressed[mid] <= offset) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private byte[] block(int block) throws IOException {
+            if (block == cachedBlock) {
+                return cached;
+            }
+            long start = compressed[block];
+            int memberLength = (int) (compressed[block + 1] - start);
+            ByteBuffer member = ByteBuffer.allocate(memberLength);
+            while (member.hasRemaining()) {
+                if (channel.read(member, start + member.position()) < 0) {
+                    throw new IOException("Truncated archive " + archive + " in block " + block);
+                }
+            }
+            byte[] raw = member.array();
+            if (memberLength < MEMBER_HEADER.length + MEMBER_TRAILER_BYTES
+                    || !Arrays.equals(raw, 0, 4, MEMBER_HEADER, 0, 4)) {
+                throw new IOException("Unexpected gzip member in " + archive + " at block " + block);
+            }
+            byte[] bytes = new byte[(int) (uncompressed[block + 1] - uncompressed[block])];
+            inflater.reset();
+            inflater.setInput(raw, MEMBER_HEADER.length, memberLength - MEMBER_HEADER.length - MEMBER_TRAILER_BYTES);
+            try {
+                int inflated = 0;
+                while (inflated < bytes.length && !inflater.finished()) {
+                    int count = inflater.inflate(bytes, inflated, bytes.length - inflated);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += count;
+                }
+                if (inflated != bytes.length) {
+                    throw new IOException("Short block " + block + " in " + archive);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt block " + block + " in " + archive, e);
+            }
+            crc.reset();
+            crc.update(bytes);
+            int expected = ByteBuffer.wrap(raw, memberLength - MEMBER_TRAILER_BYTES, 4)
+                    .order(ByteOrder.LITTLE_ENDIAN).getInt();
+            if ((int) crc.getValue() != expected) {
+                throw new IOException("Checksum mismatch in block " + block + " of " + archive);
+            }
+            cachedBlock = block;
+            cached = bytes;
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package th.co.autox.logging.appender;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format of a bulk request.
+ */
+public enum BulkFormat {
+
+    /**
+     * Elasticsearch / OpenSearch {@code _bulk} NDJSON: an action line before each document.
+     */
+    ELASTICSEARCH("application/x-ndjson") {
+        @Override
+        void write(OutputStream out, List<BulkLine> lines, BulkTarget target) throws IOException {
+            byte[] action = ("{\"index\":{\"_index\":\"" + target.index() + "\"}}\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            for (BulkLine line : lines) {
+                out.write(action);
+                out.write(line.bytes());
+                out.write('\n');
+            }
+        }
+    },
+
+    /**
+     * Grafana Loki push API: one stream with the configured labels.
+     */
+    LOKI("application/json") {
+        @Override
+        void write(OutputStream out, List<BulkLine> lines, BulkTarget target) throws IOException {
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("streams");
+                generator.writeStartObject();
+                generator.writeObjectFieldStart("stream");
+                for (Map.Entry<String, String> label : target.labels().entrySet()) {
+                    generator.writeStringField(label.getKey(), label.getValue());
+                }
+                generator.writeEndObject();
+                generator.writeArrayFieldStart("values");
+                for (BulkLine line : lines) {
+                    generator.writeStartArray();
+                    generator.writeString(Long.toString(line.timestampNanos()));
+                    generator.writeString(new String(line.bytes(), StandardCharsets.UTF_8));
+                    generator.writeEndArray();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        }
+    };
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String contentType;
+
+    BulkFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * Content type of the (uncompressed) payload.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    abstract void write(OutputStream out, List<BulkLine> lines, BulkTarget target) throws IOException;
+
+    /**
+     * One encoded log line waiting to be shipped.
+     *
+     * @param timestampNanos event time in epoch nanoseconds
+     * @param bytes          encoded line without the trailing line separator
+     */
+    record BulkLine(long timestampNanos, byte[] bytes) {
+    }
+
+    /**
+     * Destination details used when writing a payload.
+     *
+     * @param index  Elasticsearch index or data stream
+     * @param labels Loki stream labels
+     */
+    record BulkTarget(String index, Map<String, String> labels) {
+    }
+}
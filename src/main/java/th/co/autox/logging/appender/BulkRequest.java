@@ -0,0 +1,12 @@
+package th.co.autox.logging.appender;
+
+/**
+ * A batch of log lines ready to be sent to a {@link BulkSink}.
+ *
+ * @param body       payload, gzip-compressed when {@code compressed} is true
+ * @param lineCount  number of log lines in the payload
+ * @param format     wire format of the payload
+ * @param compressed whether the payload is gzip-compressed
+ */
+public record BulkRequest(byte[] body, int lineCount, BulkFormat format, boolean compressed) {
+}
@@ -0,0 +1,435 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import lombok.Setter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ships encoded log lines directly to Elasticsearch {@code _bulk} or Loki push,
+ * without tailing log files.
+ *
+ * <p>{@code append} encodes the event and puts the line on a bounded queue. A single
+ * shipper thread drains the queue into batches that are flushed when they reach
+ * {@code batchSize} lines or {@code maxBatchBytes}, or when {@code flushIntervalMs}
+ * has passed since the first line of the batch. Failed batches are retried with
+ * jittered exponential backoff; while a batch is retried the queue fills up, and
+ * further events are dropped (or block for up to {@code maxBlockMs}).</p>
+ *
+ * <pre>
+ * &lt;appender name="BULK" class="th.co.autox.logging.appender.BulkShippingAppender"&gt;
+ *     &lt;url&gt;http://elasticsearch:9200/_bulk&lt;/url&gt;
+ *     &lt;index&gt;logs-orders&lt;/index&gt;
+ *     &lt;encoder class="th.co.autox.logging.encoder.JsonLogEncoder"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class BulkShippingAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements EncodedLineAppender {
+
+    private static final BulkFormat.BulkLine WAKE_UP = new BulkFormat.BulkLine(0, new byte[0]);
+
+    /**
+     * Encoder for each line. The trailing line separator is removed.
+     */
+    @Setter
+    private Encoder<ILoggingEvent> encoder;
+
+    /**
+     * Custom sink. When not set, an {@link HttpBulkSink} is created from {@code url}.
+     */
+    @Setter
+    private BulkSink sink;
+
+    /**
+     * Bulk endpoint, e.g. {@code http://host:9200/_bulk} or {@code http://host:3100/loki/api/v1/push}.
+     */
+    @Setter
+    private String url;
+
+    /**
+     * Value of the Authorization header, if any.
+     */
+    @Setter
+    private String authorization;
+
+    /**
+     * Wire format: {@code ELASTICSEARCH} or {@code LOKI}.
+     */
+    @Setter
+    private BulkFormat format = BulkFormat.ELASTICSEARCH;
+
+    /**
+     * Elasticsearch index or data stream.
+     */
+    @Setter
+    private String index = "logs";
+
+    /**
+     * Loki stream labels as {@code key=value} pairs separated by commas.
+     */
+    @Setter
+    private String labels = "job=application";
+
+    /**
+     * Maximum lines per batch.
+     */
+    @Setter
+    private int batchSize = 500;
+
+    /**
+     * Maximum uncompressed line bytes per batch.
+     */
+    @Setter
+    private int maxBatchBytes = 5 * 1024 * 1024;
+
+    /**
+     * Maximum time a line waits for its batch to be flushed.
+     */
+    @Setter
+    private long flushIntervalMs = 1000;
+
+    /**
+     * Maximum number of lines waiting to be shipped.
+     */
+    @Setter
+    private int queueCapacity = 10000;
+
+    /**
+     * Time {@code append} may block when the queue is full; 0 drops the event immediately.
+     */
+    @Setter
+    private long maxBlockMs = 0;
+
+    /**
+     * Gzip-compress request bodies.
+     */
+    @Setter
+    private boolean compress = true;
+
+    /**
+     * Retries per batch before it is dropped.
+     */
+    @Setter
+    private int maxRetries = 5;
+
+    /**
+     * Base delay for the first retry; doubled on every attempt.
+     */
+    @Setter
+    private long retryBackoffMs = 200;
+
+    /**
+     * Upper bound for the retry delay.
+     */
+    @Setter
+    private long maxRetryBackoffMs = 10000;
+
+    /**
+     * Time allowed on stop to ship what is still queued.
+     */
+    @Setter
+    private long shutdownTimeoutMs = 5000;
+
+    @Setter
+    private long connectTimeoutMs = 2000;
+
+    @Setter
+    private long requestTimeoutMs = 10000;
+
+    private BlockingQueue<BulkFormat.BulkLine> queue;
+    private BulkFormat.BulkTarget target;
+    private Thread shipper;
+    private volatile boolean running;
+    private volatile long shutdownDeadline = Long.MAX_VALUE;
+
+    private final LongAdder droppedLines = new LongAdder();
+    private final LongAdder shippedLines = new LongAdder();
+    private final LongAdder shippedBatches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    @Override
+    public void start() {
+        if (encoder == null) {
+            addError("No encoder set for the appender named [" + name + "].");
+            return;
+        }
+        if (sink == null) {
+            if (url == null || url.isBlank()) {
+                addError("No url or sink set for the appender named [" + name + "].");
+                return;
+            }
+            sink = new HttpBulkSink(url, authorization, connectTimeoutMs, requestTimeoutMs);
+        }
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        target = new BulkFormat.BulkTarget(index, parseLabels(labels));
+        running = true;
+        shutdownDeadline = Long.MAX_VALUE;
+        shipper = new Thread(this::ship, "bulk-shipper-" + name);
+        shipper.setDaemon(true);
+        shipper.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        shutdownDeadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        running = false;
+        // Wake the shipper if it is waiting on an empty queue
+        queue.offer(WAKE_UP);
+        try {
+            shipper.join(shutdownTimeoutMs + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.remove(WAKE_UP);
+        if (!queue.isEmpty()) {
+            addWarn("Dropping " + queue.size() + " unshipped log lines on stop.");
+            droppedLines.add(queue.size());
+            queue.clear();
+        }
+        sink.close();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        enqueue(new BulkFormat.BulkLine(timestampNanos(event), encodeLine(event)));
+    }
+
+    /**
+     * Queue a line encoded by a {@link FanOutAppender}; the bytes are copied because the
+     * line is shipped after this returns.
+     */
+    @Override
+    public void appendEncoded(ILoggingEvent event, EncodedLine line) {
+        if (!isStarted()) {
+            return;
+        }
+        byte[] bytes = Arrays.copyOf(line.array(), line.contentLength());
+        enqueue(new BulkFormat.BulkLine(timestampNanos(event), bytes));
+    }
+
+    private void enqueue(BulkFormat.BulkLine line) {
+        boolean accepted;
+        if (maxBlockMs > 0) {
+            try {
+                accepted = queue.offer(line, maxBlockMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(line);
+        }
+        if (!accepted) {
+            droppedLines.increment();
+        }
+    }
+
+    /**
+     * Lines dropped because the queue was full, retries ran out or the appender stopped.
+     */
+    public long getDroppedCount() {
+        return droppedLines.sum();
+    }
+
+    /**
+     * Lines delivered to the sink.
+     */
+    public long getShippedCount() {
+        return shippedLines.sum();
+    }
+
+    /**
+     * Batches delivered to the sink.
+     */
+    public long getBatchCount() {
+        return shippedBatches.sum();
+    }
+
+    /**
+     * Batches dropped after a non-retryable error or the last retry.
+     */
+    public long getFailedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * Lines currently waiting in the queue.
+     */
+    public int getQueueSize() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    private void ship() {
+        List<BulkFormat.BulkLine> batch = new ArrayList<>(Math.max(1, batchSize));
+        long batchBytes = 0;
+        long batchDeadline = 0;
+        while (true) {
+            boolean stopping = !running;
+            BulkFormat.BulkLine line;
+            if (stopping) {
+                line = queue.poll();
+            } else {
+                long wait = batch.isEmpty() ? flushIntervalMs : batchDeadline - System.currentTimeMillis();
+                try {
+                    line = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+            if (line == WAKE_UP) {
+                continue;
+            }
+
+            if (line != null) {
+                if (batch.isEmpty()) {
+                    batchDeadline = System.currentTimeMillis() + flushIntervalMs;
+                }
+                batch.add(line);
+                batchBytes += line.bytes().length;
+            }
+
+            boolean full = batch.size() >= batchSize || batchBytes >= maxBatchBytes;
+            boolean due = !batch.isEmpty() && (line == null || System.currentTimeMillis() >= batchDeadline);
+            if (full || due) {
+                send(batch);
+                batch = new ArrayList<>(Math.max(1, batchSize));
+                batchBytes = 0;
+            }
+            if (stopping && line == null && batch.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private void send(List<BulkFormat.BulkLine> batch) {
+        BulkRequest request;
+        try {
+            request = new BulkRequest(payload(batch), batch.size(), format, compress);
+        } catch (IOException e) {
+            addError("Failed to build bulk request", e);
+            droppedLines.add(batch.size());
+            failedBatches.increment();
+            return;
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                sink.send(request);
+                shippedLines.add(batch.size());
+                shippedBatches.increment();
+                return;
+            } catch (IOException e) {
+                boolean retryable = !(e instanceof BulkSinkException sinkException) || sinkException.isRetryable();
+                long delay = backoff(attempt);
+                if (!retryable || attempt >= maxRetries
+                        || System.currentTimeMillis() + delay > shutdownDeadline) {
+                    addWarn("Dropping bulk batch of " + batch.size() + " lines after "
+                            + (attempt + 1) + " attempt(s): " + e.getMessage());
+                    droppedLines.add(batch.size());
+                    failedBatches.increment();
+                    return;
+                }
+                sleep(delay);
+            }
+        }
+    }
+
+    private byte[] payload(List<BulkFormat.BulkLine> batch) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(estimateSize(batch));
+        if (compress) {
+            try (OutputStream out = new GZIPOutputStream(buffer, 8192)) {
+                format.write(out, batch, target);
+            }
+        } else {
+            format.write(buffer, batch, target);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Full-jitter exponential backoff: uniform in [0, min(max, base * 2^attempt)].
+     */
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(Math.max(1, ceiling) + 1);
+    }
+
+    private void sleep(long delayMs) {
+        long wakeUp = System.currentTimeMillis() + delayMs;
+        long remaining = delayMs;
+        while (remaining > 0) {
+            try {
+                Thread.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            remaining = wakeUp - System.currentTimeMillis();
+        }
+    }
+
+    private byte[] encodeLine(ILoggingEvent event) {
+        byte[] encoded = encoder.encode(event);
+        int length = encoded.length;
+        while (length > 0 && (encoded[length - 1] == '\n' || encoded[length - 1] == '\r')) {
+            length--;
+        }
+        if (length == encoded.length) {
+            return encoded;
+        }
+        byte[] line = new byte[length];
+        System.arraycopy(encoded, 0, line, 0, length);
+        return line;
+    }
+
+    private static long timestampNanos(ILoggingEvent event) {
+        Instant instant = event.getInstant();
+        if (instant == null) {
+            return event.getTimeStamp() * 1_000_000L;
+        }
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static int estimateSize(List<BulkFormat.BulkLine> batch) {
+        long size = 0;
+        for (BulkFormat.BulkLine line : batch) {
+            size += line.bytes().length + 64;
+        }
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(256, size / 4));
+    }
+
+    private static Map<String, String> parseLabels(String labels) {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (labels == null) {
+            return result;
+        }
+        for (String pair : labels.split(",")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                result.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,24 @@
+package th.co.autox.logging.appender;
+
+import java.io.IOException;
+
+/**
+ * Destination of bulk requests built by {@link BulkShippingAppender}.
+ *
+ * <p>Implementations throw {@link BulkSinkException} with {@code retryable = false}
+ * when the batch must not be sent again (for example a 400 response). Any other
+ * {@link IOException} is retried with backoff.</p>
+ */
+public interface BulkSink {
+
+    /**
+     * Send one batch. Called from the appender's single shipper thread.
+     */
+    void send(BulkRequest request) throws IOException;
+
+    /**
+     * Release resources when the appender stops.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,40 @@
+package th.co.autox.logging.appender;
+
+import java.io.IOException;
+
+/**
+ * Failure reported by a {@link BulkSink}.
+ */
+public class BulkSinkException extends IOException {
+
+    private final int statusCode;
+    private final boolean retryable;
+
+    public BulkSinkException(String message, int statusCode, boolean retryable) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryable = retryable;
+    }
+
+    /**
+     * HTTP status code, or 0 when not applicable.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Whether the same batch may be sent again.
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * Build an exception for an HTTP status. 408, 429 and 5xx are retryable.
+     */
+    public static BulkSinkException forStatus(int statusCode) {
+        boolean retryable = statusCode == 408 || statusCode == 429 || statusCode >= 500;
+        return new BulkSinkException("Bulk request failed with status " + statusCode, statusCode, retryable);
+    }
+}
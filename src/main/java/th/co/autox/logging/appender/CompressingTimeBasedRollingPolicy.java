@@ -0,0 +1,237 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.core.rolling.RolloverFailure;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.rolling.helper.CompressionMode;
+import ch.qos.logback.core.rolling.helper.FileNamePattern;
+import ch.qos.logback.core.util.FileSize;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * {@link TimeBasedRollingPolicy} that compresses rolled files into block-framed gzip
+ * archives ({@link BlockGzip}) on its own bounded thread pool.
+ *
+ * <p>The {@code fileNamePattern} must end with {@code .gz}. On rollover the active file is
+ * only renamed to the pattern's name without {@code .gz}, so the logging thread never
+ * compresses. A background thread then writes {@code <rolled>.gz} with its
+ * {@code .bidx} block index, moves the correlation index sealed by an
+ * {@link IndexingRollingFileAppender} to {@code <rolled>.gz.cidx}, and deletes the
+ * uncompressed file. {@code maxHistory} and {@code totalSizeCap} apply to the archives, as
+ * with logback's own compression. Files left uncompressed by a restart are compressed on
+ * the next start.</p>
+ *
+ * <pre>
+ * &lt;rollingPolicy class="th.co.autox.logging.appender.CompressingTimeBasedRollingPolicy"&gt;
+ *     &lt;fileNamePattern&gt;logs/app.%d{yyyy-MM-dd}.json.log.gz&lt;/fileNamePattern&gt;
+ *     &lt;maxHistory&gt;30&lt;/maxHistory&gt;
+ * &lt;/rollingPolicy&gt;
+ * </pre>
+ */
+public class CompressingTimeBasedRollingPolicy<E> extends TimeBasedRollingPolicy<E> {
+
+    private static final String GZ_SUFFIX = ".gz";
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * Threads compressing rolled files.
+     */
+    @Setter
+    private int compressionThreads = 1;
+
+    /**
+     * Uncompressed bytes per gzip block; the unit of random access.
+     */
+    @Setter
+    private FileSize blockSize = new FileSize(64 * 1024);
+
+    /**
+     * Deflate level, 1 (fastest) to 9 (smallest).
+     */
+    @Setter
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * How long {@code stop} waits for pending compressions; unfinished files are
+     * compressed on the next start.
+     */
+    @Setter
+    private long maxShutdownWaitMs = 30_000;
+
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private ThreadPoolExecutor executor;
+
+    @Override
+    public void start() {
+        if (fileNamePatternStr == null || !fileNamePatternStr.endsWith(GZ_SUFFIX)) {
+            addError("The fileNamePattern of " + getClass().getSimpleName() + " must end with " + GZ_SUFFIX);
+            return;
+        }
+        super.start();
+        if (!isStarted()) {
+            return;
+        }
+        // Rollover now only renames to the name without .gz; this policy compresses
+        compressionMode = CompressionMode.NONE;
+        int threads = Math.max(1, compressionThreads);
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "log-compressor-" + THREAD_NUMBER.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        compressLeftovers();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        ExecutorService pool = executor;
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(maxShutdownWaitMs, TimeUnit.MILLISECONDS)) {
+                List<Runnable> pending = pool.shutdownNow();
+                addWarn(pending.size() + " rolled files left uncompressed on stop; they are compressed on the next start");
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void rollover() throws RolloverFailure {
+        String rolled = getTimeBasedFileNamingAndTriggeringPolicy().getElapsedPeriodsFileName();
+        super.rollover();
+        submit(Path.of(rolled));
+    }
+
+    private void submit(Path rolled) {
+        try {
+            executor.execute(() -> compress(rolled));
+        } catch (RuntimeException e) {
+            addWarn("Failed to schedule compression of " + rolled + "; it is compressed on the next start", e);
+        }
+    }
+
+    private void compress(Path rolled) {
+        if (!Files.exists(rolled)) {
+            return;
+        }
+        Path archive = rolled.resolveSibling(rolled.getFileName() + GZ_SUFFIX);
+        try {
+            BlockGzip.compress(rolled, archive, (int) Math.min(Integer.MAX_VALUE / 2, blockSize.getSize()),
+                    compressionLevel);
+            Path index = CorrelationIndex.indexFor(rolled);
+            if (Files.exists(index)) {
+                Files.move(index, CorrelationIndex.indexFor(archive), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.delete(rolled);
+            compressed.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            addError("Failed to compress rolled log file " + rolled, e);
+            deleteQuietly(archive.resolveSibling(archive.getFileName() + ".tmp"));
+            deleteQuietly(BlockGzip.blockIndexFor(archive).resolveSibling(
+                    BlockGzip.blockIndexFor(archive).getFileName() + ".tmp"));
+        }
+        removeOrphanedBlockIndexes(rolled.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Schedule rolled files that a previous run did not get to compress: files matching
+     * the pattern without {@code .gz} in the archive directory, other than the active file.
+     */
+    private void compressLeftovers() {
+        String uncompressedPattern = fileNamePatternStr.substring(0, fileNamePatternStr.length() - GZ_SUFFIX.length());
+        FileNamePattern pattern = new FileNamePattern(uncompressedPattern, context);
+        Path directory = Path.of(pattern.convert(new Date())).toAbsolutePath().getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        FileNamePattern stem = new FileNamePattern(Path.of(uncompressedPattern).getFileName().toString(), context);
+        Pattern regex = Pattern.compile(stem.toRegex());
+        Path active = Path.of(getActiveFileName()).toAbsolutePath();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> regex.matcher(file.getFileName().toString()).matches())
+                    .filter(file -> !file.toAbsolutePath().equals(active))
+                    .sorted()
+                    .forEach(this::submit);
+        } catch (IOException e) {
+            addWarn("Failed to list " + directory + " for uncompressed rolled files", e);
+        }
+    }
+
+    /**
+     * Delete block indexes whose archive was removed, for example by {@code maxHistory}.
+     */
+    private void removeOrphanedBlockIndexes(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(BlockGzip::isSidecar)
+                    .filter(index -> {
+                        String name = index.getFileName().toString();
+                        return !Files.exists(index.resolveSibling(
+                                name.substring(0, name.length() - BlockGzip.BLOCK_INDEX_SUFFIX.length())));
+                    })
+                    .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            addWarn("Failed to list " + directory + " for orphaned block indexes", e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            addWarn("Failed to delete " + file, e);
+        }
+    }
+
+    /**
+     * Rolled files compressed.
+     */
+    public long getCompressedCount() {
+        return compressed.sum();
+    }
+
+    /**
+     * Rolled files that failed to compress and were left as they are.
+     */
+    public long getCompressionFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Rolled files waiting for or in compression.
+     */
+    public int getPendingCompressionCount() {
+        ThreadPoolExecutor pool = executor;
+        return pool != null ? pool.getQueue().size() + pool.getActiveCount() : 0;
+    }
+}
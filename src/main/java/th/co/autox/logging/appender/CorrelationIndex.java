@@ -0,0 +1,283 @@
+package th.co.autox.logging.appender;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Sidecar index from correlation ID to the byte offsets of the lines that carry it.
+ *
+ * <p>While a log file is active, {@link Writer} appends {@code [long hash][long offset]}
+ * records to {@code <file>.cidx.journal} in write order. On rollover the journal is
+ * {@link #seal sealed} into {@code <rolled file>.cidx}: a 16-byte header
+ * ({@code int magic, int version, long count}) followed by the records sorted by hash,
+ * which {@link #offsets} binary-searches through a memory mapping.</p>
+ *
+ * <p>The hash is part of the file format: FNV-1a over the UTF-8 bytes of the ID
+ * followed by the MurmurHash3 finalizer. Different IDs can share a hash, so callers
+ * check the line itself.</p>
+ */
+public final class CorrelationIndex {
+
+    static final String INDEX_SUFFIX = ".cidx";
+    static final String JOURNAL_SUFFIX = ".cidx.journal";
+
+    private static final int MAGIC = 0x43494458;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 16;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private CorrelationIndex() {
+        // Utility class
+    }
+
+    /**
+     * Sealed index file of a log file.
+     */
+    public static Path indexFor(Path logFile) {
+        return logFile.resolveSibling(logFile.getFileName() + INDEX_SUFFIX);
+    }
+
+    /**
+     * Journal of a log file that is still being written.
+     */
+    public static Path journalFor(Path logFile) {
+        return logFile.resolveSibling(logFile.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Whether a file is an index or journal rather than a log file.
+     */
+    public static boolean isSidecar(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(INDEX_SUFFIX) || name.endsWith(JOURNAL_SUFFIX);
+    }
+
+    static long hash(String correlationId) {
+        long hash = FNV_OFFSET;
+        for (byte b : correlationId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Offsets recorded for a correlation ID in a sealed index, in file order.
+     */
+    public static long[] offsets(Path index, String correlationId) throws IOException {
+        long hash = hash(correlationId);
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Unsupported index size " + size + ": " + index);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+                throw new IOException("Not a correlation index: " + index);
+            }
+            long count = map.getLong(8);
+            if (HEADER_BYTES + count * RECORD_BYTES > size) {
+                throw new IOException("Truncated correlation index: " + index);
+            }
+            int low = 0;
+            int high = (int) count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Long.compare(map.getLong(HEADER_BYTES + mid * RECORD_BYTES), hash) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int end = low;
+            while (end < count && map.getLong(HEADER_BYTES + end * RECORD_BYTES) == hash) {
+                end++;
+            }
+            long[] offsets = new long[end - low];
+            for (int i = low; i < end; i++) {
+                offsets[i - low] = map.getLong(HEADER_BYTES + i * RECORD_BYTES + 8);
+            }
+            return offsets;
+        }
+    }
+
+    /**
+     * Result of reading a journal: the offsets recorded for one ID and the highest
+     * offset recorded for any ID, after which the log file is not covered.
+     */
+    public record JournalMatch(long[] offsets, long lastOffset) {
+    }
+
+    /**
+     * Offsets recorded for a correlation ID in a journal, in file order.
+     */
+    public static JournalMatch journalOffsets(Path journal, String correlationId) throws IOException {
+        long hash = hash(correlationId);
+        long[] offsets = new long[16];
+        int found = 0;
+        long lastOffset = -1;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+            while (channel.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                if (buffer.remaining() < RECORD_BYTES) {
+                    break;
+                }
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    long recordHash = buffer.getLong();
+                    long offset = buffer.getLong();
+                    lastOffset = Math.max(lastOffset, offset);
+                    if (recordHash == hash) {
+                        if (found == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, found * 2);
+                        }
+                        offsets[found++] = offset;
+                    }
+                }
+                buffer.compact();
+            }
+        }
+        return new JournalMatch(Arrays.copyOf(offsets, found), lastOffset);
+    }
+
+    /**
+     * Sort a journal into a sealed index and delete the journal.
+     */
+    public static void seal(Path journal, Path index) throws IOException {
+        long journalBytes = Files.size(journal);
+        long count = journalBytes / RECORD_BYTES;
+        if (HEADER_BYTES + count * RECORD_BYTES > Integer.MAX_VALUE) {
+            throw new IOException("Journal too large to seal: " + journal);
+        }
+        long[] hashes = new long[(int) count];
+        long[] offsets = new long[(int) count];
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, count * RECORD_BYTES);
+            for (int i = 0; i < count; i++) {
+                hashes[i] = map.getLong();
+                offsets[i] = map.getLong();
+            }
+        }
+        sort(hashes, offsets);
+
+        Path temp = index.resolveSibling(index.getFileName() + ".tmp");
+        int size = (int) (HEADER_BYTES + count * RECORD_BYTES);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            map.putInt(MAGIC).putInt(VERSION).putLong(count);
+            for (int i = 0; i < count; i++) {
+                map.putLong(hashes[i]).putLong(offsets[i]);
+            }
+            map.force();
+        }
+        Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(journal);
+    }
+
+    /**
+     * Heapsort of the record pairs by hash, then offset.
+     */
+    private static void sort(long[] hashes, long[] offsets) {
+        int n = hashes.length;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(hashes, offsets, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(hashes, offsets, 0, end);
+            siftDown(hashes, offsets, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] hashes, long[] offsets, int root, int size) {
+        while (true) {
+            int child = 2 * root + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && greater(hashes, offsets, child + 1, child)) {
+                child++;
+            }
+            if (!greater(hashes, offsets, child, root)) {
+                return;
+            }
+            swap(hashes, offsets, root, child);
+            root = child;
+        }
+    }
+
+    private static boolean greater(long[] hashes, long[] offsets, int a, int b) {
+        int byHash = Long.compare(hashes[a], hashes[b]);
+        return byHash != 0 ? byHash > 0 : offsets[a] > offsets[b];
+    }
+
+    private static void swap(long[] hashes, long[] offsets, int a, int b) {
+        long hash = hashes[a];
+        hashes[a] = hashes[b];
+        hashes[b] = hash;
+        long offset = offsets[a];
+        offsets[a] = offsets[b];
+        offsets[b] = offset;
+    }
+
+    /**
+     * Appends records to the journal of the active log file. Not thread-safe; the
+     * appender calls it under its write lock.
+     */
+    public static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 256);
+
+        public Writer(Path journal) throws IOException {
+            this.channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+
+        /**
+         * Record that a line with the given correlation ID starts at an offset.
+         */
+        public void append(String correlationId, long offset) throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush();
+            }
+            buffer.putLong(hash(correlationId)).putLong(offset);
+        }
+
+        /**
+         * Write buffered records to the journal.
+         */
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
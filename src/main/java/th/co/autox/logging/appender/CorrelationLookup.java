@@ -0,0 +1,253 @@
+package th.co.autox.logging.appender;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Finds every log line of one correlation ID across log files.
+ *
+ * <p>Files with a sealed {@link CorrelationIndex} are read only at the indexed offsets.
+ * Archives written by {@link CompressingTimeBasedRollingPolicy} keep their index and a
+ * {@link BlockGzip} block index, so only the blocks holding those offsets are decompressed.
+ * The active file is read at the offsets in its journal, plus the lines written after the
+ * last journaled one. Any other file, including other {@code .gz} files, is scanned in full.
+ * A line matches when it contains the ID in double quotes.</p>
+ *
+ * <pre>
+ * java -cp app.jar th.co.autox.logging.appender.CorrelationLookup &lt;correlation-id&gt; logs/
+ * </pre>
+ */
+public final class CorrelationLookup {
+
+    private static final String USAGE =
+            "Usage: CorrelationLookup <correlation-id> <file-or-directory>...";
+
+    private CorrelationLookup() {
+        // Utility class
+    }
+
+    /**
+     * A matching line.
+     *
+     * @param file   log file
+     * @param offset byte offset of the line (uncompressed offset for {@code .gz} files)
+     * @param line   the line, without its line separator
+     */
+    public record Match(Path file, long offset, String line) {
+    }
+
+    /**
+     * Lookup result.
+     *
+     * @param matches      matching lines, by file (oldest first) and offset
+     * @param indexedFiles files read through an index or journal
+     * @param scannedFiles files scanned in full
+     */
+    public record Result(List<Match> matches, int indexedFiles, int scannedFiles) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        List<Path> paths = Arrays.stream(args, 1, args.length).map(Path::of).toList();
+        Result result = find(args[0], paths);
+        result.matches().forEach(match -> System.out.println(match.line()));
+        System.err.printf("%d lines, %d indexed files, %d scanned files, %d ms%n",
+                result.matches().size(), result.indexedFiles(), result.scannedFiles(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Find the lines of a correlation ID in the given log files and directories.
+     */
+    public static Result find(String correlationId, List<Path> paths) throws IOException {
+        String quoted = "\"" + correlationId + "\"";
+        byte[] needle = quoted.getBytes(StandardCharsets.UTF_8);
+        List<Match> matches = new ArrayList<>();
+        int indexed = 0;
+        int scanned = 0;
+        for (Path file : logFiles(paths)) {
+            Path index = CorrelationIndex.indexFor(file);
+            Path journal = CorrelationIndex.journalFor(file);
+            boolean archive = file.getFileName().toString().endsWith(".gz");
+            if (Files.exists(index) && (!archive || Files.exists(BlockGzip.blockIndexFor(file)))) {
+                long[] offsets = CorrelationIndex.offsets(index, correlationId);
+                if (archive) {
+                    readArchivedLines(file, offsets, quoted, matches);
+                } else {
+                    readLines(file, offsets, quoted, matches);
+                }
+                indexed++;
+            } else if (Files.exists(journal)) {
+                CorrelationIndex.JournalMatch journaled = CorrelationIndex.journalOffsets(journal, correlationId);
+                readLines(file, journaled.offsets(), quoted, matches);
+                // Lines after the last journaled one may still be buffered in the journal writer
+                scan(file, Math.max(0, journaled.lastOffset()), journaled.lastOffset(), needle, matches);
+                indexed++;
+            } else {
+                scan(file, 0, -1, needle, matches);
+                scanned++;
+            }
+        }
+        return new Result(matches, indexed, scanned);
+    }
+
+    private static List<Path> logFiles(List<Path> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    children.filter(Files::isRegularFile)
+                            .filter(file -> !CorrelationIndex.isSidecar(file) && !BlockGzip.isSidecar(file))
+                            .filter(file -> !file.getFileName().toString().endsWith(".tmp"))
+                            .sorted(Comparator.comparing(CorrelationLookup::lastModified)
+                                    .thenComparing(Path::toString))
+                            .forEach(files::add);
+                }
+            } else if (Files.isRegularFile(path)) {
+                files.add(path);
+            }
+        }
+        return files;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void readLines(Path file, long[] offsets, String quoted, List<Match> matches)
+            throws IOException {
+        if (offsets.length == 0) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            for (long offset : offsets) {
+                String line = readLine(channel, offset, buffer);
+                // Different IDs can share a hash
+                if (line != null && line.contains(quoted)) {
+                    matches.add(new Match(file, offset, line));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read indexed lines of a block-framed archive, decompressing only their blocks.
+     */
+    private static void readArchivedLines(Path file, long[] offsets, String quoted, List<Match> matches)
+            throws IOException {
+        if (offsets.length == 0) {
+            return;
+        }
+        try (BlockGzip.Reader reader = new BlockGzip.Reader(file)) {
+            for (long offset : offsets) {
+                String line = reader.readLine(offset);
+                if (line != null && line.contains(quoted)) {
+                    matches.add(new Match(file, offset, line));
+                }
+            }
+        }
+    }
+
+    private static String readLine(FileChannel channel, long offset, ByteBuffer buffer) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+        long position = offset;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return line.size() > 0 ? stripCarriageReturn(line.toString(StandardCharsets.UTF_8)) : null;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    line.write(buffer.array(), 0, i);
+                    return stripCarriageReturn(line.toString(StandardCharsets.UTF_8));
+                }
+            }
+            line.write(buffer.array(), 0, read);
+            position += read;
+        }
+    }
+
+    /**
+     * Scan lines from a byte offset, keeping those after {@code skipThrough} that contain the needle.
+     */
+    private static void scan(Path file, long from, long skipThrough, byte[] needle, List<Match> matches)
+            throws IOException {
+        boolean gzip = file.getFileName().toString().endsWith(".gz");
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream in = gzip ? new GZIPInputStream(raw, 65536) : raw) {
+            long position = gzip ? 0 : from;
+            if (!gzip) {
+                raw.skipNBytes(from);
+            }
+            byte[] buffer = new byte[65536];
+            byte[] line = new byte[1024];
+            int length = 0;
+            long lineStart = position;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    position++;
+                    if (b == '\n') {
+                        addIfMatches(file, lineStart, skipThrough, line, length, needle, matches);
+                        length = 0;
+                        lineStart = position;
+                    } else {
+                        if (length == line.length) {
+                            line = Arrays.copyOf(line, length * 2);
+                        }
+                        line[length++] = b;
+                    }
+                }
+            }
+            addIfMatches(file, lineStart, skipThrough, line, length, needle, matches);
+        }
+    }
+
+    private static void addIfMatches(Path file, long offset, long skipThrough, byte[] line, int length,
+                                     byte[] needle, List<Match> matches) {
+        if (length == 0 || offset <= skipThrough || !contains(line, length, needle)) {
+            return;
+        }
+        String text = new String(line, 0, length, StandardCharsets.UTF_8);
+        matches.add(new Match(file, offset, stripCarriageReturn(text)));
+    }
+
+    private static boolean contains(byte[] haystack, int length, byte[] needle) {
+        for (int i = 0; i <= length - needle.length; i++) {
+            if (haystack[i] == needle[0]
+                    && Arrays.equals(haystack, i, i + needle.length, needle, 0, needle.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripCarriageReturn(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+}
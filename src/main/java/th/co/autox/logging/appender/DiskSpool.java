@@ -0,0 +1,267 @@
+package th.co.autox.logging.appender;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only spool of records in memory-mapped segment files.
+ *
+ * <p>Each segment is a fixed-size file named {@code spool-<sequence>.seg}. A record is
+ * written as {@code [int length][int crc32][payload]}; the length is written last, so
+ * a record torn by a crash reads as the end of the segment, and a record with a bad
+ * checksum is discarded together with everything after it in that segment. Replayed
+ * records are marked by negating their length, so after a restart only records that
+ * were not yet replayed are read again. A segment file is deleted once every record
+ * in it has been replayed.</p>
+ *
+ * <p>The total size of all segment files is capped at {@code maxBytes}; {@link #append}
+ * returns false when a record does not fit.</p>
+ */
+public class DiskSpool implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String PREFIX = "spool-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private Segment writeSegment;
+    private long nextSequence;
+    private long pendingRecords;
+    private long pendingBytes;
+    private long corruptRecords;
+
+    public DiskSpool(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = Math.max(4096, segmentBytes);
+        this.maxSegments = (int) Math.max(2, Math.min(Integer.MAX_VALUE, maxBytes / this.segmentBytes));
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Append a record. Returns false when the spool is full or the record is larger than a segment.
+     */
+    public synchronized boolean append(byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentBytes) {
+            return false;
+        }
+        if (writeSegment == null || writeSegment.writePosition + size > segmentBytes) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            writeSegment = createSegment();
+        }
+
+        MappedByteBuffer buffer = writeSegment.buffer;
+        int position = writeSegment.writePosition;
+        crc.reset();
+        crc.update(payload);
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, payload.length);
+        writeSegment.writePosition = position + size;
+
+        pendingRecords++;
+        pendingBytes += payload.length;
+        return true;
+    }
+
+    /**
+     * Take the oldest record that has not been replayed, or null when the spool is empty.
+     */
+    public synchronized byte[] poll() throws IOException {
+        while (!segments.isEmpty()) {
+            Segment segment = segments.peekFirst();
+            byte[] payload = readNext(segment);
+            if (payload != null) {
+                pendingRecords--;
+                pendingBytes -= payload.length;
+                return payload;
+            }
+            if (segment == writeSegment) {
+                return null;
+            }
+            segments.pollFirst();
+            deleteSegment(segment);
+        }
+        return null;
+    }
+
+    /**
+     * Number of records waiting to be replayed.
+     */
+    public synchronized long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * Payload bytes waiting to be replayed.
+     */
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Bytes used by segment files on disk.
+     */
+    public synchronized long getDiskBytes() {
+        return (long) segments.size() * segmentBytes;
+    }
+
+    /**
+     * Records discarded during recovery because their checksum did not match.
+     */
+    public synchronized long getCorruptRecords() {
+        return corruptRecords;
+    }
+
+    /**
+     * Flush written records to the storage device.
+     */
+    public synchronized void force() {
+        if (writeSegment != null) {
+            writeSegment.buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+        writeSegment = null;
+    }
+
+    private byte[] readNext(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        while (segment.readPosition < segment.writePosition) {
+            int position = segment.readPosition;
+            int length = buffer.getInt(position);
+            int size = HEADER_BYTES + Math.abs(length);
+            segment.readPosition = position + size;
+            if (length < 0) {
+                continue;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            buffer.putInt(position, -length);
+            return payload;
+        }
+        return null;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.filter(path -> sequenceOf(path) >= 0).forEach(files::add);
+        }
+        files.sort((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+
+        for (Path file : files) {
+            nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+            Segment segment = openSegment(file);
+            scan(segment);
+            if (segment.readPosition >= segment.writePosition) {
+                deleteSegment(segment);
+            } else {
+                segments.addLast(segment);
+            }
+        }
+    }
+
+    /**
+     * Find the end of the valid records and the first record that was not replayed.
+     */
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        int firstPending = -1;
+        while (position + HEADER_BYTES <= segmentBytes) {
+            int length = buffer.getInt(position);
+            if (length == 0 || position + HEADER_BYTES + Math.abs(length) > segmentBytes) {
+                break;
+            }
+            if (length > 0) {
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_BYTES, payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    corruptRecords++;
+                    break;
+                }
+                if (firstPending < 0) {
+                    firstPending = position;
+                }
+                pendingRecords++;
+                pendingBytes += length;
+            }
+            position += HEADER_BYTES + Math.abs(length);
+        }
+        segment.writePosition = position;
+        segment.readPosition = firstPending >= 0 ? firstPending : position;
+    }
+
+    private Segment createSegment() throws IOException {
+        Segment segment = openSegment(directory.resolve(PREFIX + String.format("%012d", nextSequence++) + SUFFIX));
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private Segment openSegment(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        return new Segment(file, channel, buffer);
+    }
+
+    private void deleteSegment(Segment segment) throws IOException {
+        segment.channel.close();
+        Files.deleteIfExists(segment.file);
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int readPosition;
+
+        private Segment(Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link ConsoleAppender} that also writes lines encoded by a {@link FanOutAppender}.
+ * Events appended directly are encoded by its own encoder as usual.
+ */
+public class EncodedConsoleAppender extends ConsoleAppender<ILoggingEvent> implements EncodedLineAppender {
+
+    @Override
+    public void appendEncoded(ILoggingEvent event, EncodedLine line) throws IOException {
+        if (!isStarted()) {
+            return;
+        }
+        streamWriteLock.lock();
+        try {
+            OutputStream out = getOutputStream();
+            out.write(line.array(), 0, line.length());
+            if (isImmediateFlush()) {
+                out.flush();
+            }
+        } finally {
+            streamWriteLock.unlock();
+        }
+    }
+
+    @Override
+    public void flushEncoded() throws IOException {
+        streamWriteLock.lock();
+        try {
+            OutputStream out = getOutputStream();
+            if (out != null) {
+                out.flush();
+            }
+        } finally {
+            streamWriteLock.unlock();
+        }
+    }
+}
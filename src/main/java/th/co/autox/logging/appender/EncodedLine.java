@@ -0,0 +1,101 @@
+package th.co.autox.logging.appender;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pooled, reference-counted buffer holding one encoded log line, shared by the
+ * appenders of a {@link FanOutAppender}.
+ *
+ * <p>The line is written once through its {@link OutputStream} methods and is read-only
+ * afterwards. Each holder {@link #retain() retains} it and {@link #release() releases} it
+ * when done; the last release returns the buffer to its {@link EncodedLinePool}.</p>
+ */
+public final class EncodedLine extends OutputStream {
+
+    private final EncodedLinePool pool;
+    private final AtomicInteger references = new AtomicInteger();
+    private byte[] bytes;
+    private int length;
+
+    EncodedLine(EncodedLinePool pool, int initialCapacity) {
+        this.pool = pool;
+        this.bytes = new byte[initialCapacity];
+    }
+
+    /**
+     * Backing array; only the first {@link #length()} bytes belong to the line.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    /**
+     * Length of the line, including its line separator.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Length of the line without trailing line separators.
+     */
+    public int contentLength() {
+        int end = length;
+        while (end > 0 && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) {
+            end--;
+        }
+        return end;
+    }
+
+    public EncodedLine retain() {
+        references.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Drop one reference; the last one returns the buffer to the pool.
+     */
+    public void release() {
+        int remaining = references.decrementAndGet();
+        if (remaining == 0) {
+            length = 0;
+            pool.recycle(this);
+        } else if (remaining < 0) {
+            throw new IllegalStateException("Encoded line released more often than retained");
+        }
+    }
+
+    void reset() {
+        length = 0;
+    }
+
+    int capacity() {
+        return bytes.length;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(length + 1);
+        bytes[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] source) {
+        write(source, 0, source.length);
+    }
+
+    @Override
+    public void write(byte[] source, int offset, int count) {
+        ensureCapacity(length + count);
+        System.arraycopy(source, offset, bytes, length, count);
+        length += count;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+
+import java.io.IOException;
+
+/**
+ * An appender that can write a line encoded by a {@link FanOutAppender} instead of
+ * encoding the event itself.
+ */
+public interface EncodedLineAppender extends Appender<ILoggingEvent> {
+
+    /**
+     * Write an encoded line. The line is released after this returns; {@link EncodedLine#retain()
+     * retain} it or copy its bytes to keep it longer.
+     */
+    void appendEncoded(ILoggingEvent event, EncodedLine line) throws IOException;
+
+    /**
+     * Flush buffered lines; called when the fan-out queue of this appender is empty.
+     */
+    default void flushEncoded() throws IOException {
+    }
+}
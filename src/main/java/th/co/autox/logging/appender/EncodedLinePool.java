@@ -0,0 +1,59 @@
+package th.co.autox.logging.appender;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of {@link EncodedLine} buffers.
+ *
+ * <p>When the pool is empty a new buffer is allocated; a released buffer is kept only
+ * while the pool has room and the buffer has not grown beyond {@code maxPooledBytes},
+ * so a few huge lines do not stay allocated.</p>
+ */
+public final class EncodedLinePool {
+
+    private final BlockingQueue<EncodedLine> idle;
+    private final int initialBytes;
+    private final int maxPooledBytes;
+    private final LongAdder allocated = new LongAdder();
+
+    public EncodedLinePool(int maxIdle, int initialBytes, int maxPooledBytes) {
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+        this.initialBytes = Math.max(64, initialBytes);
+        this.maxPooledBytes = Math.max(this.initialBytes, maxPooledBytes);
+    }
+
+    /**
+     * An empty line holding one reference.
+     */
+    public EncodedLine acquire() {
+        EncodedLine line = idle.poll();
+        if (line == null) {
+            allocated.increment();
+            line = new EncodedLine(this, initialBytes);
+        }
+        line.reset();
+        return line.retain();
+    }
+
+    void recycle(EncodedLine line) {
+        if (line.capacity() <= maxPooledBytes) {
+            idle.offer(line);
+        }
+    }
+
+    /**
+     * Buffers waiting in the pool.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Buffers allocated because the pool was empty.
+     */
+    public long getAllocatedCount() {
+        return allocated.sum();
+    }
+}
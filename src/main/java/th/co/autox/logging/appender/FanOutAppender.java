@@ -0,0 +1,361 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Setter;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Encodes each event once and hands the same bytes to all attached appenders.
+ *
+ * <p>The event is encoded into a pooled {@link EncodedLine}. Attached appenders that
+ * implement {@link EncodedLineAppender} write those bytes; others receive the event and
+ * encode it themselves. The line is reference-counted and returns to the pool when every
+ * appender has written it.</p>
+ *
+ * <p>Each attached appender has its own queue and thread, so a slow or failing appender
+ * does not hold back the others: its errors are counted and reported, and with
+ * {@code neverBlock} its lines are dropped once its queue is full. Encoded appenders are
+ * flushed whenever their queue runs empty, so they can run with {@code immediateFlush}
+ * off. A {@code queueSize} of 0 writes to every appender on the calling thread.</p>
+ *
+ * <pre>
+ * &lt;appender name="FAN_OUT" class="th.co.autox.logging.appender.FanOutAppender"&gt;
+ *     &lt;encoder class="th.co.autox.logging.encoder.JsonLogEncoder"/&gt;
+ *     &lt;appender-ref ref="JSON_CONSOLE"/&gt;
+ *     &lt;appender-ref ref="JSON_FILE"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class FanOutAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private static final long REPORT_EVERY = 1000;
+
+    @Setter
+    private Encoder<ILoggingEvent> encoder;
+
+    /**
+     * Lines queued per attached appender; 0 writes on the calling thread.
+     */
+    @Setter
+    private int queueSize = 8192;
+
+    /**
+     * Drop lines for an appender whose queue is full instead of waiting.
+     */
+    @Setter
+    private boolean neverBlock = false;
+
+    /**
+     * Idle buffers kept in the pool.
+     */
+    @Setter
+    private int poolSize = 1024;
+
+    /**
+     * Buffers grown beyond this size are not returned to the pool.
+     */
+    @Setter
+    private int maxPooledBytes = 65536;
+
+    /**
+     * How long {@code stop} waits for queued lines to be written.
+     */
+    @Setter
+    private long maxFlushTimeMs = 1000;
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private EncodedLinePool pool;
+    private List<Sink> sinks = List.of();
+    private boolean anyEncoded;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for the appender named [" + name + "].");
+            return;
+        }
+        pool = new EncodedLinePool(poolSize, 1024, maxPooledBytes);
+        List<Sink> started = new ArrayList<>();
+        for (Iterator<Appender<ILoggingEvent>> it = appenders.iteratorForAppenders(); it.hasNext(); ) {
+            Sink sink = new Sink(it.next());
+            sink.start();
+            started.add(sink);
+        }
+        if (started.isEmpty()) {
+            addWarn("No appenders attached to the appender named [" + name + "].");
+        }
+        sinks = List.copyOf(started);
+        anyEncoded = sinks.stream().anyMatch(sink -> sink.encoded != null);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        long deadline = System.currentTimeMillis() + maxFlushTimeMs;
+        for (Sink sink : sinks) {
+            sink.stop(deadline);
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Attached appenders may read the event on their own threads
+        event.prepareForDeferredProcessing();
+        EncodedLine line = anyEncoded ? encode(event) : null;
+        try {
+            for (Sink sink : sinks) {
+                sink.offer(event, line);
+            }
+        } finally {
+            if (line != null) {
+                line.release();
+            }
+        }
+    }
+
+    private EncodedLine encode(ILoggingEvent event) {
+        EncodedLine line = pool.acquire();
+        try {
+            if (encoder instanceof JsonLogEncoder jsonEncoder) {
+                jsonEncoder.encodeTo(event, line);
+            } else {
+                line.write(encoder.encode(event));
+            }
+        } catch (IOException e) {
+            line.reset();
+            line.write(("Failed to encode log: " + e.getMessage() + System.lineSeparator())
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        return line;
+    }
+
+    /**
+     * Lines dropped because an appender's queue was full or the appender stopped.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Lines an attached appender failed to write.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Buffers waiting in the pool.
+     */
+    public int getIdleBufferCount() {
+        return pool != null ? pool.getIdleCount() : 0;
+    }
+
+    /**
+     * Buffers allocated because the pool was empty.
+     */
+    public long getAllocatedBufferCount() {
+        return pool != null ? pool.getAllocatedCount() : 0;
+    }
+
+    private record Item(ILoggingEvent event, EncodedLine line) {
+    }
+
+    /**
+     * One attached appender with its queue and writer thread.
+     */
+    private final class Sink {
+
+        private final Appender<ILoggingEvent> appender;
+        private final EncodedLineAppender encoded;
+        private final BlockingQueue<Item> queue;
+        private Thread writer;
+        private volatile boolean running;
+
+        Sink(Appender<ILoggingEvent> appender) {
+            this.appender = appender;
+            this.encoded = appender instanceof EncodedLineAppender encodedAppender ? encodedAppender : null;
+            this.queue = queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : null;
+        }
+
+        void start() {
+            if (queue == null) {
+                return;
+            }
+            running = true;
+            writer = new Thread(this::drain, "fan-out-" + name + "-" + appender.getName());
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        void offer(ILoggingEvent event, EncodedLine line) {
+            EncodedLine held = encoded != null ? line.retain() : null;
+            if (queue == null) {
+                write(event, held);
+                flush();
+                return;
+            }
+            Item item = new Item(event, held);
+            boolean accepted;
+            if (neverBlock) {
+                accepted = queue.offer(item);
+            } else {
+                try {
+                    queue.put(item);
+                    accepted = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    accepted = false;
+                }
+            }
+            if (!accepted) {
+                dropped.increment();
+                if (held != null) {
+                    held.release();
+                }
+            }
+        }
+
+        private void drain() {
+            while (running || !queue.isEmpty()) {
+                Item item;
+                try {
+                    item = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (item == null) {
+                    continue;
+                }
+                write(item.event(), item.line());
+                if (queue.isEmpty()) {
+                    flush();
+                }
+            }
+        }
+
+        private void write(ILoggingEvent event, EncodedLine line) {
+            try {
+                if (encoded == null) {
+                    appender.doAppend(event);
+                } else if (appender.isStarted() && appender.getFilterChainDecision(event) != FilterReply.DENY) {
+                    encoded.appendEncoded(event, line);
+                }
+            } catch (Exception e) {
+                reportFailure(e);
+            } finally {
+                if (line != null) {
+                    line.release();
+                }
+            }
+        }
+
+        private void flush() {
+            if (encoded == null) {
+                return;
+            }
+            try {
+                encoded.flushEncoded();
+            } catch (Exception e) {
+                reportFailure(e);
+            }
+        }
+
+        private void reportFailure(Exception e) {
+            failed.increment();
+            long count = failed.sum();
+            if (count == 1 || count % REPORT_EVERY == 0) {
+                addError("Appender [" + appender.getName() + "] failed to write a line (" + count
+                        + " failures so far)", e);
+            }
+        }
+
+        void stop(long deadline) {
+            if (queue == null) {
+                return;
+            }
+            running = false;
+            try {
+                writer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                writer.interrupt();
+            }
+            Item item;
+            int left = 0;
+            while ((item = queue.poll()) != null) {
+                left++;
+                if (item.line() != null) {
+                    item.line().release();
+                }
+            }
+            if (left > 0) {
+                dropped.add(left);
+                addWarn("Dropping " + left + " unwritten lines for appender [" + appender.getName() + "] on stop.");
+            }
+        }
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,288 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import lombok.Setter;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes encoded lines to standard output in batches, from a single writer thread.
+ *
+ * <p>{@code append} encodes the event and queues the line. The writer thread takes as many
+ * queued lines as fit in {@code maxWriteBytes} and writes them with one gathering write on
+ * a {@link java.nio.channels.FileChannel} over {@link FileDescriptor#out}, bypassing the
+ * synchronized {@code System.out}. With the default of {@value #PIPE_BUF} bytes, the Linux
+ * {@code PIPE_BUF}, every write to a pipe is atomic, so lines are never split or interleaved
+ * with output of other writers; a longer line is written on its own.</p>
+ *
+ * <p>Lines encoded by a {@link FanOutAppender} are queued without copying and released once
+ * written. The channel is not closed on stop, since it is the process's standard output.</p>
+ *
+ * <pre>
+ * &lt;appender name="JSON_STDOUT" class="th.co.autox.logging.appender.GatheringStdoutAppender"&gt;
+ *     &lt;encoder class="th.co.autox.logging.encoder.JsonLogEncoder"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class GatheringStdoutAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements EncodedLineAppender {
+
+    /**
+     * Largest write that Linux keeps atomic on a pipe.
+     */
+    public static final int PIPE_BUF = 4096;
+
+    private static final long REPORT_EVERY = 1000;
+
+    @Setter
+    private Encoder<ILoggingEvent> encoder;
+
+    /**
+     * Lines waiting for the writer thread.
+     */
+    @Setter
+    private int queueSize = 8192;
+
+    /**
+     * Maximum bytes per write; lines that fit are never split across writes.
+     */
+    @Setter
+    private int maxWriteBytes = PIPE_BUF;
+
+    /**
+     * Maximum lines per write (at most the platform's {@code IOV_MAX} of 1024).
+     */
+    @Setter
+    private int maxBatchLines = 256;
+
+    /**
+     * Drop lines when the queue is full instead of waiting.
+     */
+    @Setter
+    private boolean neverBlock = false;
+
+    /**
+     * How long {@code stop} waits for queued lines to be written.
+     */
+    @Setter
+    private long maxFlushTimeMs = 1000;
+
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private BlockingQueue<Pending> queue;
+    private GatheringByteChannel channel;
+    private Thread writer;
+    private volatile boolean running;
+
+    private record Pending(ByteBuffer buffer, EncodedLine line) {
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for the appender named [" + name + "].");
+            return;
+        }
+        try {
+            channel = openChannel();
+        } catch (IOException e) {
+            addError("Failed to open standard output for the appender named [" + name + "].", e);
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        running = true;
+        writer = new Thread(this::drain, "stdout-writer-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        super.start();
+    }
+
+    /**
+     * Channel the lines are written to.
+     */
+    protected GatheringByteChannel openChannel() throws IOException {
+        return new FileOutputStream(FileDescriptor.out).getChannel();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        try {
+            writer.join(maxFlushTimeMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+        int left = 0;
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            left++;
+            release(pending);
+        }
+        if (left > 0) {
+            dropped.add(left);
+            addWarn("Dropping " + left + " unwritten lines on stop.");
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        byte[] bytes = encoder.encode(event);
+        if (bytes != null && bytes.length > 0) {
+            enqueue(new Pending(ByteBuffer.wrap(bytes), null));
+        }
+    }
+
+    @Override
+    public void appendEncoded(ILoggingEvent event, EncodedLine line) {
+        if (!isStarted() || line.length() == 0) {
+            return;
+        }
+        enqueue(new Pending(ByteBuffer.wrap(line.array(), 0, line.length()), line.retain()));
+    }
+
+    private void enqueue(Pending pending) {
+        boolean accepted;
+        if (neverBlock) {
+            accepted = queue.offer(pending);
+        } else {
+            try {
+                queue.put(pending);
+                accepted = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        }
+        if (!accepted) {
+            dropped.increment();
+            release(pending);
+        }
+    }
+
+    private void drain() {
+        int maxLines = Math.max(1, Math.min(maxBatchLines, 1024));
+        // Lines taken off the queue in bulk but not yet written
+        ArrayDeque<Pending> taken = new ArrayDeque<>(maxLines);
+        List<Pending> batch = new ArrayList<>(maxLines);
+        ByteBuffer[] buffers = new ByteBuffer[maxLines];
+        try {
+            while (running || !queue.isEmpty() || !taken.isEmpty()) {
+                if (taken.isEmpty()) {
+                    Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    taken.add(first);
+                }
+                queue.drainTo(taken, maxLines - taken.size());
+                Pending next = taken.poll();
+                batch.add(next);
+                long bytes = next.buffer().remaining();
+                while (batch.size() < maxLines && (next = taken.peek()) != null
+                        && bytes + next.buffer().remaining() <= maxWriteBytes) {
+                    batch.add(taken.poll());
+                    bytes += next.buffer().remaining();
+                }
+                write(batch, buffers);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!taken.isEmpty()) {
+                dropped.add(taken.size());
+                taken.forEach(GatheringStdoutAppender::release);
+            }
+        }
+    }
+
+    private void write(List<Pending> batch, ByteBuffer[] buffers) {
+        int count = batch.size();
+        for (int i = 0; i < count; i++) {
+            buffers[i] = batch.get(i).buffer();
+        }
+        try {
+            int offset = 0;
+            while (offset < count) {
+                channel.write(buffers, offset, count - offset);
+                writes.increment();
+                while (offset < count && !buffers[offset].hasRemaining()) {
+                    offset++;
+                }
+            }
+            lines.add(count);
+        } catch (IOException e) {
+            failed.add(count);
+            long failures = failed.sum();
+            if (failures == count || failures / REPORT_EVERY != (failures - count) / REPORT_EVERY) {
+                addError("Failed to write to standard output (" + failures + " lines so far)", e);
+            }
+        } finally {
+            Arrays.fill(buffers, 0, count, null);
+            for (Pending pending : batch) {
+                release(pending);
+            }
+        }
+    }
+
+    private static void release(Pending pending) {
+        if (pending.line() != null) {
+            pending.line().release();
+        }
+    }
+
+    /**
+     * Lines written.
+     */
+    public long getLineCount() {
+        return lines.sum();
+    }
+
+    /**
+     * Write calls made; {@code getWriteCount() / getLineCount()} is the syscalls per line.
+     */
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    /**
+     * Lines dropped because the queue was full or the appender stopped.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Lines lost to write errors.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+}
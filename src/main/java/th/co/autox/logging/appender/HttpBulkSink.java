@@ -0,0 +1,53 @@
+package th.co.autox.logging.appender;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Sends bulk requests with {@link HttpClient}.
+ */
+public class HttpBulkSink implements BulkSink {
+
+    private final HttpClient client;
+    private final URI uri;
+    private final String authorization;
+    private final Duration requestTimeout;
+
+    public HttpBulkSink(String url, String authorization, long connectTimeoutMs, long requestTimeoutMs) {
+        this.uri = URI.create(url);
+        this.authorization = authorization;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    @Override
+    public void send(BulkRequest request) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Content-Type", request.format().getContentType())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(request.body()));
+        if (request.compressed()) {
+            builder.header("Content-Encoding", "gzip");
+        }
+        if (authorization != null && !authorization.isBlank()) {
+            builder.header("Authorization", authorization);
+        }
+
+        HttpResponse<Void> response;
+        try {
+            response = client.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sending bulk request", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw BulkSinkException.forStatus(response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package th.co.autox.logging.appender;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Local stand-in for a bulk endpoint, for tests and benchmarks.
+ *
+ * <p>Decodes each request back into log lines and keeps them in memory. A fixed
+ * latency and a number of failing responses can be configured to check
+ * throughput, retries and backpressure without a network.</p>
+ */
+public class InMemoryBulkSink implements BulkSink {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicInteger failuresRemaining = new AtomicInteger();
+    private volatile int failureStatus = 503;
+    private volatile long latencyMs;
+
+    /**
+     * Delay every request by the given time.
+     */
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    /**
+     * Fail the next {@code count} requests with the given HTTP status.
+     */
+    public void failNext(int count, int statusCode) {
+        this.failureStatus = statusCode;
+        this.failuresRemaining.set(count);
+    }
+
+    @Override
+    public void send(BulkRequest request) throws IOException {
+        attempts.incrementAndGet();
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted", e);
+            }
+        }
+        if (failuresRemaining.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            throw BulkSinkException.forStatus(failureStatus);
+        }
+
+        bytesReceived.addAndGet(request.body().length);
+        byte[] body = request.compressed() ? gunzip(request.body()) : request.body();
+        lines.addAll(decode(request.format(), body));
+        requests.incrementAndGet();
+    }
+
+    /**
+     * Log lines received so far, in arrival order.
+     */
+    public List<String> getLines() {
+        synchronized (lines) {
+            return new ArrayList<>(lines);
+        }
+    }
+
+    /**
+     * Number of successful requests.
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Number of requests including failed attempts.
+     */
+    public int getAttemptCount() {
+        return attempts.get();
+    }
+
+    /**
+     * Total payload bytes received as sent (compressed when gzip is on).
+     */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    private List<String> decode(BulkFormat format, byte[] body) throws IOException {
+        List<String> result = new ArrayList<>();
+        if (format == BulkFormat.LOKI) {
+            for (JsonNode stream : objectMapper.readTree(body).path("streams")) {
+                for (JsonNode value : stream.path("values")) {
+                    result.add(value.get(1).asText());
+                }
+            }
+            return result;
+        }
+        String[] ndjson = new String(body, StandardCharsets.UTF_8).split("\n");
+        for (int i = 1; i < ndjson.length; i += 2) {
+            result.add(ndjson[i]);
+        }
+        return result;
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.RollingPolicyBase;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.rolling.helper.CompressionMode;
+import lombok.Setter;
+import th.co.autox.logging.context.CorrelationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * {@link RollingFileAppender} that keeps a {@link CorrelationIndex} next to each log file,
+ * so that {@link CorrelationLookup} can find the lines of one request without reading
+ * whole files.
+ *
+ * <p>The byte offset of every line with a correlation ID in its MDC is journaled as the
+ * line is written. On rollover the journal is sealed into {@code <rolled file>.cidx}.
+ * Sealing needs the name of the rolled file, which is known for a
+ * {@link TimeBasedRollingPolicy} (including size-and-time based) without compression,
+ * or when no {@code file} is set and files are not renamed. A
+ * {@link CompressingTimeBasedRollingPolicy} keeps the index with the archive. Otherwise the journal is
+ * dropped on rollover and lookups scan the rolled file. Prudent mode is not indexed.
+ * Indexes of log files removed by the rolling policy are deleted on a later rollover.</p>
+ *
+ * <pre>
+ * &lt;appender name="JSON_FILE" class="th.co.autox.logging.appender.IndexingRollingFileAppender"&gt;
+ *     &lt;file&gt;logs/app.json.log&lt;/file&gt;
+ *     &lt;rollingPolicy class="ch.qos.logback.core.rolling.TimeBasedRollingPolicy"&gt;
+ *         &lt;fileNamePattern&gt;logs/app.%d{yyyy-MM-dd}.json.log&lt;/fileNamePattern&gt;
+ *     &lt;/rollingPolicy&gt;
+ *     &lt;encoder class="th.co.autox.logging.encoder.JsonLogEncoder"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class IndexingRollingFileAppender extends RollingFileAppender<ILoggingEvent> implements EncodedLineAppender {
+
+    /**
+     * Maintain the correlation index; when false this is a plain rolling file appender.
+     */
+    @Setter
+    private boolean indexEnabled = true;
+
+    // Guarded by streamWriteLock
+    private CorrelationIndex.Writer indexWriter;
+    private long position;
+
+    // Line handed over by appendEncoded, written by writeOut instead of encoding the event
+    private final ThreadLocal<EncodedLine> preEncoded = new ThreadLocal<>();
+
+    @Override
+    public void start() {
+        super.start();
+        if (isStarted() && indexEnabled) {
+            if (isPrudent()) {
+                addWarn("Correlation index is not kept in prudent mode");
+                return;
+            }
+            streamWriteLock.lock();
+            try {
+                openIndex();
+            } finally {
+                streamWriteLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        streamWriteLock.lock();
+        try {
+            closeIndex();
+        } finally {
+            streamWriteLock.unlock();
+        }
+    }
+
+    /**
+     * Write a line encoded by a {@link FanOutAppender}, rolling over first when due.
+     */
+    @Override
+    public void appendEncoded(ILoggingEvent event, EncodedLine line) {
+        preEncoded.set(line);
+        try {
+            subAppend(event);
+        } finally {
+            preEncoded.remove();
+        }
+    }
+
+    @Override
+    public void flushEncoded() throws IOException {
+        streamWriteLock.lock();
+        try {
+            OutputStream out = getOutputStream();
+            if (out != null) {
+                out.flush();
+            }
+        } finally {
+            streamWriteLock.unlock();
+        }
+    }
+
+    @Override
+    protected void writeOut(ILoggingEvent event) throws IOException {
+        if (isPrudent()) {
+            super.writeOut(event);
+            return;
+        }
+        EncodedLine line = preEncoded.get();
+        byte[] bytes = line != null ? line.array() : encoder.encode(event);
+        int length = line != null ? line.length() : bytes != null ? bytes.length : 0;
+        if (length == 0) {
+            return;
+        }
+        String correlationId = event.getMDCPropertyMap().get(CorrelationContext.CORRELATION_ID_MDC_KEY);
+        streamWriteLock.lock();
+        try {
+            long offset = position;
+            OutputStream out = getOutputStream();
+            out.write(bytes, 0, length);
+            if (isImmediateFlush()) {
+                out.flush();
+            }
+            position += length;
+            if (indexWriter != null && correlationId != null && !correlationId.isEmpty()) {
+                indexWriter.append(correlationId, offset);
+            }
+        } finally {
+            streamWriteLock.unlock();
+        }
+    }
+
+    @Override
+    public void rollover() {
+        streamWriteLock.lock();
+        try {
+            if (indexWriter == null) {
+                super.rollover();
+                return;
+            }
+            Path journal = CorrelationIndex.journalFor(Path.of(getFile()));
+            String rolledFile = rolledFileName();
+            closeIndex();
+            // Seal first, so that a compressing policy finds the index next to the rolled file
+            seal(journal, rolledFile);
+            super.rollover();
+            if (rolledFile != null) {
+                dropIndexIfNotRolled(Path.of(rolledFile));
+            }
+            removeOrphanedIndexes(journal.toAbsolutePath().getParent());
+            openIndex();
+        } finally {
+            streamWriteLock.unlock();
+        }
+    }
+
+    /**
+     * Name the active file will have once rolled, or null when it cannot be known here.
+     */
+    private String rolledFileName() {
+        if (getRollingPolicy() instanceof RollingPolicyBase policy
+                && policy.getCompressionMode() != CompressionMode.NONE) {
+            return null;
+        }
+        if (rawFileProperty() == null) {
+            // Each period is written to its final name; rollover only switches files
+            return getFile();
+        }
+        if (getRollingPolicy() instanceof TimeBasedRollingPolicy<?> policy) {
+            return policy.getTimeBasedFileNamingAndTriggeringPolicy().getElapsedPeriodsFileName();
+        }
+        return null;
+    }
+
+    private void seal(Path journal, String rolledFile) {
+        try {
+            if (rolledFile != null && Files.exists(journal)) {
+                CorrelationIndex.seal(journal, CorrelationIndex.indexFor(Path.of(rolledFile)));
+            } else {
+                Files.deleteIfExists(journal);
+            }
+        } catch (IOException e) {
+            addError("Failed to seal correlation index " + journal, e);
+        }
+    }
+
+    /**
+     * Delete the index sealed for a rolled file that the rollover did not produce. A
+     * compressing policy moves the index before it deletes the rolled file.
+     */
+    private void dropIndexIfNotRolled(Path rolledFile) {
+        Path index = CorrelationIndex.indexFor(rolledFile);
+        try {
+            if (Files.exists(index) && !Files.exists(rolledFile)) {
+                Files.deleteIfExists(index);
+            }
+        } catch (IOException e) {
+            addWarn("Failed to delete correlation index " + index, e);
+        }
+    }
+
+    /**
+     * Delete indexes whose log file was removed, for example by {@code maxHistory}. The
+     * rolling policy removes old files in the background, so an index is usually deleted
+     * one rollover after its log file.
+     */
+    private void removeOrphanedIndexes(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(CorrelationIndex.INDEX_SUFFIX))
+                    .filter(index -> {
+                        String name = index.getFileName().toString();
+                        Path logFile = index.resolveSibling(
+                                name.substring(0, name.length() - CorrelationIndex.INDEX_SUFFIX.length()));
+                        return !Files.exists(logFile);
+                    })
+                    .forEach(index -> {
+                        try {
+                            Files.deleteIfExists(index);
+                        } catch (IOException e) {
+                            addWarn("Failed to delete orphaned correlation index " + index, e);
+                        }
+                    });
+        } catch (IOException e) {
+            addWarn("Failed to list " + directory + " for orphaned correlation indexes", e);
+        }
+    }
+
+    private void openIndex() {
+        Path active = Path.of(getFile());
+        Path journal = CorrelationIndex.journalFor(active);
+        try {
+            if (!isAppend()) {
+                Files.deleteIfExists(journal);
+            }
+            // Push any encoder header to the file so that its size is the next line's offset
+            OutputStream out = getOutputStream();
+            if (out != null) {
+                out.flush();
+            }
+            position = Files.exists(active) ? Files.size(active) : 0;
+            indexWriter = new CorrelationIndex.Writer(journal);
+        } catch (IOException e) {
+            addError("Failed to open correlation index " + journal + "; lines are not indexed", e);
+            indexWriter = null;
+        }
+    }
+
+    private void closeIndex() {
+        CorrelationIndex.Writer writer = indexWriter;
+        indexWriter = null;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                addError("Failed to close correlation index", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.util.FileSize;
+import lombok.Setter;
+import th.co.autox.logging.context.CorrelationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes log lines to several files in parallel, one writer thread per shard, so that a
+ * single file lock does not cap the logging rate.
+ *
+ * <p>Each event goes to the shard picked by the hash of its correlation ID, so all lines of
+ * one request are written in order to one file; events without a correlation ID are sharded
+ * by thread name. Shard {@code i} is an {@link IndexingRollingFileAppender} writing
+ * {@code <file>.i} with a {@link TimeBasedRollingPolicy} whose {@code fileNamePattern} is the
+ * configured one with {@code .i} appended (before a {@code .gz} or {@code .zip} extension).
+ * A pattern ending in {@code .gz} uses a {@link CompressingTimeBasedRollingPolicy}.
+ * {@code maxHistory} applies to each shard; {@code totalSizeCap} is split evenly between
+ * shards so that all of them together stay under it.</p>
+ *
+ * <p>The shard threads encode events themselves, or write lines already encoded by a
+ * {@link FanOutAppender}, and flush whenever their queue runs empty.</p>
+ *
+ * <pre>
+ * &lt;appender name="JSON_FILE" class="th.co.autox.logging.appender.ShardedFileAppender"&gt;
+ *     &lt;shards&gt;4&lt;/shards&gt;
+ *     &lt;file&gt;logs/app.json.log&lt;/file&gt;
+ *     &lt;fileNamePattern&gt;logs/app.%d{yyyy-MM-dd}.json.log&lt;/fileNamePattern&gt;
+ *     &lt;maxHistory&gt;30&lt;/maxHistory&gt;
+ *     &lt;totalSizeCap&gt;3GB&lt;/totalSizeCap&gt;
+ *     &lt;encoder class="th.co.autox.logging.encoder.JsonLogEncoder"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class ShardedFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements EncodedLineAppender {
+
+    private static final int BATCH_SIZE = 256;
+    private static final long REPORT_EVERY = 1000;
+
+    @Setter
+    private Encoder<ILoggingEvent> encoder;
+
+    /**
+     * Number of shard files and writer threads.
+     */
+    @Setter
+    private int shards = 4;
+
+    /**
+     * Active file name; shard {@code i} writes {@code <file>.i}. When unset, shards write
+     * straight to the names of their rolling pattern.
+     */
+    @Setter
+    private String file;
+
+    /**
+     * Rolled file name pattern, as for {@link TimeBasedRollingPolicy}; ending it in
+     * {@code .gz} compresses rolled files into block-framed archives.
+     */
+    @Setter
+    private String fileNamePattern;
+
+    /**
+     * Rolled files kept per shard; 0 keeps them all.
+     */
+    @Setter
+    private int maxHistory = 0;
+
+    /**
+     * Size cap for the rolled files of all shards together.
+     */
+    @Setter
+    private FileSize totalSizeCap;
+
+    /**
+     * Keep a correlation index next to each shard file.
+     */
+    @Setter
+    private boolean indexEnabled = true;
+
+    /**
+     * Events queued per shard.
+     */
+    @Setter
+    private int queueSize = 8192;
+
+    /**
+     * Drop events for a shard whose queue is full instead of waiting.
+     */
+    @Setter
+    private boolean neverBlock = false;
+
+    /**
+     * How long {@code stop} waits for queued events to be written.
+     */
+    @Setter
+    private long maxFlushTimeMs = 1000;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private List<Shard> started = List.of();
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for the appender named [" + name + "].");
+            return;
+        }
+        if (fileNamePattern == null || fileNamePattern.isBlank()) {
+            addError("No fileNamePattern set for the appender named [" + name + "].");
+            return;
+        }
+        if (shards < 1) {
+            addError("shards must be at least 1 for the appender named [" + name + "].");
+            return;
+        }
+        List<Shard> created = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            IndexingRollingFileAppender appender = createAppender(i);
+            if (!appender.isStarted()) {
+                addError("Failed to start shard " + i + " of the appender named [" + name + "].");
+                appender.stop();
+                created.forEach(shard -> shard.stop(System.currentTimeMillis()));
+                return;
+            }
+            Shard shard = new Shard(i, appender);
+            shard.start();
+            created.add(shard);
+        }
+        started = List.copyOf(created);
+        super.start();
+    }
+
+    private IndexingRollingFileAppender createAppender(int index) {
+        IndexingRollingFileAppender appender = new IndexingRollingFileAppender();
+        appender.setContext(context);
+        appender.setName(name + "-" + index);
+        if (file != null && !file.isBlank()) {
+            appender.setFile(file + "." + index);
+        }
+        appender.setEncoder(encoder);
+        appender.setImmediateFlush(false);
+        appender.setIndexEnabled(indexEnabled);
+
+        TimeBasedRollingPolicy<ILoggingEvent> policy = fileNamePattern.endsWith(".gz")
+                ? new CompressingTimeBasedRollingPolicy<>()
+                : new TimeBasedRollingPolicy<>();
+        policy.setContext(context);
+        policy.setFileNamePattern(shardPattern(fileNamePattern, index));
+        policy.setMaxHistory(maxHistory);
+        if (totalSizeCap != null) {
+            policy.setTotalSizeCap(new FileSize(Math.max(1, totalSizeCap.getSize() / shards)));
+        }
+        policy.setParent(appender);
+        policy.start();
+        appender.setRollingPolicy(policy);
+        appender.start();
+        return appender;
+    }
+
+    /**
+     * Rolling pattern of one shard: the shard index goes before a compression extension,
+     * which selects the compression mode, and at the end otherwise.
+     */
+    static String shardPattern(String pattern, int index) {
+        for (String extension : new String[]{".gz", ".zip"}) {
+            if (pattern.endsWith(extension)) {
+                return pattern.substring(0, pattern.length() - extension.length()) + "." + index + extension;
+            }
+        }
+        return pattern + "." + index;
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        long deadline = System.currentTimeMillis() + maxFlushTimeMs;
+        for (Shard shard : started) {
+            shard.stop(deadline);
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // The shard thread encodes the event
+        event.prepareForDeferredProcessing();
+        shardFor(event).offer(event, null);
+    }
+
+    /**
+     * Queue a line encoded by a {@link FanOutAppender} for its shard.
+     */
+    @Override
+    public void appendEncoded(ILoggingEvent event, EncodedLine line) {
+        if (!isStarted()) {
+            return;
+        }
+        shardFor(event).offer(event, line.retain());
+    }
+
+    private Shard shardFor(ILoggingEvent event) {
+        String correlationId = event.getMDCPropertyMap().get(CorrelationContext.CORRELATION_ID_MDC_KEY);
+        String key = correlationId != null && !correlationId.isEmpty() ? correlationId : event.getThreadName();
+        int hash = key != null ? key.hashCode() : 0;
+        return started.get(Math.floorMod(hash ^ (hash >>> 16), started.size()));
+    }
+
+    /**
+     * Events dropped because a shard's queue was full or the appender stopped.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Events a shard failed to write.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Events written by each shard, by shard index.
+     */
+    public long[] getShardLineCounts() {
+        return started.stream().mapToLong(shard -> shard.lines.sum()).toArray();
+    }
+
+    private record Item(ILoggingEvent event, EncodedLine line) {
+    }
+
+    /**
+     * One shard file with its queue and writer thread.
+     */
+    private final class Shard {
+
+        private final IndexingRollingFileAppender appender;
+        private final BlockingQueue<Item> queue;
+        private final LongAdder lines = new LongAdder();
+        private final Thread writer;
+        private volatile boolean running;
+
+        Shard(int index, IndexingRollingFileAppender appender) {
+            this.appender = appender;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+            this.writer = new Thread(this::drain, "file-shard-" + name + "-" + index);
+            this.writer.setDaemon(true);
+        }
+
+        void start() {
+            running = true;
+            writer.start();
+        }
+
+        void offer(ILoggingEvent event, EncodedLine line) {
+            Item item = new Item(event, line);
+            boolean accepted;
+            if (neverBlock) {
+                accepted = queue.offer(item);
+            } else {
+                try {
+                    queue.put(item);
+                    accepted = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    accepted = false;
+                }
+            }
+            if (!accepted) {
+                dropped.increment();
+                release(item);
+            }
+        }
+
+        private void drain() {
+            List<Item> batch = new ArrayList<>(BATCH_SIZE);
+            while (running || !queue.isEmpty()) {
+                Item first;
+                try {
+                    first = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Item item : batch) {
+                    write(item);
+                }
+                batch.clear();
+                if (queue.isEmpty()) {
+                    flush();
+                }
+            }
+        }
+
+        private void write(Item item) {
+            try {
+                if (item.line() != null) {
+                    appender.appendEncoded(item.event(), item.line());
+                } else {
+                    appender.doAppend(item.event());
+                }
+                lines.increment();
+            } catch (Exception e) {
+                reportFailure(e);
+            } finally {
+                release(item);
+            }
+        }
+
+        private void flush() {
+            try {
+                appender.flushEncoded();
+            } catch (Exception e) {
+                reportFailure(e);
+            }
+        }
+
+        private void reportFailure(Exception e) {
+            failed.increment();
+            long count = failed.sum();
+            if (count == 1 || count % REPORT_EVERY == 0) {
+                addError("Shard [" + appender.getName() + "] failed to write a line (" + count
+                        + " failures so far)", e);
+            }
+        }
+
+        void stop(long deadline) {
+            running = false;
+            try {
+                writer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                writer.interrupt();
+            }
+            Item item;
+            int left = 0;
+            while ((item = queue.poll()) != null) {
+                left++;
+                release(item);
+            }
+            if (left > 0) {
+                dropped.add(left);
+                addWarn("Dropping " + left + " unwritten lines for shard [" + appender.getName() + "] on stop.");
+            }
+            appender.stop();
+        }
+
+        private void release(Item item) {
+            if (item.line() != null) {
+                item.line().release();
+            }
+        }
+    }
+}
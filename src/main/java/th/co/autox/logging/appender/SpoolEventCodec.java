@@ -0,0 +1,220 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.slf4j.event.KeyValuePair;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of a logging event for the disk spool.
+ *
+ * <p>Only plain values are written (the formatted message, MDC, key/value pairs as
+ * strings, marker names and throwable details), so reading a record never
+ * instantiates classes named in the file.</p>
+ */
+final class SpoolEventCodec {
+
+    private static final int VERSION = 1;
+    private static final int MAX_THROWABLE_DEPTH = 16;
+
+    private SpoolEventCodec() {
+    }
+
+    static byte[] encode(ILoggingEvent event) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(VERSION);
+        Instant instant = event.getInstant();
+        out.writeLong(instant != null ? instant.getEpochSecond() : event.getTimeStamp() / 1000);
+        out.writeInt(instant != null ? instant.getNano() : (int) (event.getTimeStamp() % 1000) * 1_000_000);
+        out.writeLong(event.getSequenceNumber());
+        out.writeInt(event.getLevel().toInt());
+        writeString(out, event.getThreadName());
+        writeString(out, event.getLoggerName());
+        writeString(out, event.getFormattedMessage());
+
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        out.writeInt(mdc != null ? mdc.size() : 0);
+        if (mdc != null) {
+            for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+
+        List<KeyValuePair> pairs = event.getKeyValuePairs();
+        out.writeInt(pairs != null ? pairs.size() : 0);
+        if (pairs != null) {
+            for (KeyValuePair pair : pairs) {
+                writeString(out, pair.key);
+                writeString(out, pair.value != null ? String.valueOf(pair.value) : null);
+            }
+        }
+
+        List<Marker> markers = event.getMarkerList();
+        out.writeInt(markers != null ? markers.size() : 0);
+        if (markers != null) {
+            for (Marker marker : markers) {
+                writeString(out, marker.getName());
+            }
+        }
+
+        StackTraceElement[] callerData = event.hasCallerData() ? event.getCallerData() : null;
+        writeFrames(out, callerData);
+        writeThrowable(out, event.getThrowableProxy(), 0);
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    static ILoggingEvent decode(byte[] record, LoggerContextVO loggerContextVO) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported spool record version " + version);
+        }
+        Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        long sequenceNumber = in.readLong();
+        Level level = Level.toLevel(in.readInt(), Level.INFO);
+        String threadName = readString(in);
+        String loggerName = readString(in);
+        String message = readString(in);
+
+        int mdcSize = in.readInt();
+        Map<String, String> mdc = mdcSize == 0 ? Collections.emptyMap() : new LinkedHashMap<>(mdcSize * 2);
+        for (int i = 0; i < mdcSize; i++) {
+            mdc.put(readString(in), readString(in));
+        }
+
+        int pairCount = in.readInt();
+        List<KeyValuePair> pairs = pairCount == 0 ? null : new ArrayList<>(pairCount);
+        for (int i = 0; i < pairCount; i++) {
+            pairs.add(new KeyValuePair(readString(in), readString(in)));
+        }
+
+        int markerCount = in.readInt();
+        List<Marker> markers = markerCount == 0 ? null : new ArrayList<>(markerCount);
+        for (int i = 0; i < markerCount; i++) {
+            markers.add(MarkerFactory.getDetachedMarker(readString(in)));
+        }
+
+        StackTraceElement[] callerData = readFrames(in);
+        IThrowableProxy throwable = readThrowable(in);
+        return new SpooledEvent(instant, sequenceNumber, level, threadName, loggerName, message,
+                mdc, pairs, markers, callerData, throwable, loggerContextVO);
+    }
+
+    private static void writeThrowable(DataOutputStream out, IThrowableProxy proxy, int depth) throws IOException {
+        if (proxy == null || depth >= MAX_THROWABLE_DEPTH) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        writeString(out, proxy.getClassName());
+        writeString(out, proxy.getMessage());
+        StackTraceElementProxy[] proxies = proxy.getStackTraceElementProxyArray();
+        StackTraceElement[] frames = null;
+        if (proxies != null) {
+            frames = new StackTraceElement[proxies.length];
+            for (int i = 0; i < proxies.length; i++) {
+                frames[i] = proxies[i].getStackTraceElement();
+            }
+        }
+        writeFrames(out, frames);
+        out.writeInt(proxy.getCommonFrames());
+        writeThrowable(out, proxy.isCyclic() ? null : proxy.getCause(), depth + 1);
+        IThrowableProxy[] suppressed = proxy.getSuppressed();
+        out.writeInt(suppressed != null ? suppressed.length : 0);
+        if (suppressed != null) {
+            for (IThrowableProxy item : suppressed) {
+                writeThrowable(out, item, depth + 1);
+            }
+        }
+    }
+
+    private static IThrowableProxy readThrowable(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String className = readString(in);
+        String message = readString(in);
+        StackTraceElement[] frames = readFrames(in);
+        StackTraceElementProxy[] proxies = new StackTraceElementProxy[frames != null ? frames.length : 0];
+        for (int i = 0; i < proxies.length; i++) {
+            proxies[i] = new StackTraceElementProxy(frames[i]);
+        }
+        int commonFrames = in.readInt();
+        IThrowableProxy cause = readThrowable(in);
+        int suppressedCount = in.readInt();
+        List<IThrowableProxy> suppressed = new ArrayList<>(suppressedCount);
+        for (int i = 0; i < suppressedCount; i++) {
+            IThrowableProxy item = readThrowable(in);
+            if (item != null) {
+                suppressed.add(item);
+            }
+        }
+        return new SpooledThrowableProxy(className, message, proxies, commonFrames, cause,
+                suppressed.toArray(new IThrowableProxy[0]));
+    }
+
+    private static void writeFrames(DataOutputStream out, StackTraceElement[] frames) throws IOException {
+        out.writeInt(frames != null ? frames.length : -1);
+        if (frames == null) {
+            return;
+        }
+        for (StackTraceElement frame : frames) {
+            writeString(out, frame.getClassName());
+            writeString(out, frame.getMethodName());
+            writeString(out, frame.getFileName());
+            out.writeInt(frame.getLineNumber());
+        }
+    }
+
+    private static StackTraceElement[] readFrames(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        StackTraceElement[] frames = new StackTraceElement[length];
+        for (int i = 0; i < length; i++) {
+            frames[i] = new StackTraceElement(readString(in), readString(in), readString(in), in.readInt());
+        }
+        return frames;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,144 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import org.slf4j.Marker;
+import org.slf4j.event.KeyValuePair;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Logging event read back from the spool. The message is already formatted.
+ */
+final class SpooledEvent implements ILoggingEvent {
+
+    private final Instant instant;
+    private final long sequenceNumber;
+    private final Level level;
+    private final String threadName;
+    private final String loggerName;
+    private final String message;
+    private final Map<String, String> mdc;
+    private final List<KeyValuePair> keyValuePairs;
+    private final List<Marker> markers;
+    private final StackTraceElement[] callerData;
+    private final IThrowableProxy throwableProxy;
+    private final LoggerContextVO loggerContextVO;
+
+    SpooledEvent(Instant instant, long sequenceNumber, Level level, String threadName, String loggerName,
+                 String message, Map<String, String> mdc, List<KeyValuePair> keyValuePairs,
+                 List<Marker> markers, StackTraceElement[] callerData, IThrowableProxy throwableProxy,
+                 LoggerContextVO loggerContextVO) {
+        this.instant = instant;
+        this.sequenceNumber = sequenceNumber;
+        this.level = level;
+        this.threadName = threadName;
+        this.loggerName = loggerName;
+        this.message = message;
+        this.mdc = mdc;
+        this.keyValuePairs = keyValuePairs;
+        this.markers = markers;
+        this.callerData = callerData;
+        this.throwableProxy = throwableProxy;
+        this.loggerContextVO = loggerContextVO;
+    }
+
+    @Override
+    public String getThreadName() {
+        return threadName;
+    }
+
+    @Override
+    public Level getLevel() {
+        return level;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public Object[] getArgumentArray() {
+        return null;
+    }
+
+    @Override
+    public String getFormattedMessage() {
+        return message;
+    }
+
+    @Override
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    @Override
+    public LoggerContextVO getLoggerContextVO() {
+        return loggerContextVO;
+    }
+
+    @Override
+    public IThrowableProxy getThrowableProxy() {
+        return throwableProxy;
+    }
+
+    @Override
+    public StackTraceElement[] getCallerData() {
+        return callerData;
+    }
+
+    @Override
+    public boolean hasCallerData() {
+        return callerData != null;
+    }
+
+    @Override
+    public List<Marker> getMarkerList() {
+        return markers;
+    }
+
+    @Override
+    public Map<String, String> getMDCPropertyMap() {
+        return mdc;
+    }
+
+    @Override
+    @Deprecated
+    public Map<String, String> getMdc() {
+        return mdc;
+    }
+
+    @Override
+    public long getTimeStamp() {
+        return instant.toEpochMilli();
+    }
+
+    @Override
+    public int getNanoseconds() {
+        return instant.getNano();
+    }
+
+    @Override
+    public Instant getInstant() {
+        return instant;
+    }
+
+    @Override
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    @Override
+    public List<KeyValuePair> getKeyValuePairs() {
+        return keyValuePairs;
+    }
+
+    @Override
+    public void prepareForDeferredProcessing() {
+    }
+}
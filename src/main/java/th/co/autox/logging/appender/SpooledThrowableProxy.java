@@ -0,0 +1,62 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+
+/**
+ * Throwable details read back from the spool.
+ */
+final class SpooledThrowableProxy implements IThrowableProxy {
+
+    private final String className;
+    private final String message;
+    private final StackTraceElementProxy[] frames;
+    private final int commonFrames;
+    private final IThrowableProxy cause;
+    private final IThrowableProxy[] suppressed;
+
+    SpooledThrowableProxy(String className, String message, StackTraceElementProxy[] frames,
+                          int commonFrames, IThrowableProxy cause, IThrowableProxy[] suppressed) {
+        this.className = className;
+        this.message = message;
+        this.frames = frames;
+        this.commonFrames = commonFrames;
+        this.cause = cause;
+        this.suppressed = suppressed;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String getClassName() {
+        return className;
+    }
+
+    @Override
+    public StackTraceElementProxy[] getStackTraceElementProxyArray() {
+        return frames;
+    }
+
+    @Override
+    public int getCommonFrames() {
+        return commonFrames;
+    }
+
+    @Override
+    public IThrowableProxy getCause() {
+        return cause;
+    }
+
+    @Override
+    public IThrowableProxy[] getSuppressed() {
+        return suppressed;
+    }
+
+    @Override
+    public boolean isCyclic() {
+        return false;
+    }
+}
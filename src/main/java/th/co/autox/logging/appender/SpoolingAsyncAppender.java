@@ -0,0 +1,244 @@
+package th.co.autox.logging.appender;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.core.util.FileSize;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link AsyncAppender} that spools overflowing events to disk instead of blocking
+ * the caller or discarding them.
+ *
+ * <p>While the queue has room above the discarding threshold, events are queued as
+ * usual. Once it does not, events are written to a {@link DiskSpool} and every later
+ * event follows them there until the spool is empty again, so order is kept. A replay
+ * thread moves spooled events back into the queue as the attached appenders catch up.
+ * Records left in the spool directory by a previous run are replayed on start.</p>
+ *
+ * <pre>
+ * &lt;appender name="ASYNC_JSON" class="th.co.autox.logging.appender.SpoolingAsyncAppender"&gt;
+ *     &lt;spoolDirectory&gt;/var/spool/app-logs&lt;/spoolDirectory&gt;
+ *     &lt;maxSpoolSize&gt;512MB&lt;/maxSpoolSize&gt;
+ *     &lt;appender-ref ref="JSON_CONSOLE"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class SpoolingAsyncAppender extends AsyncAppender {
+
+    /**
+     * Directory for segment files. Use a separate directory per appender.
+     */
+    @Setter
+    private String spoolDirectory = System.getProperty("java.io.tmpdir") + "/autox-log-spool";
+
+    /**
+     * Size of each memory-mapped segment file.
+     */
+    @Setter
+    private FileSize segmentSize = new FileSize(16 * FileSize.MB_COEFFICIENT);
+
+    /**
+     * Maximum total size of the spool; events beyond it are dropped and counted.
+     */
+    @Setter
+    private FileSize maxSpoolSize = new FileSize(512 * FileSize.MB_COEFFICIENT);
+
+    /**
+     * How long the replay thread waits when there is nothing to do.
+     */
+    @Setter
+    private long replayIdleMs = 20;
+
+    private final Object spoolLock = new Object();
+    private final LongAdder spooled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder spoolDropped = new LongAdder();
+
+    private DiskSpool spool;
+    private Thread replayer;
+    private LoggerContextVO loggerContextVO;
+    private volatile boolean spooling;
+    private volatile boolean replaying;
+    private volatile double replayRate;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        try {
+            spool = new DiskSpool(Path.of(spoolDirectory), (int) Math.min(Integer.MAX_VALUE, segmentSize.getSize()),
+                    maxSpoolSize.getSize());
+        } catch (IOException e) {
+            addError("Failed to open spool directory [" + spoolDirectory + "]", e);
+            return;
+        }
+        if (spool.getCorruptRecords() > 0) {
+            addWarn("Discarded " + spool.getCorruptRecords() + " corrupt spool records in [" + spoolDirectory + "]");
+        }
+        super.start();
+        if (!isStarted()) {
+            closeSpool();
+            return;
+        }
+        loggerContextVO = getContext() instanceof LoggerContext loggerContext
+                ? loggerContext.getLoggerContextRemoteView() : null;
+        spooling = spool.getPendingRecords() > 0;
+        replaying = true;
+        replayer = new Thread(this::replay, "log-spool-replay-" + getName());
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        replaying = false;
+        replayer.interrupt();
+        try {
+            replayer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.stop();
+        if (spool.getPendingRecords() > 0) {
+            addInfo("Keeping " + spool.getPendingRecords() + " spooled events for the next start");
+        }
+        closeSpool();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!spooling && hasRoom()) {
+            super.append(event);
+            return;
+        }
+        preprocess(event);
+        byte[] record;
+        try {
+            record = SpoolEventCodec.encode(event);
+        } catch (IOException e) {
+            addError("Failed to encode event for the spool", e);
+            spoolDropped.increment();
+            return;
+        }
+        synchronized (spoolLock) {
+            try {
+                if (spool.append(record)) {
+                    spooling = true;
+                    spooled.increment();
+                } else {
+                    spoolDropped.increment();
+                }
+            } catch (IOException e) {
+                addError("Failed to write to the spool", e);
+                spoolDropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Events waiting in the spool.
+     */
+    public long getSpoolDepth() {
+        return spool != null ? spool.getPendingRecords() : 0;
+    }
+
+    /**
+     * Payload bytes waiting in the spool.
+     */
+    public long getSpoolBytes() {
+        return spool != null ? spool.getPendingBytes() : 0;
+    }
+
+    /**
+     * Events written to the spool since start.
+     */
+    public long getSpooledCount() {
+        return spooled.sum();
+    }
+
+    /**
+     * Events moved from the spool back into the queue since start.
+     */
+    public long getReplayedCount() {
+        return replayed.sum();
+    }
+
+    /**
+     * Events replayed per second, measured over the last second.
+     */
+    public double getReplayRate() {
+        return replayRate;
+    }
+
+    /**
+     * Events dropped because the spool was full or could not be written.
+     */
+    public long getSpoolDroppedCount() {
+        return spoolDropped.sum();
+    }
+
+    private boolean hasRoom() {
+        return getRemainingCapacity() > Math.max(0, getDiscardingThreshold());
+    }
+
+    private void replay() {
+        long windowStart = System.nanoTime();
+        long windowCount = 0;
+        while (replaying) {
+            boolean moved = false;
+            while (replaying && hasRoom()) {
+                byte[] record;
+                synchronized (spoolLock) {
+                    try {
+                        record = spool.poll();
+                    } catch (IOException e) {
+                        addError("Failed to read from the spool", e);
+                        record = null;
+                    }
+                    if (record == null) {
+                        spooling = false;
+                        break;
+                    }
+                }
+                try {
+                    super.append(SpoolEventCodec.decode(record, loggerContextVO));
+                    replayed.increment();
+                    windowCount++;
+                    moved = true;
+                } catch (IOException e) {
+                    addError("Skipping unreadable spool record", e);
+                }
+            }
+
+            long now = System.nanoTime();
+            if (now - windowStart >= TimeUnit.SECONDS.toNanos(1)) {
+                replayRate = windowCount * 1e9 / (now - windowStart);
+                windowStart = now;
+                windowCount = 0;
+            }
+            if (!moved) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(replayIdleMs));
+            }
+        }
+    }
+
+    private void closeSpool() {
+        try {
+            spool.close();
+        } catch (IOException e) {
+            addError("Failed to close the spool", e);
+        }
+    }
+}
@@ -2,11 +2,27 @@ package th.co.autox.logging.autoconfigure;
 
 import th.co.autox.logging.config.LoggingProperties;
 import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.core.AsyncLogDispatcher;
+import th.co.autox.logging.core.AuditLogWriter;
 import th.co.autox.logging.core.AppLoggerFactory;
+import th.co.autox.logging.debug.DebugLogEndpoint;
+import th.co.autox.logging.debug.DebugOverrideTurboFilter;
+import th.co.autox.logging.debug.DebugOverrides;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import th.co.autox.logging.encoder.OutputProfile;
 import th.co.autox.logging.filter.RequestLoggingFilter;
 import th.co.autox.logging.interceptor.RestTemplateLoggingInterceptor;
 import th.co.autox.logging.interceptor.WebClientLoggingFilter;
+import th.co.autox.logging.metrics.LatencyMetrics;
+import th.co.autox.logging.metrics.TrafficSketches;
+import th.co.autox.logging.recent.RecentLogAppender;
+import th.co.autox.logging.recent.RecentLogBuffer;
+import th.co.autox.logging.recent.RecentLogsEndpoint;
+import th.co.autox.logging.shedding.LoadSheddingController;
+import th.co.autox.logging.suppression.RepeatSuppressor;
+import ch.qos.logback.classic.LoggerContext;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -17,15 +33,19 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.core.Ordered;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.io.IOException;
+
 /**
  * Auto-configuration for structured logging.
  */
 @AutoConfiguration
 @EnableConfigurationProperties(LoggingProperties.class)
+@ImportRuntimeHints(LoggingRuntimeHints.class)
 @ConditionalOnProperty(prefix = "logging.structured", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class LoggingAutoConfiguration {
 
@@ -45,10 +65,8 @@ public class LoggingAutoConfiguration {
      */
     @PostConstruct
     public void configureDefaults() {
-        String effectiveName = (properties.getApplicationName() != null && !properties.getApplicationName().isBlank())
-                ? properties.getApplicationName()
-                : applicationName;
-        AppLogger.configureDefaults(effectiveName, properties);
+        AppLogger.configureDefaults(effectiveApplicationName(), properties);
+        OutputProfile.configure(OutputProfile.from(properties.getOutput()));
     }
 
     @Bean
@@ -57,6 +75,122 @@ public class LoggingAutoConfiguration {
         return new AppLoggerFactory(applicationName, properties);
     }
 
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "logging.structured.async-serialization", name = "enabled", havingValue = "true")
+    public AsyncLogDispatcher asyncLogDispatcher() {
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(properties.getAsyncSerialization());
+        AppLogger.configureAsyncDispatcher(dispatcher);
+        return dispatcher;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "logging.structured.audit", name = "enabled", havingValue = "true")
+    public AuditLogWriter auditLogWriter() throws IOException {
+        AuditLogWriter writer = new AuditLogWriter(properties.getAudit());
+        AppLogger.configureAuditWriter(writer);
+        return writer;
+    }
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "logging.structured.suppression", name = "enabled", havingValue = "true")
+    public RepeatSuppressor repeatSuppressor(AppLoggerFactory loggerFactory) {
+        LoggingProperties.SuppressionConfig config = properties.getSuppression();
+        RepeatSuppressor suppressor = new RepeatSuppressor(config.getBurst(), config.getWindowMs(), config.getMaxKeys());
+        suppressor.start(summary -> loggerFactory.getLogger(summary.loggerName() != null
+                ? summary.loggerName() : RepeatSuppressor.class.getName()).logSuppressionSummary(summary));
+        AppLogger.configureRepeatSuppressor(suppressor);
+        return suppressor;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "logging.structured.metrics", name = "enabled", havingValue = "true")
+    public LatencyMetrics latencyMetrics(AppLoggerFactory loggerFactory) {
+        return new LatencyMetrics(loggerFactory, properties);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "logging.structured.traffic", name = "enabled", havingValue = "true")
+    public TrafficSketches trafficSketches(AppLoggerFactory loggerFactory) {
+        return new TrafficSketches(loggerFactory, properties);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "logging.structured.shedding", name = "enabled", havingValue = "true")
+    public LoadSheddingController loadSheddingController(AppLoggerFactory loggerFactory) {
+        return new LoadSheddingController(loggerFactory, properties);
+    }
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "logging.structured.debug-override", name = "enabled", havingValue = "true")
+    public DebugOverrideTurboFilter debugOverrideTurboFilter() {
+        DebugOverrides.configure(properties.getDebugOverride());
+        DebugOverrideTurboFilter filter = new DebugOverrideTurboFilter();
+        filter.install((LoggerContext) LoggerFactory.getILoggerFactory());
+        return filter;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "logging.structured.recent-logs", name = "enabled", havingValue = "true")
+    public RecentLogBuffer recentLogBuffer() {
+        LoggingProperties.RecentLogsConfig config = properties.getRecentLogs();
+        return new RecentLogBuffer(config.getCapacity(), config.getMaxLineBytes());
+    }
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "logging.structured.recent-logs", name = "enabled", havingValue = "true")
+    public RecentLogAppender recentLogAppender(RecentLogBuffer buffer) {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setApplicationName(effectiveApplicationName());
+        RecentLogAppender appender = new RecentLogAppender(buffer, encoder);
+        appender.install((LoggerContext) LoggerFactory.getILoggerFactory());
+        return appender;
+    }
+
+    private String effectiveApplicationName() {
+        return (properties.getApplicationName() != null && !properties.getApplicationName().isBlank())
+                ? properties.getApplicationName()
+                : applicationName;
+    }
+
+    /**
+     * Actuator endpoint for per-request DEBUG overrides.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    @ConditionalOnProperty(prefix = "logging.structured.debug-override", name = "enabled", havingValue = "true")
+    public static class DebugLogEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public DebugLogEndpoint debugLogEndpoint() {
+            return new DebugLogEndpoint();
+        }
+    }
+
+    /**
+     * Actuator endpoint for recent log lines.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    @ConditionalOnProperty(prefix = "logging.structured.recent-logs", name = "enabled", havingValue = "true")
+    public static class RecentLogsEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public RecentLogsEndpoint recentLogsEndpoint(RecentLogBuffer buffer) {
+            return new RecentLogsEndpoint(buffer);
+        }
+    }
+
     /**
      * Servlet-based web application configuration.
      */
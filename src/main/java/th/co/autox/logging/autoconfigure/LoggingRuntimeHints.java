@@ -0,0 +1,79 @@
+package th.co.autox.logging.autoconfigure;
+
+import th.co.autox.logging.appender.BulkFormat;
+import th.co.autox.logging.appender.BulkShippingAppender;
+import th.co.autox.logging.appender.CompressingTimeBasedRollingPolicy;
+import th.co.autox.logging.appender.EncodedConsoleAppender;
+import th.co.autox.logging.appender.FanOutAppender;
+import th.co.autox.logging.appender.GatheringStdoutAppender;
+import th.co.autox.logging.appender.InMemoryBulkSink;
+import th.co.autox.logging.appender.IndexingRollingFileAppender;
+import th.co.autox.logging.appender.ShardedFileAppender;
+import th.co.autox.logging.appender.SpoolingAsyncAppender;
+import th.co.autox.logging.debug.DebugOverrideTurboFilter;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import th.co.autox.logging.model.LogEntry;
+import th.co.autox.logging.model.RawJson;
+import th.co.autox.logging.model.RequestInfo;
+import th.co.autox.logging.model.ResponseInfo;
+import th.co.autox.logging.suppression.RepeatSuppressionTurboFilter;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Native-image hints for the starter.
+ *
+ * <ul>
+ *   <li>Appenders, encoders, sinks and turbo filters are created by Logback from XML
+ *       configuration, through their public constructor and setters.</li>
+ *   <li>The log models are written by hand-written serializers on the logging mapper;
+ *       their getters are registered for mappers that serialize them as beans.</li>
+ *   <li>{@code logback-structured.xml} is included as a resource.</li>
+ * </ul>
+ *
+ * <p>{@code LoggingProperties} needs no hints here: Spring Boot generates binding hints
+ * for configuration properties during AOT processing.</p>
+ */
+public class LoggingRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> LOGBACK_COMPONENTS = List.of(
+            JsonLogEncoder.class,
+            SpoolingAsyncAppender.class,
+            BulkShippingAppender.class,
+            IndexingRollingFileAppender.class,
+            CompressingTimeBasedRollingPolicy.class,
+            FanOutAppender.class,
+            EncodedConsoleAppender.class,
+            GatheringStdoutAppender.class,
+            ShardedFileAppender.class,
+            InMemoryBulkSink.class,
+            BulkFormat.class,
+            DebugOverrideTurboFilter.class,
+            RepeatSuppressionTurboFilter.class
+    );
+
+    private static final List<Class<?>> MODELS = List.of(
+            LogEntry.class,
+            LogEntry.ErrorInfo.class,
+            RequestInfo.class,
+            ResponseInfo.class,
+            RawJson.class
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        LOGBACK_COMPONENTS.forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+        MODELS.forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS));
+        // Named by @JsonSerialize(using = ...) and instantiated by Jackson
+        hints.reflection().registerType(TypeReference.of(RawJson.class.getName() + "$Serializer"),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.resources().registerPattern("logback-structured.xml");
+    }
+}
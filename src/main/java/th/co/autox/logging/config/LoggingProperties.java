@@ -4,7 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration properties for structured logging.
@@ -33,6 +35,61 @@ public class LoggingProperties {
      */
     private ApplicationLoggingConfig application = new ApplicationLoggingConfig();
 
+    /**
+     * Configuration for the JSON output profile.
+     */
+    private OutputConfig output = new OutputConfig();
+
+    /**
+     * Configuration for adaptive load shedding.
+     */
+    private SheddingConfig shedding = new SheddingConfig();
+
+    /**
+     * Configuration for off-thread serialization.
+     */
+    private AsyncSerializationConfig asyncSerialization = new AsyncSerializationConfig();
+
+    /**
+     * Configuration for durable audit logging.
+     */
+    private AuditConfig audit = new AuditConfig();
+
+    /**
+     * Configuration for suppression of repeated application logs.
+     */
+    private SuppressionConfig suppression = new SuppressionConfig();
+
+    /**
+     * Configuration for latency metrics.
+     */
+    private MetricsConfig metrics = new MetricsConfig();
+
+    /**
+     * Configuration for traffic sketches.
+     */
+    private TrafficConfig traffic = new TrafficConfig();
+
+    /**
+     * Configuration for per-request DEBUG overrides.
+     */
+    private DebugOverrideConfig debugOverride = new DebugOverrideConfig();
+
+    /**
+     * Limits applied when serializing entries.
+     */
+    private SerializationLimitsConfig serializationLimits = new SerializationLimitsConfig();
+
+    /**
+     * Configuration for the AppLoggerFactory cache.
+     */
+    private LoggerCacheConfig loggerCache = new LoggerCacheConfig();
+
+    /**
+     * In-memory buffer of recent log lines.
+     */
+    private RecentLogsConfig recentLogs = new RecentLogsConfig();
+
     /**
      * Headers to mask in logs (for security).
      */
@@ -103,6 +160,11 @@ public class LoggingProperties {
          * URL patterns to include for logging (if empty, all are included).
          */
         private List<String> includePatterns = new ArrayList<>();
+
+        /**
+         * Add section and downstream call timings to the incoming response entry.
+         */
+        private boolean logTimings = true;
     }
 
     /**
@@ -125,6 +187,343 @@ public class LoggingProperties {
          * Maximum stack trace depth.
          */
         private int maxStackTraceDepth = 50;
+
+        /**
+         * Maximum number of distinct stack trace fingerprints to cache.
+         */
+        private int stackTraceCacheSize = 256;
+
+        /**
+         * Window (in milliseconds) in which a repeated stack trace is written only as
+         * its stack_hash after the first occurrence (0 = always write the full trace).
+         */
+        private long stackTraceDedupWindowMs = 0;
+    }
+
+    /**
+     * Output mode for JSON log lines.
+     */
+    public enum OutputMode {
+        /**
+         * Every field is written, including empty and default values.
+         */
+        STANDARD,
+
+        /**
+         * Empty and default fields are omitted.
+         */
+        COMPACT
     }
-}
 
+    /**
+     * JSON output profile configuration.
+     */
+    @Data
+    public static class OutputConfig {
+
+        /**
+         * Output mode (standard or compact).
+         */
+        private OutputMode mode = OutputMode.STANDARD;
+
+        /**
+         * Use the built-in short field aliases (e.g. "correlation_id" -> "cid").
+         */
+        private boolean shortAliases = false;
+
+        /**
+         * Custom field aliases, applied on top of the short aliases.
+         */
+        private Map<String, String> aliases = new LinkedHashMap<>();
+
+        /**
+         * Top-level fields to write per log type (e.g. "request", "application").
+         * A type without an entry writes every field.
+         */
+        private Map<String, List<String>> fields = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adaptive load shedding configuration.
+     * The controller steps down one level each time a signal crosses its high
+     * threshold and steps back up only after all signals stay below their low
+     * thresholds for {@code recoverySamples} consecutive checks.
+     */
+    @Data
+    public static class SheddingConfig {
+
+        /**
+         * Enable adaptive load shedding.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Interval between pressure checks (in milliseconds).
+         */
+        private long checkIntervalMs = 1000;
+
+        /**
+         * Process CPU load (0.0 - 1.0) above which logging is shed.
+         */
+        private double cpuHighThreshold = 0.85;
+
+        /**
+         * Process CPU load (0.0 - 1.0) below which logging may recover.
+         */
+        private double cpuLowThreshold = 0.60;
+
+        /**
+         * Async appender queue fill ratio (0.0 - 1.0) above which logging is shed.
+         */
+        private double queueHighThreshold = 0.80;
+
+        /**
+         * Async appender queue fill ratio (0.0 - 1.0) below which logging may recover.
+         */
+        private double queueLowThreshold = 0.30;
+
+        /**
+         * Average encode latency (in microseconds) above which logging is shed.
+         */
+        private long encodeLatencyHighMicros = 500;
+
+        /**
+         * Average encode latency (in microseconds) below which logging may recover.
+         */
+        private long encodeLatencyLowMicros = 100;
+
+        /**
+         * Consecutive relieved checks required before stepping back up one level.
+         */
+        private int recoverySamples = 5;
+
+        /**
+         * Keep one in N INFO events when a sampling level is active.
+         */
+        private int sampleRate = 10;
+    }
+
+    /**
+     * Off-thread serialization configuration.
+     * When enabled, AppLogger captures an immutable snapshot on the calling thread
+     * and serializes it on a background encoder pool.
+     */
+    @Data
+    public static class AsyncSerializationConfig {
+
+        /**
+         * Enable off-thread serialization.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of encoder threads. Entries with the same correlation ID
+         * always use the same thread, so their order is kept.
+         */
+        private int threads = 2;
+
+        /**
+         * Maximum number of pending entries across all encoder threads.
+         * When a queue is full the entry is serialized on the calling thread.
+         */
+        private int queueCapacity = 8192;
+    }
+
+    /**
+     * Durable audit logging configuration.
+     * Audit entries are written to a dedicated file and forced to disk in group commits.
+     */
+    @Data
+    public static class AuditConfig {
+
+        /**
+         * Enable the audit log writer.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Audit log file.
+         */
+        private String file = "logs/audit.json.log";
+
+        /**
+         * Maximum number of entries written per fsync.
+         */
+        private int maxBatchSize = 512;
+
+        /**
+         * Also write audit entries to the regular log output (best effort).
+         */
+        private boolean mirrorToLog = true;
+    }
+
+    /**
+     * Repeated log suppression configuration.
+     * Applies to application logs written through {@code AppLogger}.
+     */
+    @Data
+    public static class SuppressionConfig {
+
+        /**
+         * Enable suppression of repeated application logs.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Events written per key (logger, level, message, exception class) and window.
+         */
+        private int burst = 10;
+
+        /**
+         * Window length in milliseconds. One summary line is written per key and window.
+         */
+        private long windowMs = 10000;
+
+        /**
+         * Maximum number of keys tracked.
+         */
+        private int maxKeys = 10000;
+    }
+
+    /**
+     * Latency metrics configuration.
+     * Durations are recorded per route and per downstream host and written as
+     * {@code metrics} entries once per interval.
+     */
+    @Data
+    public static class MetricsConfig {
+
+        /**
+         * Enable latency histograms and summary entries.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Interval between summary entries in milliseconds.
+         */
+        private long intervalMs = 60000;
+
+        /**
+         * Maximum number of routes and of downstream hosts tracked.
+         */
+        private int maxKeys = 1000;
+    }
+
+    /**
+     * Traffic sketch configuration.
+     * Heavy hitters and distinct counts of client addresses, routes and user agents
+     * are written as one {@code metrics} entry per interval.
+     */
+    @Data
+    public static class TrafficConfig {
+
+        /**
+         * Enable traffic sketches and summary entries.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Interval between summary entries in milliseconds.
+         */
+        private long intervalMs = 60000;
+
+        /**
+         * Number of top clients, routes and user agents per summary.
+         */
+        private int topK = 10;
+    }
+
+    /**
+     * Per-request DEBUG override configuration.
+     * A request runs with DEBUG enabled when it carries a signed {@code X-Debug-Log}
+     * header or its correlation ID is registered through the {@code debuglog} endpoint.
+     */
+    @Data
+    public static class DebugOverrideConfig {
+
+        /**
+         * Install the override turbo filter and the {@code debuglog} endpoint.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Shared HMAC secret for {@code X-Debug-Log} tokens (header disabled when empty).
+         */
+        private String secret;
+
+        /**
+         * Maximum lifetime of an override in seconds.
+         */
+        private long maxTtlSeconds = 900;
+    }
+
+    /**
+     * Serialization limits configuration.
+     * Bounds the cost of serializing arbitrary objects passed as bodies or {@code extra}
+     * values; truncation is marked inline.
+     */
+    @Data
+    public static class SerializationLimitsConfig {
+
+        /**
+         * Apply the limits below.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum nesting depth of objects and arrays, counted from the entry itself.
+         */
+        private int maxDepth = 16;
+
+        /**
+         * Maximum number of elements written per collection, array or map.
+         */
+        private int maxElements = 100;
+
+        /**
+         * Maximum length of a string value.
+         */
+        private int maxStringLength = 16384;
+
+        /**
+         * Approximate byte budget per entry; nested values after it is spent are not written.
+         */
+        private long maxEntryBytes = 262144;
+    }
+
+    /**
+     * Logger cache configuration.
+     * Bounds the loggers kept by AppLoggerFactory when logger names are built dynamically.
+     */
+    @Data
+    public static class LoggerCacheConfig {
+
+        /**
+         * Maximum number of loggers cached; the least recently used is evicted.
+         */
+        private int maxSize = 1000;
+    }
+
+    /**
+     * Recent logs configuration.
+     * Keeps the last lines in a fixed off-heap ring, served by the {@code recentlogs} endpoint.
+     */
+    @Data
+    public static class RecentLogsConfig {
+
+        /**
+         * Keep recent lines and expose the {@code recentlogs} endpoint.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Lines kept (rounded up to a power of two); the oldest is overwritten.
+         */
+        private int capacity = 2048;
+
+        /**
+         * Bytes kept per line; longer lines are truncated.
+         */
+        private int maxLineBytes = 8192;
+    }
+}
@@ -0,0 +1,132 @@
+package th.co.autox.logging.context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timed sections and downstream calls of one request, summarized into the
+ * {@code timings} field of the incoming response entry.
+ *
+ * <p>An instance is created by {@code RequestLoggingFilter} when the request starts
+ * and bound to the request thread. Sections are kept in fixed arrays sized when the
+ * request starts; repeated sections with the same name are summed into one slot, and
+ * sections beyond the capacity are only counted. Downstream calls are added by the
+ * HTTP client interceptors, possibly from other threads, so all updates synchronize
+ * on the instance (uncontended in the common case).</p>
+ *
+ * <pre>
+ * try (AppLogger.Section ignored = AppLogger.section("creditCheck")) {
+ *     creditBureau.check(application);
+ * }
+ * </pre>
+ */
+public final class RequestTimings {
+
+    /**
+     * Maximum number of distinct section names per request.
+     */
+    public static final int MAX_SECTIONS = 16;
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final String[] names = new String[MAX_SECTIONS];
+    private final long[] nanos = new long[MAX_SECTIONS];
+    private final int[] counts = new int[MAX_SECTIONS];
+    private int size;
+    private int droppedSections;
+    private int downstreamCalls;
+    private long downstreamNanos;
+
+    /**
+     * Start collecting timings for the current thread's request.
+     */
+    public static RequestTimings begin() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * Get the timings of the current thread's request, or null outside a request.
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stop collecting timings on the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Add the duration of a section.
+     */
+    public synchronized void recordSection(String name, long elapsedNanos) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                nanos[i] += elapsedNanos;
+                counts[i]++;
+                return;
+            }
+        }
+        if (size == MAX_SECTIONS) {
+            droppedSections++;
+            return;
+        }
+        names[size] = name;
+        nanos[size] = elapsedNanos;
+        counts[size] = 1;
+        size++;
+    }
+
+    /**
+     * Add one downstream call.
+     */
+    public synchronized void recordDownstream(long elapsedNanos) {
+        downstreamCalls++;
+        downstreamNanos += elapsedNanos;
+    }
+
+    /**
+     * Build the {@code timings} field, or null when nothing was recorded.
+     *
+     * <pre>
+     * {"sections": {"creditCheck": 182.4, "scoring": {"ms": 35.1, "count": 3}},
+     *  "downstream_calls": 2, "downstream_ms": 171.9}
+     * </pre>
+     */
+    public synchronized Map<String, Object> toMap() {
+        if (size == 0 && droppedSections == 0 && downstreamCalls == 0) {
+            return null;
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (size > 0) {
+            Map<String, Object> sections = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                if (counts[i] == 1) {
+                    sections.put(names[i], toMillis(nanos[i]));
+                } else {
+                    Map<String, Object> section = new LinkedHashMap<>();
+                    section.put("ms", toMillis(nanos[i]));
+                    section.put("count", counts[i]);
+                    sections.put(names[i], section);
+                }
+            }
+            map.put("sections", sections);
+        }
+        if (droppedSections > 0) {
+            map.put("dropped_sections", droppedSections);
+        }
+        if (downstreamCalls > 0) {
+            map.put("downstream_calls", downstreamCalls);
+            map.put("downstream_ms", toMillis(downstreamNanos));
+        }
+        return map;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+}
@@ -1,22 +1,36 @@
 package th.co.autox.logging.core;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import th.co.autox.logging.config.LoggingProperties;
 import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.context.RequestTimings;
+import th.co.autox.logging.debug.DebugOverrides;
+import th.co.autox.logging.encoder.BoundedJsonGenerator;
+import th.co.autox.logging.encoder.LogEntryWriter;
+import th.co.autox.logging.encoder.OutputProfile;
 import th.co.autox.logging.model.LogEntry;
 import th.co.autox.logging.model.LogType;
+import th.co.autox.logging.shedding.LoadSheddingController;
+import th.co.autox.logging.suppression.RepeatSuppressor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Core logger class that provides structured JSON logging capabilities.
@@ -40,7 +54,9 @@ public class AppLogger {
     private final Logger logger;
     private final String applicationName;
     private final LoggingProperties properties;
-    private final ObjectMapper objectMapper;
+    private final OutputProfile outputProfile;
+    @Getter(AccessLevel.NONE)
+    private final LoggingRuntime runtime;
 
     private static final DateTimeFormatter TIMESTAMP_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
@@ -60,6 +76,10 @@ public class AppLogger {
 
     private static volatile String defaultApplicationName = "application";
     private static volatile LoggingProperties defaultProperties = new LoggingProperties();
+    private static volatile StackTraceCache stackTraceCache = createStackTraceCache(defaultProperties);
+    private static volatile AsyncLogDispatcher asyncDispatcher;
+    private static volatile AuditLogWriter auditWriter;
+    private static volatile RepeatSuppressor repeatSuppressor;
 
     /**
      * Configure default settings for loggers created with simple constructor.
@@ -71,9 +91,65 @@ public class AppLogger {
         }
         if (properties != null) {
             defaultProperties = properties;
+            stackTraceCache = createStackTraceCache(properties);
         }
     }
 
+    /**
+     * Get the process-wide stack trace cache (for fingerprint counts).
+     */
+    public static StackTraceCache getStackTraceCache() {
+        return stackTraceCache;
+    }
+
+    /**
+     * Set the background encoder pool used when off-thread serialization is enabled.
+     * This is typically called by auto-configuration.
+     */
+    public static void configureAsyncDispatcher(AsyncLogDispatcher dispatcher) {
+        asyncDispatcher = dispatcher;
+    }
+
+    /**
+     * Set the durable writer used for audit entries.
+     * This is typically called by auto-configuration.
+     */
+    public static void configureAuditWriter(AuditLogWriter writer) {
+        auditWriter = writer;
+    }
+
+    /**
+     * Set the suppressor applied to application logs, or null to disable suppression.
+     * This is typically called by auto-configuration.
+     */
+    public static void configureRepeatSuppressor(RepeatSuppressor suppressor) {
+        repeatSuppressor = suppressor;
+    }
+
+    /**
+     * Start a timed section of the current request. The elapsed time is added to the
+     * {@code timings} field of the request's response entry when the section is closed.
+     * Outside a request this returns a shared no-op section.
+     *
+     * <pre>
+     * try (AppLogger.Section ignored = AppLogger.section("creditCheck")) {
+     *     creditBureau.check(application);
+     * }
+     * </pre>
+     */
+    public static Section section(String name) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null || name == null) {
+            return Section.NOOP;
+        }
+        return new Section(timings, name, System.nanoTime());
+    }
+
+    private static StackTraceCache createStackTraceCache(LoggingProperties properties) {
+        return new StackTraceCache(properties.getApplication().getStackTraceCacheSize(),
+                properties.getApplication().getStackTraceDedupWindowMs());
+    }
+
     /**
      * Get the default application name.
      */
@@ -107,8 +183,9 @@ public class AppLogger {
     public AppLogger(Class<?> clazz, String applicationName, LoggingProperties properties) {
         this.logger = LoggerFactory.getLogger(clazz);
         this.applicationName = applicationName;
-        this.properties = properties != null ? properties : new LoggingProperties();
-        this.objectMapper = createObjectMapper();
+        this.properties = properties != null ? properties : defaultProperties;
+        this.runtime = LoggingRuntime.of(this.properties);
+        this.outputProfile = runtime.outputProfile();
     }
 
     /**
@@ -117,15 +194,16 @@ public class AppLogger {
     public AppLogger(String name, String applicationName, LoggingProperties properties) {
         this.logger = LoggerFactory.getLogger(name);
         this.applicationName = applicationName;
-        this.properties = properties != null ? properties : new LoggingProperties();
-        this.objectMapper = createObjectMapper();
+        this.properties = properties != null ? properties : defaultProperties;
+        this.runtime = LoggingRuntime.of(this.properties);
+        this.outputProfile = runtime.outputProfile();
     }
 
-    private ObjectMapper createObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        return mapper;
+    /**
+     * Get the mapper used to serialize entries (built on the first log event).
+     */
+    public ObjectMapper getObjectMapper() {
+        return runtime.objectMapper();
     }
 
     // ==================== Application Logging ====================
@@ -134,7 +212,7 @@ public class AppLogger {
      * Log a debug message.
      */
     public void debug(String message) {
-        if (logger.isDebugEnabled() && isApplicationLoggingEnabled()) {
+        if (isDebugEnabled() && isApplicationLoggingEnabled()) {
             logApplication("DEBUG", message, null, null);
         }
     }
@@ -143,7 +221,7 @@ public class AppLogger {
      * Log a debug message with additional fields.
      */
     public void debug(String message, Map<String, Object> extra) {
-        if (logger.isDebugEnabled() && isApplicationLoggingEnabled()) {
+        if (isDebugEnabled() && isApplicationLoggingEnabled()) {
             logApplication("DEBUG", message, null, extra);
         }
     }
@@ -152,7 +230,7 @@ public class AppLogger {
      * Log an info message.
      */
     public void info(String message) {
-        if (logger.isInfoEnabled() && isApplicationLoggingEnabled()) {
+        if (logger.isInfoEnabled() && isApplicationLoggingEnabled() && admitInfo()) {
             logApplication("INFO", message, null, null);
         }
     }
@@ -161,7 +239,7 @@ public class AppLogger {
      * Log an info message with additional fields.
      */
     public void info(String message, Map<String, Object> extra) {
-        if (logger.isInfoEnabled() && isApplicationLoggingEnabled()) {
+        if (logger.isInfoEnabled() && isApplicationLoggingEnabled() && admitInfo()) {
             logApplication("INFO", message, null, extra);
         }
     }
@@ -220,6 +298,126 @@ public class AppLogger {
         }
     }
 
+    // ==================== Metrics Logging ====================
+
+    /**
+     * Write a periodic metrics summary. Not subject to load shedding or suppression.
+     */
+    public void logMetrics(String message, Map<String, Object> fields) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        setupMdc();
+
+        LogEntry entry = LogEntry.builder()
+                .timestamp(OffsetDateTime.now().format(TIMESTAMP_FORMATTER))
+                .application(applicationName)
+                .message(message)
+                .loggerName(logger.getName())
+                .threadName(Thread.currentThread().getName())
+                .level("INFO")
+                .levelValue(LEVEL_VALUES.get("INFO"))
+                .type(LogType.METRICS.getValue())
+                .extra(fields)
+                .build();
+        logJson("INFO", entry, null);
+    }
+
+    // ==================== Audit Logging ====================
+
+    /**
+     * Write an audit entry and return once it has been forced to disk.
+     *
+     * @throws UncheckedIOException if the entry could not be written
+     * @throws IllegalStateException if audit logging is not enabled
+     */
+    public void audit(String message, Map<String, Object> extra) {
+        try {
+            auditAsync(message, extra).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Write an audit entry. The returned future completes once the entry has been
+     * forced to disk, together with the other entries of its group commit.
+     */
+    public CompletableFuture<Void> auditAsync(String message, Map<String, Object> extra) {
+        AuditLogWriter writer = auditWriter;
+        if (writer == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Audit logging is not enabled (logging.structured.audit.enabled=true)"));
+        }
+        setupMdc();
+
+        LogEntry entry = LogEntry.builder()
+                .timestamp(OffsetDateTime.now().format(TIMESTAMP_FORMATTER))
+                .application(applicationName)
+                .message(message)
+                .loggerName(logger.getName())
+                .threadName(Thread.currentThread().getName())
+                .level("INFO")
+                .levelValue(LEVEL_VALUES.get("INFO"))
+                .type(LogType.AUDIT.getValue())
+                .correlationId(CorrelationContext.getCorrelationId())
+                .extra(extra)
+                .build();
+
+        byte[] line;
+        try {
+            // The audit file always uses the standard shape, whatever the output profile
+            byte[] json = runtime.objectMapper().writeValueAsBytes(entry);
+            line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> durable = writer.submit(line);
+        if (properties.getAudit().isMirrorToLog() && logger.isInfoEnabled()) {
+            logJson("INFO", entry, null);
+        }
+        return durable;
+    }
+
+    /**
+     * Write the summary line for events suppressed by the repeat suppressor.
+     */
+    public void logSuppressionSummary(RepeatSuppressor.Summary summary) {
+        if (!isApplicationLoggingEnabled()) {
+            return;
+        }
+        setupMdc();
+        Map<String, Object> extra = new LinkedHashMap<>();
+        extra.put("suppressed_count", summary.suppressed());
+        extra.put("suppressed_message", summary.template());
+        if (summary.exceptionClass() != null) {
+            extra.put("suppressed_exception", summary.exceptionClass());
+        }
+        String level = summary.level().toUpperCase();
+        LogEntry entry = LogEntry.builder()
+                .timestamp(OffsetDateTime.now().format(TIMESTAMP_FORMATTER))
+                .application(applicationName)
+                .message(summary.message())
+                .loggerName(logger.getName())
+                .threadName(Thread.currentThread().getName())
+                .level(level)
+                .levelValue(LEVEL_VALUES.getOrDefault(level, 20000))
+                .type(LogType.APPLICATION.getValue())
+                .correlationId(CorrelationContext.getCorrelationId())
+                .extra(extra)
+                .build();
+        logJson(level, entry, null);
+    }
+
     // ==================== Request Logging ====================
 
     /**
@@ -261,10 +459,18 @@ public class AppLogger {
      */
     public void logIncomingResponse(String method, String uri, int statusCode,
                                     long durationMs, Object responseBody) {
+        logIncomingResponse(method, uri, statusCode, durationMs, responseBody, null);
+    }
+
+    /**
+     * Log an incoming response with the request's section and downstream call timings.
+     */
+    public void logIncomingResponse(String method, String uri, int statusCode,
+                                    long durationMs, Object responseBody, RequestTimings timings) {
         if (isRequestLoggingEnabled()) {
             String level = statusCode >= 500 ? "ERROR" : (statusCode >= 400 ? "WARN" : "INFO");
             logRequestInternal(level, "Incoming response", method, uri, statusCode, durationMs,
-                    null, null, null, responseBody, null);
+                    null, null, null, responseBody, null, timings != null ? timings.toMap() : null);
         }
     }
 
@@ -294,6 +500,11 @@ public class AppLogger {
 
     private void logApplication(String level, String message, Throwable throwable,
                                Map<String, Object> extra) {
+        RepeatSuppressor suppressor = repeatSuppressor;
+        if (suppressor != null && !suppressor.admit(logger.getName(), level, message,
+                throwable != null ? throwable.getClass().getName() : null)) {
+            return;
+        }
         setupMdc();
 
         LogEntry.LogEntryBuilder builder = LogEntry.builder()
@@ -309,11 +520,15 @@ public class AppLogger {
                 .extra(extra);
 
         if (throwable != null && properties.getApplication().isIncludeStackTrace()) {
+            StackTraceCache.Trace trace = stackTraceCache.lookup(throwable,
+                    properties.getApplication().getMaxStackTraceDepth());
             LogEntry.ErrorInfo errorInfo = LogEntry.ErrorInfo.builder()
                     .exceptionClass(throwable.getClass().getName())
                     .message(throwable.getMessage())
-                    .stackTrace(formatStackTrace(throwable))
-                    .rootCause(getRootCause(throwable))
+                    .stackTrace(trace.frames())
+                    .rootCause(trace.rootCause())
+                    .stackHash(trace.hash())
+                    .stackCount(trace.count())
                     .build();
             builder.error(errorInfo);
         }
@@ -325,6 +540,14 @@ public class AppLogger {
                                    Integer statusCode, Long durationMs, String remoteAddress,
                                    String userAgent, Object requestBody, Object responseBody,
                                    Map<String, Object> extra) {
+        logRequestInternal(level, message, method, uri, statusCode, durationMs, remoteAddress,
+                userAgent, requestBody, responseBody, extra, null);
+    }
+
+    private void logRequestInternal(String level, String message, String method, String uri,
+                                   Integer statusCode, Long durationMs, String remoteAddress,
+                                   String userAgent, Object requestBody, Object responseBody,
+                                   Map<String, Object> extra, Map<String, Object> timings) {
         setupMdc();
 
         LogEntry entry = LogEntry.builder()
@@ -345,6 +568,7 @@ public class AppLogger {
                 .userAgent(userAgent)
                 .requestBody(requestBody != null ? requestBody : Collections.emptyMap())
                 .responseBody(responseBody != null ? responseBody : Collections.emptyMap())
+                .timings(timings)
                 .extra(extra)
                 .build();
 
@@ -357,47 +581,114 @@ public class AppLogger {
     }
 
     private void logJson(String level, LogEntry entry, Throwable throwable) {
+        AsyncLogDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher != null && properties.getAsyncSerialization().isEnabled()) {
+            // Capture a snapshot on the caller; serialize and write on an encoder thread
+            SnapshotCopier snapshotCopier = runtime.snapshotCopier();
+            entry.setRequestBody(snapshotCopier.copy(entry.getRequestBody()));
+            entry.setResponseBody(snapshotCopier.copy(entry.getResponseBody()));
+            entry.setExtra(snapshotCopier.copyMap(entry.getExtra()));
+            dispatcher.dispatch(entry.getCorrelationId(), () -> writeOffThread(level, entry, throwable));
+            return;
+        }
+        writeJson(level, entry, throwable);
+    }
+
+    private void writeOffThread(String level, LogEntry entry, Throwable throwable) {
+        Map<String, String> previousMdc = MDC.getCopyOfContextMap();
         try {
-            String json = objectMapper.writeValueAsString(entry);
+            MDC.put(CorrelationContext.CORRELATION_ID_MDC_KEY, entry.getCorrelationId());
+            MDC.put("application", applicationName);
+            writeJson(level, entry, throwable);
+        } finally {
+            if (previousMdc != null) {
+                MDC.setContextMap(previousMdc);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+    private void writeJson(String level, LogEntry entry, Throwable throwable) {
+        try {
+            boolean timed = LoadSheddingController.isMonitoring();
+            long start = timed ? System.nanoTime() : 0L;
+            String json = serialize(entry);
+            if (timed) {
+                LoadSheddingController.recordEncodeNanos(System.nanoTime() - start);
+            }
             switch (level.toUpperCase()) {
-                case "DEBUG" -> logger.debug(json);
+                case "DEBUG" -> {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug(LogEntryWriter.ENTRY, json);
+                    } else {
+                        // Admitted by a per-request override on the calling thread
+                        writeDebugOverride(json);
+                    }
+                }
                 case "WARN" -> {
                     if (throwable != null) {
-                        logger.warn(json, throwable);
+                        logger.warn(LogEntryWriter.ENTRY, json, throwable);
                     } else {
-                        logger.warn(json);
+                        logger.warn(LogEntryWriter.ENTRY, json);
                     }
                 }
                 case "ERROR" -> {
                     if (throwable != null) {
-                        logger.error(json, throwable);
+                        logger.error(LogEntryWriter.ENTRY, json, throwable);
                     } else {
-                        logger.error(json);
+                        logger.error(LogEntryWriter.ENTRY, json);
                     }
                 }
-                default -> logger.info(json);
+                default -> logger.info(LogEntryWriter.ENTRY, json);
             }
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             logger.error("Failed to serialize log entry", e);
         }
     }
 
-    private String[] formatStackTrace(Throwable throwable) {
-        StackTraceElement[] stackTrace = throwable.getStackTrace();
-        int depth = Math.min(stackTrace.length, properties.getApplication().getMaxStackTraceDepth());
-        String[] result = new String[depth];
-        for (int i = 0; i < depth; i++) {
-            result[i] = stackTrace[i].toString();
+    /**
+     * Apply load shedding to application INFO logs (one volatile read when not shedding).
+     */
+    private boolean admitInfo() {
+        return !LoadSheddingController.currentLevel().samplesApplicationInfo()
+                || LoadSheddingController.sample();
+    }
+
+    /**
+     * DEBUG is enabled by the logger's level or by a per-request override.
+     * The override check is one volatile read while no override exists.
+     */
+    private boolean isDebugEnabled() {
+        return DebugOverrides.isEnabledForCurrentRequest() || logger.isDebugEnabled();
+    }
+
+    private String serialize(LogEntry entry) throws IOException {
+        ObjectMapper objectMapper = runtime.objectMapper();
+        LoggingProperties.SerializationLimitsConfig limits = properties.getSerializationLimits();
+        if (!limits.isEnabled()) {
+            return outputProfile.isDefault()
+                    ? objectMapper.writeValueAsString(entry)
+                    : LogEntryWriter.writeAsString(entry, objectMapper, outputProfile);
+        }
+        if (outputProfile.isDefault()) {
+            return BoundedJsonGenerator.writeValueAsString(objectMapper, entry, limits);
+        }
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator generator = new BoundedJsonGenerator(
+                objectMapper.getFactory().createGenerator(out), limits)) {
+            LogEntryWriter.write(entry, generator, outputProfile);
         }
-        return result;
+        return out.toString();
     }
 
-    private String getRootCause(Throwable throwable) {
-        Throwable rootCause = throwable;
-        while (rootCause.getCause() != null && rootCause.getCause() != rootCause) {
-            rootCause = rootCause.getCause();
+    private void writeDebugOverride(String json) {
+        if (logger instanceof ch.qos.logback.classic.Logger logbackLogger) {
+            LoggingEvent event = new LoggingEvent(AppLogger.class.getName(), logbackLogger,
+                    Level.DEBUG, json, null, null);
+            event.addMarker(LogEntryWriter.ENTRY);
+            logbackLogger.callAppenders(event);
         }
-        return rootCause != throwable ? rootCause.getClass().getName() + ": " + rootCause.getMessage() : null;
     }
 
     private boolean isApplicationLoggingEnabled() {
@@ -407,5 +698,32 @@ public class AppLogger {
     private boolean isRequestLoggingEnabled() {
         return properties.isEnabled() && properties.getRequest().isEnabled();
     }
-}
 
+    /**
+     * A timed section started with {@link #section(String)}.
+     */
+    public static final class Section implements AutoCloseable {
+
+        private static final Section NOOP = new Section(null, null, 0L);
+
+        private final RequestTimings timings;
+        private final String name;
+        private final long startNanos;
+
+        private Section(RequestTimings timings, String name, long startNanos) {
+            this.timings = timings;
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Stop the section and add its elapsed time to the request timings.
+         */
+        @Override
+        public void close() {
+            if (timings != null) {
+                timings.recordSection(name, System.nanoTime() - startNanos);
+            }
+        }
+    }
+}
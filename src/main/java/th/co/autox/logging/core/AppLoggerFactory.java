@@ -3,31 +3,62 @@ package th.co.autox.logging.core;
 import th.co.autox.logging.config.LoggingProperties;
 import org.springframework.beans.factory.annotation.Value;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * Factory for creating AppLogger instances.
- * Caches logger instances for reuse.
+ * Caches logger instances for reuse in a bounded LRU, so that dynamically built logger
+ * names (per tenant, per partner) do not grow the cache without limit. All loggers share
+ * one {@link LoggingRuntime}, so an evicted logger is cheap to create again.
  */
 public class AppLoggerFactory {
 
     private final String applicationName;
     private final LoggingProperties properties;
-    private final ConcurrentMap<String, AppLogger> loggerCache = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final Map<String, AppLogger> loggerCache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     public AppLoggerFactory(
             @Value("${spring.application.name:application}") String applicationName,
             LoggingProperties properties) {
         this.applicationName = applicationName;
         this.properties = properties;
+        this.maxSize = Math.max(1, properties.getLoggerCache().getMaxSize());
+        this.loggerCache = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AppLogger> eldest) {
+                if (size() > AppLoggerFactory.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Cache statistics.
+     *
+     * @param hits      lookups served from the cache
+     * @param misses    lookups that created a logger
+     * @param evictions loggers evicted to stay within {@code max-size}
+     * @param size      loggers currently cached
+     */
+    public record CacheStats(long hits, long misses, long evictions, int size) {
     }
 
     /**
      * Get a logger for the specified class.
      */
     public AppLogger getLogger(Class<?> clazz) {
-        return loggerCache.computeIfAbsent(clazz.getName(),
+        return lookup(clazz.getName(),
                 name -> new AppLogger(clazz, getEffectiveApplicationName(), properties));
     }
 
@@ -35,10 +66,30 @@ public class AppLoggerFactory {
      * Get a logger with the specified name.
      */
     public AppLogger getLogger(String name) {
-        return loggerCache.computeIfAbsent(name,
+        return lookup(name,
                 n -> new AppLogger(n, getEffectiveApplicationName(), properties));
     }
 
+    /**
+     * Get the cache statistics.
+     */
+    public CacheStats getCacheStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), loggerCache.size());
+    }
+
+    private AppLogger lookup(String name, Function<String, AppLogger> factory) {
+        AppLogger logger = loggerCache.get(name);
+        if (logger != null) {
+            hits.increment();
+            return logger;
+        }
+        misses.increment();
+        // Created outside the lock; a concurrent miss for the same name keeps the first logger
+        AppLogger created = factory.apply(name);
+        AppLogger existing = loggerCache.putIfAbsent(name, created);
+        return existing != null ? existing : created;
+    }
+
     private String getEffectiveApplicationName() {
         if (properties.getApplicationName() != null && !properties.getApplicationName().isBlank()) {
             return properties.getApplicationName();
@@ -53,4 +104,3 @@ public class AppLoggerFactory {
         return getEffectiveApplicationName();
     }
 }
-
@@ -0,0 +1,76 @@
+package th.co.autox.logging.core;
+
+import th.co.autox.logging.config.LoggingProperties;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background encoder pool for off-thread serialization.
+ *
+ * <p>Each encoder is a single thread with its own bounded queue. Work is assigned by
+ * correlation ID hash, so all entries of one request are written in order. When the
+ * selected queue is full, or the pool is shut down, the task runs on the calling thread
+ * instead of being dropped.</p>
+ */
+public class AsyncLogDispatcher {
+
+    private final ThreadPoolExecutor[] encoders;
+
+    public AsyncLogDispatcher(LoggingProperties.AsyncSerializationConfig config) {
+        int threads = Math.max(1, config.getThreads());
+        int queuePerThread = Math.max(16, config.getQueueCapacity() / threads);
+        this.encoders = new ThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; i++) {
+            String name = "logging-encoder-" + i;
+            encoders[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queuePerThread),
+                    r -> {
+                        Thread thread = new Thread(r, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (task, executor) -> task.run());
+        }
+    }
+
+    /**
+     * Submit a serialization task for the given correlation ID.
+     */
+    public void dispatch(String correlationId, Runnable task) {
+        int index = correlationId != null
+                ? Math.floorMod(correlationId.hashCode(), encoders.length) : 0;
+        encoders[index].execute(task);
+    }
+
+    /**
+     * Number of entries waiting to be serialized.
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (ThreadPoolExecutor encoder : encoders) {
+            pending += encoder.getQueue().size();
+        }
+        return pending;
+    }
+
+    /**
+     * Stop accepting work and wait for pending entries to be written.
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor encoder : encoders) {
+            encoder.shutdown();
+        }
+        for (ThreadPoolExecutor encoder : encoders) {
+            try {
+                if (!encoder.awaitTermination(5, TimeUnit.SECONDS)) {
+                    encoder.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                encoder.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package th.co.autox.logging.core;
+
+import th.co.autox.logging.config.LoggingProperties;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durable writer for {@code audit} log entries with group commit.
+ *
+ * <p>Callers submit encoded lines and receive a future. A single writer thread takes
+ * everything that is pending (up to {@code maxBatchSize} lines), writes it with one
+ * gathering write and calls {@link FileChannel#force} once, then completes the futures
+ * of the whole batch. Lines submitted while a force is in progress form the next batch,
+ * so the number of fsyncs grows with the disk's flush latency rather than with the
+ * event rate.</p>
+ */
+public class AuditLogWriter implements Closeable {
+
+    private static final Pending CLOSE = new Pending(ByteBuffer.allocate(0), null);
+
+    private final FileChannel channel;
+    private final int maxBatchSize;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final LongAdder records = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean running = true;
+
+    public AuditLogWriter(LoggingProperties.AuditConfig config) throws IOException {
+        this(Path.of(config.getFile()), config.getMaxBatchSize());
+    }
+
+    public AuditLogWriter(Path file, int maxBatchSize) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.writer = new Thread(this::run, "audit-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a line for writing. The future completes once the line has been forced to disk.
+     */
+    public CompletableFuture<Void> submit(byte[] line) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IOException("Audit log writer is closed"));
+            return future;
+        }
+        queue.add(new Pending(ByteBuffer.wrap(line), future));
+        return future;
+    }
+
+    /**
+     * Number of lines made durable.
+     */
+    public long getRecordCount() {
+        return records.sum();
+    }
+
+    /**
+     * Number of group commits (one force per batch).
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Stop accepting lines, write what is pending and close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // Not interrupted: an interrupt during write or force would close the channel
+        queue.add(CLOSE);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            if (pending != CLOSE) {
+                pending.future.completeExceptionally(new IOException("Audit log writer is closed"));
+            }
+        }
+        channel.close();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            closing = batch.remove(CLOSE);
+            if (closing) {
+                queue.drainTo(batch);
+                batch.remove(CLOSE);
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = batch.get(i).line;
+            remaining += buffers[i].remaining();
+        }
+        try {
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            for (Pending pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+            return;
+        }
+        records.add(batch.size());
+        batches.increment();
+        for (Pending pending : batch) {
+            pending.future.complete(null);
+        }
+    }
+
+    private record Pending(ByteBuffer line, CompletableFuture<Void> future) {
+    }
+}
@@ -0,0 +1,142 @@
+package th.co.autox.logging.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.encoder.BoundedSerializerModifier;
+import th.co.autox.logging.encoder.ModelSerializers;
+import th.co.autox.logging.encoder.OutputProfile;
+import th.co.autox.logging.model.LogEntry;
+import th.co.autox.logging.model.RequestInfo;
+import th.co.autox.logging.model.ResponseInfo;
+import th.co.autox.logging.util.SensitiveSerializerModifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialization state shared by all {@link AppLogger} instances that use the same
+ * {@link LoggingProperties}: the configured {@link ObjectMapper}, the output profile
+ * and the snapshot copier.
+ *
+ * <p>Building a mapper and its serializer caches is far more expensive than the rest of
+ * a logger, so it is done once per properties instance instead of once per logger, and
+ * only when the first entry is serialized, so creating loggers during startup stays
+ * cheap. The mapper is then warmed up with a sample entry that touches every model
+ * serializer.</p>
+ */
+public final class LoggingRuntime {
+
+    private static volatile LoggingRuntime shared;
+
+    private final LoggingProperties properties;
+    private final OutputProfile outputProfile;
+    private volatile ObjectMapper objectMapper;
+    private volatile SnapshotCopier snapshotCopier;
+
+    private LoggingRuntime(LoggingProperties properties) {
+        this.properties = properties;
+        this.outputProfile = OutputProfile.from(properties.getOutput());
+    }
+
+    /**
+     * Runtime for a properties instance. Loggers created with the same instance (the
+     * auto-configured one in a Spring application) share one runtime.
+     */
+    public static LoggingRuntime of(LoggingProperties properties) {
+        LoggingRuntime current = shared;
+        if (current != null && current.properties == properties) {
+            return current;
+        }
+        synchronized (LoggingRuntime.class) {
+            current = shared;
+            if (current == null || current.properties != properties) {
+                current = new LoggingRuntime(properties);
+                shared = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * The mapper for log entries, built and warmed up on first use.
+     */
+    public ObjectMapper objectMapper() {
+        ObjectMapper mapper = objectMapper;
+        if (mapper == null) {
+            mapper = initialize();
+        }
+        return mapper;
+    }
+
+    public OutputProfile outputProfile() {
+        return outputProfile;
+    }
+
+    /**
+     * Whether the mapper has been built.
+     */
+    public boolean isInitialized() {
+        return objectMapper != null;
+    }
+
+    SnapshotCopier snapshotCopier() {
+        SnapshotCopier copier = snapshotCopier;
+        if (copier == null) {
+            initialize();
+            copier = snapshotCopier;
+        }
+        return copier;
+    }
+
+    private synchronized ObjectMapper initialize() {
+        if (objectMapper == null) {
+            ObjectMapper mapper = createObjectMapper(properties);
+            warmUp(mapper);
+            snapshotCopier = new SnapshotCopier(mapper, properties.getSerializationLimits());
+            objectMapper = mapper;
+        }
+        return objectMapper;
+    }
+
+    private static ObjectMapper createObjectMapper(LoggingProperties properties) {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.registerModule(SensitiveSerializerModifier.module(properties.getMaskValue()));
+        mapper.registerModule(BoundedSerializerModifier.module());
+        mapper.registerModule(ModelSerializers.module());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    /**
+     * Serialize an entry with every optional field set, so that the serializers for the
+     * model classes are built and cached up front.
+     */
+    private static void warmUp(ObjectMapper objectMapper) {
+        LogEntry sample = LogEntry.builder()
+                .timestamp("")
+                .loggerName("")
+                .level("INFO")
+                .levelValue(0)
+                .type("")
+                .correlationId("")
+                .statusCode(0)
+                .durationMs(0L)
+                .requestBody(RequestInfo.builder().headers(Map.of()).build())
+                .responseBody(ResponseInfo.builder().headers(Map.of()).build())
+                .error(LogEntry.ErrorInfo.builder().stackTrace(new String[0]).stackCount(0L).build())
+                .timings(Map.of("sections", Map.of()))
+                .extra(Map.of("list", List.of(0), "time", OffsetDateTime.now()))
+                .build();
+        try {
+            objectMapper.writeValue(OutputStream.nullOutputStream(), sample);
+        } catch (IOException e) {
+            // Warm-up only; the first real entry will report any problem
+        }
+    }
+}
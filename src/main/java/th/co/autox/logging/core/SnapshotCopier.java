@@ -0,0 +1,145 @@
+package th.co.autox.logging.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.encoder.BoundedJsonGenerator;
+import th.co.autox.logging.model.RawJson;
+import th.co.autox.logging.model.RequestInfo;
+import th.co.autox.logging.model.ResponseInfo;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Makes defensive copies of values handed to {@link AppLogger} so that they can be
+ * serialized on another thread after the caller has moved on.
+ *
+ * <p>Immutable values (strings, boxed primitives, enums, {@code java.time} types, raw JSON)
+ * are kept by reference. Maps, collections, arrays and the request/response models
+ * are copied. Any other object is converted to a Jackson tree on the calling thread,
+ * within the {@code serialization-limits}, which captures its current state.</p>
+ */
+final class SnapshotCopier {
+
+    private static final int MAX_DEPTH = 32;
+    private static final String DEPTH_LIMIT_MARKER = "[depth limit]";
+
+    private final ObjectMapper objectMapper;
+    private final LoggingProperties.SerializationLimitsConfig limits;
+
+    SnapshotCopier(ObjectMapper objectMapper, LoggingProperties.SerializationLimitsConfig limits) {
+        this.objectMapper = objectMapper;
+        this.limits = limits;
+    }
+
+    /**
+     * Copy an extra-fields map.
+     */
+    Map<String, Object> copyMap(Map<String, Object> map) {
+        if (map == null) {
+            return null;
+        }
+        Map<String, Object> copy = new LinkedHashMap<>(Math.max(4, map.size() * 2));
+        map.forEach((key, value) -> copy.put(key, copy(value, 1)));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Copy a body or extra value.
+     */
+    Object copy(Object value) {
+        return copy(value, 0);
+    }
+
+    private Object copy(Object value, int depth) {
+        if (isImmutable(value)) {
+            return value;
+        }
+        if (depth >= MAX_DEPTH) {
+            return DEPTH_LIMIT_MARKER;
+        }
+        if (value instanceof RequestInfo info) {
+            return RequestInfo.builder()
+                    .headers(copyStrings(info.getHeaders()))
+                    .queryParams(copyStrings(info.getQueryParams()))
+                    .pathParams(copyStrings(info.getPathParams()))
+                    .body(copy(info.getBody(), depth + 1))
+                    .contentType(info.getContentType())
+                    .contentLength(info.getContentLength())
+                    .build();
+        }
+        if (value instanceof ResponseInfo info) {
+            return ResponseInfo.builder()
+                    .headers(copyStrings(info.getHeaders()))
+                    .body(copy(info.getBody(), depth + 1))
+                    .contentType(info.getContentType())
+                    .contentLength(info.getContentLength())
+                    .build();
+        }
+        if (value instanceof JsonNode node) {
+            return node.deepCopy();
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>(Math.max(4, map.size() * 2));
+            map.forEach((key, item) -> copy.put(key, copy(item, depth + 1)));
+            return copy;
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> copy = new ArrayList<>(collection.size());
+            collection.forEach(item -> copy.add(copy(item, depth + 1)));
+            return copy;
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.clone();
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> copy = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                copy.add(copy(Array.get(value, i), depth + 1));
+            }
+            return copy;
+        }
+        if (!limits.isEnabled()) {
+            return objectMapper.valueToTree(value);
+        }
+        try {
+            return BoundedJsonGenerator.valueToTree(objectMapper, value, limits);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, String> copyStrings(Map<String, String> map) {
+        return map != null ? new LinkedHashMap<>(map) : null;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null
+                || value instanceof String
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Double
+                || value instanceof Float
+                || value instanceof Short
+                || value instanceof Byte
+                || value instanceof BigDecimal
+                || value instanceof BigInteger
+                || value instanceof Enum<?>
+                || value instanceof UUID
+                || value instanceof RawJson
+                || value.getClass().getPackageName().equals("java.time");
+    }
+}
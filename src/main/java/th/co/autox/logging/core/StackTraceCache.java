@@ -0,0 +1,162 @@
+package th.co.autox.logging.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fingerprints stack traces and caches their formatted frames.
+ *
+ * <p>The fingerprint is computed from the exception class, the root cause class
+ * and the identity of each frame (class, method, line), which is far cheaper than
+ * formatting the frames. Formatted frames are kept per fingerprint in a bounded LRU,
+ * so repeated identical exceptions are formatted only once.</p>
+ *
+ * <p>When a dedup window is configured, the full trace is returned only for the first
+ * occurrence of a fingerprint in each window; later occurrences carry just the
+ * {@code stack_hash} reference.</p>
+ */
+public class StackTraceCache {
+
+    private final int maxEntries;
+    private final long dedupWindowMs;
+    private final Map<Long, CachedTrace> cache;
+
+    public StackTraceCache(int maxEntries, long dedupWindowMs) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.dedupWindowMs = Math.max(0, dedupWindowMs);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedTrace> eldest) {
+                return size() > StackTraceCache.this.maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Result of a cache lookup for one logged throwable.
+     *
+     * @param hash      hex fingerprint, written as {@code stack_hash}
+     * @param frames    formatted frames, or null when the trace was already written in this window
+     * @param rootCause root cause description, or null when the throwable has no cause
+     * @param count     number of times this fingerprint has been seen
+     */
+    public record Trace(String hash, String[] frames, String rootCause, long count) {
+    }
+
+    /**
+     * Look up (or format and cache) the trace of a throwable.
+     */
+    public Trace lookup(Throwable throwable, int maxDepth) {
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        int depth = Math.min(stackTrace.length, maxDepth);
+        Throwable rootCause = findRootCause(throwable);
+
+        long fingerprint = fingerprint(throwable, rootCause, stackTrace, depth);
+        CachedTrace cached = cache.get(fingerprint);
+        if (cached == null) {
+            cached = new CachedTrace(fingerprint, formatFrames(stackTrace, depth),
+                    rootCause != throwable ? rootCause.getClass().getName() : null);
+            cache.put(fingerprint, cached);
+        }
+
+        long count = cached.record();
+        String[] frames = cached.shouldWriteFull(dedupWindowMs) ? cached.frames : null;
+        String rootCauseText = cached.rootCauseClass != null
+                ? cached.rootCauseClass + ": " + rootCause.getMessage() : null;
+        return new Trace(cached.hash, frames, rootCauseText, count);
+    }
+
+    /**
+     * Snapshot of occurrence counts per fingerprint, most recently used last.
+     */
+    public Map<String, Long> counts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        synchronized (cache) {
+            cache.values().forEach(trace -> counts.put(trace.hash, trace.count.sum()));
+        }
+        return counts;
+    }
+
+    /**
+     * Number of fingerprints currently cached.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private static Throwable findRootCause(Throwable throwable) {
+        Throwable rootCause = throwable;
+        while (rootCause.getCause() != null && rootCause.getCause() != rootCause) {
+            rootCause = rootCause.getCause();
+        }
+        return rootCause;
+    }
+
+    private static long fingerprint(Throwable throwable, Throwable rootCause,
+                                    StackTraceElement[] stackTrace, int depth) {
+        long hash = mix(throwable.getClass().getName().hashCode());
+        if (rootCause != throwable) {
+            hash = hash * 31 + rootCause.getClass().getName().hashCode();
+        }
+        hash = hash * 31 + depth;
+        for (int i = 0; i < depth; i++) {
+            StackTraceElement frame = stackTrace[i];
+            hash = hash * 31 + frame.getClassName().hashCode();
+            hash = hash * 31 + frame.getMethodName().hashCode();
+            hash = hash * 31 + frame.getLineNumber();
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Final avalanche step (MurmurHash3 fmix64).
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static String[] formatFrames(StackTraceElement[] stackTrace, int depth) {
+        String[] result = new String[depth];
+        for (int i = 0; i < depth; i++) {
+            result[i] = stackTrace[i].toString();
+        }
+        return result;
+    }
+
+    private static final class CachedTrace {
+        private final String hash;
+        private final String[] frames;
+        private final String rootCauseClass;
+        private final LongAdder count = new LongAdder();
+        private final AtomicLong windowStart = new AtomicLong(Long.MIN_VALUE);
+
+        private CachedTrace(long fingerprint, String[] frames, String rootCauseClass) {
+            this.hash = String.format("%016x", fingerprint);
+            this.frames = frames;
+            this.rootCauseClass = rootCauseClass;
+        }
+
+        private long record() {
+            count.increment();
+            return count.sum();
+        }
+
+        private boolean shouldWriteFull(long windowMs) {
+            if (windowMs <= 0) {
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            long start = windowStart.get();
+            return (start == Long.MIN_VALUE || now - start >= windowMs)
+                    && windowStart.compareAndSet(start, now);
+        }
+    }
+}
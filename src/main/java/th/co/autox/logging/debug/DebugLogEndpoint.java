@@ -0,0 +1,44 @@
+package th.co.autox.logging.debug;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for correlation-scoped DEBUG overrides.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/debuglog} - registered correlation IDs and their expiry</li>
+ *   <li>{@code POST /actuator/debuglog/{correlationId}} with {@code {"ttlSeconds": 300}} - enable DEBUG,
+ *       capped at {@code max-ttl-seconds}</li>
+ *   <li>{@code DELETE /actuator/debuglog/{correlationId}} - disable DEBUG</li>
+ * </ul>
+ */
+@Endpoint(id = "debuglog")
+public class DebugLogEndpoint {
+
+    @ReadOperation
+    public Map<String, String> registered() {
+        Map<String, String> registered = new LinkedHashMap<>();
+        DebugOverrides.registered().forEach((correlationId, expiry) ->
+                registered.put(correlationId, Instant.ofEpochMilli(expiry).toString()));
+        return registered;
+    }
+
+    @WriteOperation
+    public Map<String, String> register(@Selector String correlationId, long ttlSeconds) {
+        long expiry = DebugOverrides.register(correlationId, ttlSeconds);
+        return Map.of("correlation_id", correlationId, "expires_at", Instant.ofEpochMilli(expiry).toString());
+    }
+
+    @DeleteOperation
+    public void unregister(@Selector String correlationId) {
+        DebugOverrides.unregister(correlationId);
+    }
+}
@@ -0,0 +1,50 @@
+package th.co.autox.logging.debug;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+/**
+ * Logback {@link TurboFilter} that accepts DEBUG and higher events of requests with a
+ * {@link DebugOverrides} override, whatever the logger's level.
+ *
+ * <p>Without any override, {@link #decide} returns after one volatile read.</p>
+ *
+ * <pre>
+ * &lt;turboFilter class="th.co.autox.logging.debug.DebugOverrideTurboFilter"/&gt;
+ * </pre>
+ */
+public class DebugOverrideTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                              Object[] params, Throwable t) {
+        if (!DebugOverrides.isActive() || !isStarted()) {
+            return FilterReply.NEUTRAL;
+        }
+        if (level.isGreaterOrEqual(Level.DEBUG) && DebugOverrides.isEnabledForCurrentRequest()) {
+            return FilterReply.ACCEPT;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    /**
+     * Start the filter and add it to a logger context.
+     */
+    public void install(LoggerContext loggerContext) {
+        setContext(loggerContext);
+        start();
+        loggerContext.addTurboFilter(this);
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (getContext() instanceof LoggerContext loggerContext) {
+            loggerContext.getTurboFilterList().remove(this);
+        }
+    }
+}
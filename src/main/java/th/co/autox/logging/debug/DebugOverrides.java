@@ -0,0 +1,246 @@
+package th.co.autox.logging.debug;
+
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.context.CorrelationContext;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of per-request DEBUG overrides.
+ *
+ * <p>A request runs with DEBUG enabled when it carries a valid signed
+ * {@value #DEBUG_LOG_HEADER} header, or when its correlation ID was registered
+ * (for example through the {@code debuglog} actuator endpoint). Both expire.</p>
+ *
+ * <p>The header value is {@code <expiry>.<signature>}: the expiry in epoch seconds
+ * and the Base64url HMAC-SHA256 of {@code <correlationId>.<expiry>} under the shared
+ * secret, so a token only enables DEBUG for the correlation ID it was issued for.</p>
+ *
+ * <p>While no override exists, {@link #isEnabledForCurrentRequest()} costs one
+ * volatile read.</p>
+ */
+public final class DebugOverrides {
+
+    /**
+     * Header carrying the signed debug token.
+     */
+    public static final String DEBUG_LOG_HEADER = "X-Debug-Log";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Object LOCK = new Object();
+    private static final ThreadLocal<Long> REQUEST_EXPIRY = new ThreadLocal<>();
+    private static final Map<String, Long> REGISTERED = new ConcurrentHashMap<>();
+
+    private static volatile boolean active;
+    private static volatile byte[] secret;
+    private static volatile long maxTtlMs = TimeUnit.MINUTES.toMillis(15);
+    private static int requestsInFlight;
+
+    private DebugOverrides() {
+        // Utility class
+    }
+
+    /**
+     * Set the signing secret and maximum override lifetime.
+     * This is typically called by auto-configuration.
+     */
+    public static void configure(LoggingProperties.DebugOverrideConfig config) {
+        String configured = config.getSecret();
+        secret = configured != null && !configured.isEmpty()
+                ? configured.getBytes(StandardCharsets.UTF_8) : null;
+        maxTtlMs = TimeUnit.SECONDS.toMillis(Math.max(1, config.getMaxTtlSeconds()));
+    }
+
+    /**
+     * Whether any override exists (one volatile read).
+     */
+    public static boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Whether DEBUG is enabled for the request on the current thread.
+     */
+    public static boolean isEnabledForCurrentRequest() {
+        if (!active) {
+            return false;
+        }
+        return currentExpiry() > 0;
+    }
+
+    /**
+     * Start a request: enables DEBUG for it when the header value is a valid token
+     * for its correlation ID. Must be paired with {@link #endRequest()}.
+     */
+    public static boolean beginRequest(String correlationId, String headerValue) {
+        if (headerValue == null || correlationId == null) {
+            return false;
+        }
+        long expiryMs = verify(correlationId, headerValue);
+        if (expiryMs <= 0) {
+            return false;
+        }
+        REQUEST_EXPIRY.set(expiryMs);
+        synchronized (LOCK) {
+            requestsInFlight++;
+            active = true;
+        }
+        return true;
+    }
+
+    /**
+     * End the current thread's request.
+     */
+    public static void endRequest() {
+        if (REQUEST_EXPIRY.get() == null) {
+            return;
+        }
+        REQUEST_EXPIRY.remove();
+        synchronized (LOCK) {
+            requestsInFlight--;
+            updateActive();
+        }
+    }
+
+    /**
+     * Enable DEBUG for requests with the given correlation ID, capped at the maximum lifetime.
+     *
+     * @return expiry in epoch milliseconds
+     */
+    public static long register(String correlationId, long ttlSeconds) {
+        long ttlMs = Math.min(TimeUnit.SECONDS.toMillis(Math.max(1, ttlSeconds)), maxTtlMs);
+        long expiryMs = System.currentTimeMillis() + ttlMs;
+        synchronized (LOCK) {
+            REGISTERED.put(correlationId, expiryMs);
+            pruneExpired();
+            active = true;
+        }
+        return expiryMs;
+    }
+
+    /**
+     * Remove a registered correlation ID.
+     */
+    public static void unregister(String correlationId) {
+        synchronized (LOCK) {
+            REGISTERED.remove(correlationId);
+            updateActive();
+        }
+    }
+
+    /**
+     * Registered correlation IDs with their expiry in epoch milliseconds.
+     */
+    public static Map<String, Long> registered() {
+        synchronized (LOCK) {
+            pruneExpired();
+            updateActive();
+            return new TreeMap<>(REGISTERED);
+        }
+    }
+
+    /**
+     * Header value to send downstream so that the called service raises its level for
+     * the same request, or null when DEBUG is not enabled for this request or no secret
+     * is configured.
+     */
+    public static String propagationHeader() {
+        if (!active || secret == null || !CorrelationContext.hasCorrelationId()) {
+            return null;
+        }
+        long expiryMs = currentExpiry();
+        if (expiryMs <= 0) {
+            return null;
+        }
+        long expirySeconds = TimeUnit.MILLISECONDS.toSeconds(expiryMs);
+        return sign(CorrelationContext.getCorrelationId(), expirySeconds);
+    }
+
+    /**
+     * Create a token for a correlation ID, or null when no secret is configured.
+     */
+    public static String sign(String correlationId, long expiryEpochSeconds) {
+        byte[] key = secret;
+        if (key == null) {
+            return null;
+        }
+        return expiryEpochSeconds + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(hmac(key, correlationId + "." + expiryEpochSeconds));
+    }
+
+    private static long currentExpiry() {
+        long now = System.currentTimeMillis();
+        Long requestExpiry = REQUEST_EXPIRY.get();
+        if (requestExpiry != null && now < requestExpiry) {
+            return requestExpiry;
+        }
+        if (REGISTERED.isEmpty() || !CorrelationContext.hasCorrelationId()) {
+            return 0;
+        }
+        String correlationId = CorrelationContext.getCorrelationId();
+        Long registeredExpiry = REGISTERED.get(correlationId);
+        if (registeredExpiry == null) {
+            return 0;
+        }
+        if (now >= registeredExpiry) {
+            unregister(correlationId);
+            return 0;
+        }
+        return registeredExpiry;
+    }
+
+    private static long verify(String correlationId, String headerValue) {
+        byte[] key = secret;
+        int separator = headerValue.indexOf('.');
+        if (key == null || separator <= 0) {
+            return 0;
+        }
+        long expirySeconds;
+        try {
+            expirySeconds = Long.parseLong(headerValue.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        long expiryMs = TimeUnit.SECONDS.toMillis(expirySeconds);
+        long now = System.currentTimeMillis();
+        if (expiryMs <= now || expiryMs - now > maxTtlMs) {
+            return 0;
+        }
+        byte[] expected = hmac(key, correlationId + "." + expirySeconds);
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(headerValue.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+        return MessageDigest.isEqual(expected, actual) ? expiryMs : 0;
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static void pruneExpired() {
+        long now = System.currentTimeMillis();
+        REGISTERED.values().removeIf(expiry -> now >= expiry);
+    }
+
+    private static void updateActive() {
+        active = requestsInFlight > 0 || !REGISTERED.isEmpty();
+    }
+}
@@ -0,0 +1,224 @@
+package th.co.autox.logging.encoder;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import th.co.autox.logging.config.LoggingProperties;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generator that enforces {@code serialization-limits} on one log entry.
+ *
+ * <p>It truncates long strings and keeps an estimate of the bytes written. The
+ * serializers installed by {@link BoundedSerializerModifier} read its state to stop
+ * descending into objects past the maximum depth, after the byte budget is spent, or
+ * into an object that is already on the current path (a cycle), and to cut long
+ * collections. Truncation is marked inline, so the entry stays valid JSON.</p>
+ */
+public class BoundedJsonGenerator extends JsonGeneratorDelegate {
+
+    static final String DEPTH_LIMIT_MARKER = "[depth limit]";
+    static final String SIZE_LIMIT_MARKER = "[size limit]";
+    static final String CYCLE_MARKER = "[cycle]";
+    static final String LAZY_MARKER = "[lazy]";
+    private static final String TRUNCATED_SUFFIX = "... [TRUNCATED]";
+    private static final int NUMBER_BYTES = 8;
+
+    private final LoggingProperties.SerializationLimitsConfig limits;
+    private final List<Object> path = new ArrayList<>();
+    private long bytes;
+
+    public BoundedJsonGenerator(JsonGenerator delegate, LoggingProperties.SerializationLimitsConfig limits) {
+        // Not delegating writeObject/writeTree, so that values are serialized through this generator
+        super(delegate, false);
+        this.limits = limits;
+    }
+
+    /**
+     * Serialize a value to a JSON string within the limits.
+     */
+    public static String writeValueAsString(ObjectMapper mapper, Object value,
+                                            LoggingProperties.SerializationLimitsConfig limits) throws IOException {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator generator = new BoundedJsonGenerator(mapper.getFactory().createGenerator(out), limits)) {
+            mapper.writeValue(generator, value);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Convert a value to a tree within the limits.
+     */
+    public static JsonNode valueToTree(ObjectMapper mapper, Object value,
+                                       LoggingProperties.SerializationLimitsConfig limits) throws IOException {
+        try (TokenBuffer buffer = new TokenBuffer(mapper, false)) {
+            mapper.writeValue(new BoundedJsonGenerator(buffer, limits), value);
+            return mapper.readTree(buffer.asParser());
+        }
+    }
+
+    LoggingProperties.SerializationLimitsConfig limits() {
+        return limits;
+    }
+
+    /**
+     * Whether the byte budget of the entry is spent.
+     */
+    boolean isExhausted() {
+        return bytes >= limits.getMaxEntryBytes();
+    }
+
+    /**
+     * Whether a new object or array would be nested deeper than allowed. Depth counts the
+     * beans, collections, maps and arrays being written, as the write context of the
+     * underlying generator does not track it.
+     */
+    boolean isTooDeep() {
+        return path.size() >= limits.getMaxDepth();
+    }
+
+    /**
+     * Marker to write instead of a nested value, or null when it may be written.
+     */
+    String refuse(Object value) {
+        if (isExhausted()) {
+            return SIZE_LIMIT_MARKER;
+        }
+        if (isTooDeep()) {
+            return DEPTH_LIMIT_MARKER;
+        }
+        for (Object ancestor : path) {
+            if (ancestor == value) {
+                return CYCLE_MARKER;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write a truncation marker, which is never truncated itself.
+     */
+    void writeMarker(String marker) throws IOException {
+        bytes += marker.length() + 3;
+        super.writeString(marker);
+    }
+
+    void enter(Object value) {
+        path.add(value);
+    }
+
+    void exit() {
+        path.remove(path.size() - 1);
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        bytes += name.length() + 4;
+        super.writeFieldName(name);
+    }
+
+    @Override
+    public void writeFieldName(SerializableString name) throws IOException {
+        bytes += name.charLength() + 4;
+        super.writeFieldName(name);
+    }
+
+    @Override
+    public void writeString(String text) throws IOException {
+        if (text == null) {
+            writeNull();
+            return;
+        }
+        if (text.length() > limits.getMaxStringLength()) {
+            text = text.substring(0, limits.getMaxStringLength()) + TRUNCATED_SUFFIX;
+        }
+        bytes += text.length() + 3;
+        super.writeString(text);
+    }
+
+    @Override
+    public void writeString(char[] text, int offset, int len) throws IOException {
+        writeString(new String(text, offset, len));
+    }
+
+    @Override
+    public void writeString(SerializableString text) throws IOException {
+        writeString(text.getValue());
+    }
+
+    @Override
+    public void writeRawValue(String text) throws IOException {
+        bytes += text.length() + 1;
+        super.writeRawValue(text);
+    }
+
+    @Override
+    public void writeBinary(Base64Variant variant, byte[] data, int offset, int len) throws IOException {
+        bytes += len * 4L / 3 + 3;
+        super.writeBinary(variant, data, offset, len);
+    }
+
+    @Override
+    public void writeNumber(int value) throws IOException {
+        bytes += NUMBER_BYTES;
+        super.writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(long value) throws IOException {
+        bytes += NUMBER_BYTES;
+        super.writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(double value) throws IOException {
+        bytes += NUMBER_BYTES;
+        super.writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(float value) throws IOException {
+        bytes += NUMBER_BYTES;
+        super.writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(BigInteger value) throws IOException {
+        bytes += NUMBER_BYTES;
+        super.writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(BigDecimal value) throws IOException {
+        bytes += NUMBER_BYTES;
+        super.writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(String encodedValue) throws IOException {
+        bytes += encodedValue.length() + 1;
+        super.writeNumber(encodedValue);
+    }
+
+    @Override
+    public void writeBoolean(boolean state) throws IOException {
+        bytes += 6;
+        super.writeBoolean(state);
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        bytes += 5;
+        super.writeNull();
+    }
+}
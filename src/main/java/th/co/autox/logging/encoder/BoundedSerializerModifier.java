@@ -0,0 +1,341 @@
+package th.co.autox.logging.encoder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.type.ArrayType;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Jackson {@link BeanSerializerModifier} that applies the limits of a
+ * {@link BoundedJsonGenerator} while a log entry is serialized.
+ *
+ * <ul>
+ *   <li>Beans, collections, maps and object arrays nested past {@code max-depth},
+ *       written after the byte budget is spent, or already on the current path are
+ *       replaced with a {@code "[depth limit]"}, {@code "[size limit]"} or
+ *       {@code "[cycle]"} marker without being traversed.</li>
+ *   <li>Collections, maps and arrays are cut after {@code max-elements}, with a
+ *       {@code "[+N more]"} marker.</li>
+ *   <li>Hibernate proxies and uninitialized persistent collections are written as
+ *       {@code "[lazy]"}, so logging never triggers a lazy load.</li>
+ * </ul>
+ *
+ * <p>With any other generator the original serializers are used unchanged.</p>
+ */
+public class BoundedSerializerModifier extends BeanSerializerModifier {
+
+    private static final String HIBERNATE_PROXY = "org.hibernate.proxy.HibernateProxy";
+    private static final String PERSISTENT_COLLECTION = "org.hibernate.collection.spi.PersistentCollection";
+
+    private static final ClassValue<Method> WAS_INITIALIZED = new ClassValue<>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            if (!implementsInterface(type, PERSISTENT_COLLECTION)) {
+                return null;
+            }
+            try {
+                return type.getMethod("wasInitialized");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    /**
+     * Module that registers this modifier on a mapper.
+     */
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("BoundedSerializationModule");
+        module.setSerializerModifier(new BoundedSerializerModifier());
+        return module;
+    }
+
+    @Override
+    public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                              JsonSerializer<?> serializer) {
+        if (implementsInterface(beanDesc.getBeanClass(), HIBERNATE_PROXY)) {
+            return new LazySerializer();
+        }
+        if (serializer instanceof BeanSerializerBase || serializer instanceof ModelSerializers.ModelSerializer) {
+            return new BoundedBeanSerializer(serializer);
+        }
+        return serializer;
+    }
+
+    @Override
+    public JsonSerializer<?> modifyCollectionSerializer(SerializationConfig config, CollectionType valueType,
+                                                        BeanDescription beanDesc, JsonSerializer<?> serializer) {
+        return new BoundedCollectionSerializer(serializer);
+    }
+
+    @Override
+    public JsonSerializer<?> modifyMapSerializer(SerializationConfig config, MapType valueType,
+                                                 BeanDescription beanDesc, JsonSerializer<?> serializer) {
+        return new BoundedMapSerializer(serializer);
+    }
+
+    @Override
+    public JsonSerializer<?> modifyArraySerializer(SerializationConfig config, ArrayType valueType,
+                                                   BeanDescription beanDesc, JsonSerializer<?> serializer) {
+        if (valueType.getContentType().isPrimitive()) {
+            return serializer;
+        }
+        return new BoundedArraySerializer(serializer);
+    }
+
+    private static boolean implementsInterface(Class<?> type, String interfaceName) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Class<?> candidate : current.getInterfaces()) {
+                if (candidate.getName().equals(interfaceName) || implementsInterface(candidate, interfaceName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUninitialized(Object value) {
+        Method wasInitialized = WAS_INITIALIZED.get(value.getClass());
+        if (wasInitialized == null) {
+            return false;
+        }
+        try {
+            return !(Boolean) wasInitialized.invoke(value);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static String moreMarker(long remaining) {
+        return "[+" + remaining + " more]";
+    }
+
+    /**
+     * Base for serializers that wrap the serializer Jackson built, forwarding contextualization.
+     */
+    abstract static class BoundedSerializer extends StdSerializer<Object>
+            implements ContextualSerializer, ResolvableSerializer {
+
+        protected final JsonSerializer<Object> delegate;
+
+        @SuppressWarnings("unchecked")
+        BoundedSerializer(JsonSerializer<?> delegate) {
+            super(Object.class);
+            this.delegate = (JsonSerializer<Object>) delegate;
+        }
+
+        abstract BoundedSerializer withDelegate(JsonSerializer<?> delegate);
+
+        abstract void serializeBounded(Object value, BoundedJsonGenerator generator, SerializerProvider provider)
+                throws IOException;
+
+        @Override
+        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            if (!(generator instanceof BoundedJsonGenerator bounded)) {
+                delegate.serialize(value, generator, provider);
+                return;
+            }
+            String marker = bounded.refuse(value);
+            if (marker != null) {
+                bounded.writeMarker(marker);
+                return;
+            }
+            bounded.enter(value);
+            try {
+                serializeBounded(value, bounded, provider);
+            } finally {
+                bounded.exit();
+            }
+        }
+
+        @Override
+        public void serializeWithType(Object value, JsonGenerator generator, SerializerProvider provider,
+                                      TypeSerializer typeSerializer) throws IOException {
+            delegate.serializeWithType(value, generator, provider, typeSerializer);
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+                throws JsonMappingException {
+            if (delegate instanceof ContextualSerializer contextual) {
+                JsonSerializer<?> contextualized = contextual.createContextual(provider, property);
+                return contextualized == delegate ? this : withDelegate(contextualized);
+            }
+            return this;
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer resolvable) {
+                resolvable.resolve(provider);
+            }
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, Object value) {
+            return delegate.isEmpty(provider, value);
+        }
+
+        @Override
+        public boolean usesObjectId() {
+            return delegate.usesObjectId();
+        }
+
+        @Override
+        public JsonSerializer<Object> unwrappingSerializer(NameTransformer unwrapper) {
+            JsonSerializer<Object> unwrapping = delegate.unwrappingSerializer(unwrapper);
+            return unwrapping == delegate ? this : unwrapping;
+        }
+    }
+
+    static final class BoundedBeanSerializer extends BoundedSerializer {
+
+        BoundedBeanSerializer(JsonSerializer<?> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        BoundedSerializer withDelegate(JsonSerializer<?> delegate) {
+            return new BoundedBeanSerializer(delegate);
+        }
+
+        @Override
+        void serializeBounded(Object value, BoundedJsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            delegate.serialize(value, generator, provider);
+        }
+    }
+
+    static final class BoundedCollectionSerializer extends BoundedSerializer {
+
+        BoundedCollectionSerializer(JsonSerializer<?> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        BoundedSerializer withDelegate(JsonSerializer<?> delegate) {
+            return new BoundedCollectionSerializer(delegate);
+        }
+
+        @Override
+        void serializeBounded(Object value, BoundedJsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            if (isUninitialized(value)) {
+                generator.writeMarker(BoundedJsonGenerator.LAZY_MARKER);
+                return;
+            }
+            Collection<?> collection = (Collection<?>) value;
+            int maxElements = generator.limits().getMaxElements();
+            generator.writeStartArray(value);
+            int written = 0;
+            for (Iterator<?> it = collection.iterator(); it.hasNext() && written < maxElements
+                    && !generator.isExhausted(); written++) {
+                provider.defaultSerializeValue(it.next(), generator);
+            }
+            if (written < collection.size()) {
+                generator.writeMarker(moreMarker(collection.size() - written));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    static final class BoundedArraySerializer extends BoundedSerializer {
+
+        BoundedArraySerializer(JsonSerializer<?> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        BoundedSerializer withDelegate(JsonSerializer<?> delegate) {
+            return new BoundedArraySerializer(delegate);
+        }
+
+        @Override
+        void serializeBounded(Object value, BoundedJsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            Object[] array = (Object[]) value;
+            int maxElements = generator.limits().getMaxElements();
+            generator.writeStartArray(value, array.length);
+            int written = 0;
+            for (; written < array.length && written < maxElements && !generator.isExhausted(); written++) {
+                provider.defaultSerializeValue(array[written], generator);
+            }
+            if (written < array.length) {
+                generator.writeMarker(moreMarker(array.length - written));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    static final class BoundedMapSerializer extends BoundedSerializer {
+
+        BoundedMapSerializer(JsonSerializer<?> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        BoundedSerializer withDelegate(JsonSerializer<?> delegate) {
+            return new BoundedMapSerializer(delegate);
+        }
+
+        @Override
+        void serializeBounded(Object value, BoundedJsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            if (isUninitialized(value)) {
+                generator.writeMarker(BoundedJsonGenerator.LAZY_MARKER);
+                return;
+            }
+            Map<?, ?> map = (Map<?, ?>) value;
+            int maxElements = generator.limits().getMaxElements();
+            generator.writeStartObject(value);
+            int written = 0;
+            for (Iterator<? extends Map.Entry<?, ?>> it = map.entrySet().iterator();
+                 it.hasNext() && written < maxElements && !generator.isExhausted(); written++) {
+                Map.Entry<?, ?> entry = it.next();
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                provider.defaultSerializeValue(entry.getValue(), generator);
+            }
+            if (written < map.size()) {
+                generator.writeFieldName("...");
+                generator.writeMarker(moreMarker(map.size() - written));
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    static final class LazySerializer extends StdSerializer<Object> {
+
+        LazySerializer() {
+            super(Object.class);
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            if (generator instanceof BoundedJsonGenerator bounded) {
+                bounded.writeMarker(BoundedJsonGenerator.LAZY_MARKER);
+            } else {
+                generator.writeString(BoundedJsonGenerator.LAZY_MARKER);
+            }
+        }
+    }
+}
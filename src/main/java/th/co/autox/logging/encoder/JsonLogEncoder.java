@@ -2,31 +2,48 @@ package th.co.autox.logging.encoder;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.encoder.EncoderBase;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Marker;
 import th.co.autox.logging.context.CorrelationContext;
 import th.co.autox.logging.model.LogType;
+import th.co.autox.logging.shedding.LoadSheddingController;
 import lombok.Setter;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Custom Logback encoder that outputs logs in structured JSON format.
+ *
+ * <p>Fields are streamed straight into a {@link JsonGenerator} following the
+ * {@link OutputProfile} configured through {@code logging.structured.output},
+ * or the {@code outputMode}/{@code shortAliases} encoder settings when present.
+ * Exceptions are written with their frames, causes and suppressed exceptions,
+ * bounded by {@code maxThrowableDepth} and {@code maxStackFrames}.</p>
+ *
+ * <p>With {@code format} set to {@code smile} each event is written as a length-prefixed
+ * Smile record instead of a line; see {@link SmileLogFormat}.</p>
  */
 public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
 
     private static final DateTimeFormatter TIMESTAMP_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
 
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
     private static final Map<String, Integer> LEVEL_VALUES = Map.of(
             "TRACE", 5000,
             "DEBUG", 10000,
@@ -35,15 +52,114 @@ public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
             "ERROR", 40000
     );
 
-    private final ObjectMapper objectMapper;
+    private static final String FORMAT_SMILE = "smile";
+
+    private volatile ObjectMapper objectMapper;
+    private volatile ObjectMapper smileMapper;
 
     @Setter
     private String applicationName = "application";
 
-    public JsonLogEncoder() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    /**
+     * Output format: "json" for JSON lines or "smile" for length-prefixed Smile records.
+     */
+    @Setter
+    private String format = "json";
+
+    /**
+     * Output mode override ("standard" or "compact").
+     */
+    @Setter
+    private String outputMode;
+
+    /**
+     * Use the built-in short field aliases.
+     */
+    @Setter
+    private boolean shortAliases;
+
+    /**
+     * Maximum nesting of causes and suppressed exceptions.
+     */
+    @Setter
+    private int maxThrowableDepth = 5;
+
+    /**
+     * Maximum frames written per throwable.
+     */
+    @Setter
+    private int maxStackFrames = 50;
+
+    /**
+     * Omit frames that a cause shares with its enclosing throwable.
+     */
+    @Setter
+    private boolean elideCommonFrames = true;
+
+    /**
+     * Append jar and version to each frame (requires Logback packaging data).
+     */
+    @Setter
+    private boolean includePackagingData = false;
+
+    /**
+     * Write packaging data as "artifact:version" instead of the raw jar name.
+     */
+    @Setter
+    private boolean shortenPackagingData = true;
+
+    /**
+     * Maximum number of formatted frame strings to cache.
+     */
+    @Setter
+    private int frameCacheSize = 4096;
+
+    private OutputProfile localProfile;
+    private ThrowableProxyWriter throwableWriter = createThrowableWriter();
+
+    /**
+     * The mapper is built on the first encoded event, not when Logback is configured.
+     */
+    private ObjectMapper objectMapper() {
+        ObjectMapper mapper = objectMapper;
+        if (mapper == null) {
+            synchronized (this) {
+                mapper = objectMapper;
+                if (mapper == null) {
+                    mapper = new ObjectMapper();
+                    mapper.registerModule(new JavaTimeModule());
+                    mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                    objectMapper = mapper;
+                }
+            }
+        }
+        return mapper;
+    }
+
+    private ObjectMapper smileMapper() {
+        ObjectMapper mapper = smileMapper;
+        if (mapper == null) {
+            synchronized (this) {
+                mapper = smileMapper;
+                if (mapper == null) {
+                    mapper = new ObjectMapper(SmileLogFormat.newFactory());
+                    mapper.registerModule(new JavaTimeModule());
+                    mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                    smileMapper = mapper;
+                }
+            }
+        }
+        return mapper;
+    }
+
+    @Override
+    public void start() {
+        if (outputMode != null || shortAliases) {
+            localProfile = OutputProfile.of("compact".equalsIgnoreCase(outputMode),
+                    shortAliases ? OutputProfile.SHORT_ALIASES : Map.of(), Map.of());
+        }
+        throwableWriter = createThrowableWriter();
+        super.start();
     }
 
     @Override
@@ -53,63 +169,118 @@ public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
 
     @Override
     public byte[] encode(ILoggingEvent event) {
-        Map<String, Object> logEntry = new LinkedHashMap<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try {
+            encodeTo(event, out);
+        } catch (IOException e) {
+            return ("Failed to encode log: " + e.getMessage() + System.lineSeparator())
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode an event, including its line separator or record length, into a stream, so
+     * that callers can reuse their buffers. On failure part of the line may have been written.
+     */
+    public void encodeTo(ILoggingEvent event, OutputStream out) throws IOException {
+        boolean timed = LoadSheddingController.isMonitoring();
+        long start = timed ? System.nanoTime() : 0L;
 
-        // Timestamp
-        OffsetDateTime timestamp = OffsetDateTime.ofInstant(
-                Instant.ofEpochMilli(event.getTimeStamp()),
-                ZoneId.systemDefault()
-        );
-        logEntry.put("@timestamp", timestamp.format(TIMESTAMP_FORMATTER));
-        logEntry.put("@version", "1");
+        if (FORMAT_SMILE.equalsIgnoreCase(format)) {
+            // The record length goes first, so the record is built aside
+            ByteArrayOutputStream record = new ByteArrayOutputStream(384);
+            writeEvent(event, smileMapper(), record, true);
+            SmileLogFormat.writeFrame(out, record);
+        } else {
+            writeEvent(event, objectMapper(), out, false);
+            out.write(LINE_SEPARATOR);
+        }
+        if (timed) {
+            LoadSheddingController.recordEncodeNanos(System.nanoTime() - start);
+        }
+    }
 
-        // Application info
-        String appName = event.getMDCPropertyMap().getOrDefault("application", applicationName);
-        logEntry.put("application", appName);
+    private void writeEvent(ILoggingEvent event, ObjectMapper mapper, OutputStream out, boolean binary)
+            throws IOException {
+        OutputProfile profile = localProfile != null ? localProfile : OutputProfile.current();
+        Map<String, String> mdc = event.getMDCPropertyMap();
 
-        // Message
-        logEntry.put("message", event.getFormattedMessage());
+        // Type (from MDC or default to application)
+        String type = mdc.getOrDefault("type", LogType.APPLICATION.getValue());
 
-        // Logger info
-        logEntry.put("logger_name", event.getLoggerName());
-        logEntry.put("thread_name", event.getThreadName());
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            LogFieldWriter writer = new LogFieldWriter(generator, profile, type);
+            generator.writeStartObject();
 
-        // Level
-        String level = event.getLevel().toString();
-        logEntry.put("level", level);
-        logEntry.put("level_value", LEVEL_VALUES.getOrDefault(level, 20000));
+            // Timestamp
+            OffsetDateTime timestamp = OffsetDateTime.ofInstant(
+                    Instant.ofEpochMilli(event.getTimeStamp()),
+                    ZoneId.systemDefault()
+            );
+            writer.writeString("@timestamp", timestamp.format(TIMESTAMP_FORMATTER));
+            writer.writeDefaulted("@version", "1", "1");
 
-        // Type (from MDC or default to application)
-        String type = event.getMDCPropertyMap().getOrDefault("type", LogType.APPLICATION.getValue());
-        logEntry.put("type", type);
-
-        // Correlation ID
-        String correlationId = event.getMDCPropertyMap().get(CorrelationContext.CORRELATION_ID_MDC_KEY);
-        logEntry.put("correlation_id", correlationId != null ? correlationId : "");
-
-        // HTTP fields (empty for standard logs)
-        logEntry.put("method", "");
-        logEntry.put("uri", "");
-
-        // Request and response body (empty for standard encoder - these are set by AppLogger)
-        logEntry.put("request_body", Collections.emptyMap());
-        logEntry.put("response_body", Collections.emptyMap());
-
-        // Add exception info if present
-        if (event.getThrowableProxy() != null) {
-            Map<String, Object> error = new LinkedHashMap<>();
-            error.put("class", event.getThrowableProxy().getClassName());
-            error.put("message", event.getThrowableProxy().getMessage());
-            logEntry.put("error", error);
+            // Application info
+            writer.writeString("application", mdc.getOrDefault("application", applicationName));
+
+            // Message; in binary output a serialized entry is kept as a structure
+            if (binary && isEntry(event)) {
+                writer.writeParsed("message", event.getFormattedMessage(), objectMapper().getFactory());
+            } else {
+                writer.writeString("message", event.getFormattedMessage());
+            }
+
+            // Logger info
+            writer.writeString("logger_name", event.getLoggerName());
+            writer.writeString("thread_name", event.getThreadName());
+
+            // Level
+            String level = event.getLevel().toString();
+            writer.writeString("level", level);
+            writer.writeNumber("level_value", LEVEL_VALUES.getOrDefault(level, 20000));
+
+            writer.writeString("type", type);
+
+            // Correlation ID
+            String correlationId = mdc.get(CorrelationContext.CORRELATION_ID_MDC_KEY);
+            writer.writeString("correlation_id", correlationId != null ? correlationId : "");
+
+            // HTTP fields (empty for standard logs)
+            writer.writeString("method", "");
+            writer.writeString("uri", "");
+
+            // Request and response body (empty for standard encoder - these are set by AppLogger)
+            writer.writeObject("request_body", Collections.emptyMap());
+            writer.writeObject("response_body", Collections.emptyMap());
+
+            // Add exception info if present
+            if (event.getThrowableProxy() != null && writer.startObject("error")) {
+                throwableWriter.writeFields(generator, event.getThrowableProxy());
+                generator.writeEndObject();
+            }
+
+            generator.writeEndObject();
         }
+    }
 
-        try {
-            String json = objectMapper.writeValueAsString(logEntry);
-            return (json + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
-        } catch (JsonProcessingException e) {
-            return ("Failed to encode log: " + e.getMessage() + System.lineSeparator())
-                    .getBytes(StandardCharsets.UTF_8);
+    private static boolean isEntry(ILoggingEvent event) {
+        List<Marker> markers = event.getMarkerList();
+        if (markers == null) {
+            return false;
         }
+        for (Marker marker : markers) {
+            if (marker.contains(LogEntryWriter.ENTRY_MARKER_NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ThrowableProxyWriter createThrowableWriter() {
+        return new ThrowableProxyWriter(maxThrowableDepth, maxStackFrames, elideCommonFrames,
+                includePackagingData, shortenPackagingData, frameCacheSize);
     }
 
     @Override
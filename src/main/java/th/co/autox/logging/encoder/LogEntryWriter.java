@@ -0,0 +1,91 @@
+package th.co.autox.logging.encoder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import th.co.autox.logging.model.LogEntry;
+import th.co.autox.logging.suppression.RepeatSuppressor;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Streams a {@link LogEntry} to JSON according to an {@link OutputProfile}.
+ * Fields are written in the same order as the {@code @JsonPropertyOrder} of {@link LogEntry}.
+ */
+public final class LogEntryWriter {
+
+    /**
+     * Name of {@link #ENTRY}; markers rebuilt from a spool keep only their names.
+     */
+    public static final String ENTRY_MARKER_NAME = "LOG_ENTRY";
+
+    /**
+     * Marker for events whose message is a serialized entry. It refers to
+     * {@link RepeatSuppressor#BYPASS}, as entries are checked for repeats before they are written.
+     */
+    public static final Marker ENTRY = MarkerFactory.getDetachedMarker(ENTRY_MARKER_NAME);
+
+    static {
+        ENTRY.add(RepeatSuppressor.BYPASS);
+    }
+
+    private LogEntryWriter() {
+        // Utility class
+    }
+
+    /**
+     * Serialize an entry to a JSON string.
+     */
+    public static String writeAsString(LogEntry entry, ObjectMapper mapper, OutputProfile profile)
+            throws IOException {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            write(entry, generator, profile);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Write an entry to a generator. The generator must have an object codec for body values.
+     */
+    public static void write(LogEntry entry, JsonGenerator generator, OutputProfile profile)
+            throws IOException {
+        write(entry, generator, profile, null);
+    }
+
+    /**
+     * Write an entry to a generator from within a serializer, serializing body values
+     * with its provider.
+     */
+    public static void write(LogEntry entry, JsonGenerator generator, OutputProfile profile,
+                             SerializerProvider provider) throws IOException {
+        LogFieldWriter writer = new LogFieldWriter(generator, profile, entry.getType(), provider);
+
+        generator.writeStartObject();
+        writer.writeString("@timestamp", entry.getTimestamp());
+        writer.writeDefaulted("@version", entry.getVersion(), "1");
+        writer.writeString("application", entry.getApplication());
+        writer.writeString("message", entry.getMessage());
+        writer.writeString("logger_name", entry.getLoggerName());
+        writer.writeString("thread_name", entry.getThreadName());
+        writer.writeString("level", entry.getLevel());
+        writer.writeNumber("level_value", entry.getLevelValue());
+        writer.writeString("type", entry.getType());
+        writer.writeString("correlation_id", entry.getCorrelationId());
+        writer.writeString("method", entry.getMethod());
+        writer.writeString("uri", entry.getUri());
+        writer.writeNumber("status_code", entry.getStatusCode());
+        writer.writeNumber("duration_ms", entry.getDurationMs());
+        writer.writeString("remote_address", entry.getRemoteAddress());
+        writer.writeString("user_agent", entry.getUserAgent());
+        writer.writeObject("request_body", entry.getRequestBody());
+        writer.writeObject("response_body", entry.getResponseBody());
+        writer.writeObject("error", entry.getError());
+        writer.writeObject("timings", entry.getTimings());
+        writer.writeObject("extra", entry.getExtra());
+        generator.writeEndObject();
+    }
+}
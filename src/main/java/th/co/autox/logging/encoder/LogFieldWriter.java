@@ -0,0 +1,154 @@
+package th.co.autox.logging.encoder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import th.co.autox.logging.model.RequestInfo;
+import th.co.autox.logging.model.ResponseInfo;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes top-level log fields to a {@link JsonGenerator}, applying the
+ * aliases, field projection and empty-field rules of an {@link OutputProfile}.
+ * Null values are never written.
+ */
+public class LogFieldWriter {
+
+    private final JsonGenerator generator;
+    private final OutputProfile profile;
+    private final String type;
+    private final SerializerProvider provider;
+
+    public LogFieldWriter(JsonGenerator generator, OutputProfile profile, String type) {
+        this(generator, profile, type, null);
+    }
+
+    /**
+     * Create a writer that serializes object values with the provider of an ongoing
+     * serialization instead of starting a new one through the generator's codec.
+     */
+    public LogFieldWriter(JsonGenerator generator, OutputProfile profile, String type,
+                          SerializerProvider provider) {
+        this.generator = generator;
+        this.profile = profile;
+        this.type = type;
+        this.provider = provider;
+    }
+
+    /**
+     * Write a string field.
+     */
+    public void writeString(String field, String value) throws IOException {
+        if (value == null || !includes(field) || (profile.isCompact() && value.isEmpty())) {
+            return;
+        }
+        generator.writeStringField(profile.fieldName(field), value);
+    }
+
+    /**
+     * Write a string field holding a JSON object as that object instead of a string,
+     * streaming it from the text without building a tree. Text that does not start with an
+     * object is written as a string; malformed JSON fails the write.
+     */
+    public void writeParsed(String field, String json, JsonFactory jsonFactory) throws IOException {
+        if (json == null || !includes(field) || (profile.isCompact() && json.isEmpty())) {
+            return;
+        }
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                writeString(field, json);
+                return;
+            }
+            generator.writeFieldName(profile.fieldName(field));
+            generator.copyCurrentStructure(parser);
+        }
+    }
+
+    /**
+     * Write a string field that is omitted in compact mode when it holds its default value.
+     */
+    public void writeDefaulted(String field, String value, String defaultValue) throws IOException {
+        if (profile.isCompact() && defaultValue.equals(value)) {
+            return;
+        }
+        writeString(field, value);
+    }
+
+    /**
+     * Write a numeric field.
+     */
+    public void writeNumber(String field, Number value) throws IOException {
+        if (value == null || !includes(field)) {
+            return;
+        }
+        generator.writeFieldName(profile.fieldName(field));
+        if (value instanceof Integer intValue) {
+            generator.writeNumber(intValue);
+        } else if (value instanceof Long longValue) {
+            generator.writeNumber(longValue);
+        } else {
+            writeValue(value);
+        }
+    }
+
+    /**
+     * Write an object field using the generator's codec.
+     */
+    public void writeObject(String field, Object value) throws IOException {
+        if (value == null || !includes(field) || (profile.isCompact() && isEmpty(value))) {
+            return;
+        }
+        generator.writeFieldName(profile.fieldName(field));
+        writeValue(value);
+    }
+
+    /**
+     * Start a nested object field; returns false when the field is not written.
+     */
+    public boolean startObject(String field) throws IOException {
+        if (!includes(field)) {
+            return false;
+        }
+        generator.writeObjectFieldStart(profile.fieldName(field));
+        return true;
+    }
+
+    /**
+     * Check whether a top-level field is written for this entry's log type.
+     */
+    public boolean includes(String field) {
+        return profile.includes(type, field);
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (provider != null) {
+            provider.defaultSerializeValue(value, generator);
+        } else {
+            generator.writeObject(value);
+        }
+    }
+
+    private static boolean isEmpty(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return map.isEmpty();
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.isEmpty();
+        }
+        if (value instanceof CharSequence text) {
+            return text.isEmpty();
+        }
+        if (value instanceof RequestInfo requestInfo) {
+            return requestInfo.isEmpty();
+        }
+        if (value instanceof ResponseInfo responseInfo) {
+            return responseInfo.isEmpty();
+        }
+        return false;
+    }
+}
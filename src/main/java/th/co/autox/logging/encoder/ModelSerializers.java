@@ -0,0 +1,138 @@
+package th.co.autox.logging.encoder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import th.co.autox.logging.model.LogEntry;
+import th.co.autox.logging.model.RequestInfo;
+import th.co.autox.logging.model.ResponseInfo;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializers for the log models.
+ *
+ * <p>They write the same JSON as the annotated models (field names, order, nulls
+ * omitted) without bean introspection or reflective getter calls, which makes the
+ * first entry cheaper and keeps the models out of a native image's reflection
+ * configuration. Body and {@code extra} values are still serialized by the mapper.</p>
+ */
+public final class ModelSerializers {
+
+    private ModelSerializers() {
+        // Utility class
+    }
+
+    /**
+     * Module that registers the serializers on a mapper.
+     */
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("LogModelSerializers");
+        module.addSerializer(LogEntry.class, new LogEntrySerializer());
+        module.addSerializer(LogEntry.ErrorInfo.class, new ErrorInfoSerializer());
+        module.addSerializer(RequestInfo.class, new RequestInfoSerializer());
+        module.addSerializer(ResponseInfo.class, new ResponseInfoSerializer());
+        return module;
+    }
+
+    /**
+     * Base of the model serializers; {@link BoundedSerializerModifier} bounds them like beans.
+     */
+    abstract static class ModelSerializer<T> extends StdSerializer<T> {
+
+        ModelSerializer(Class<T> type) {
+            super(type);
+        }
+
+        static void writeString(JsonGenerator generator, String field, String value) throws IOException {
+            if (value != null) {
+                generator.writeStringField(field, value);
+            }
+        }
+
+        static void writeNumber(JsonGenerator generator, String field, Long value) throws IOException {
+            if (value != null) {
+                generator.writeNumberField(field, value);
+            }
+        }
+
+        static void writeValue(JsonGenerator generator, SerializerProvider provider, String field, Object value)
+                throws IOException {
+            if (value != null) {
+                provider.defaultSerializeField(field, value, generator);
+            }
+        }
+    }
+
+    static final class LogEntrySerializer extends ModelSerializer<LogEntry> {
+
+        LogEntrySerializer() {
+            super(LogEntry.class);
+        }
+
+        @Override
+        public void serialize(LogEntry entry, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            LogEntryWriter.write(entry, generator, OutputProfile.STANDARD, provider);
+        }
+    }
+
+    static final class ErrorInfoSerializer extends ModelSerializer<LogEntry.ErrorInfo> {
+
+        ErrorInfoSerializer() {
+            super(LogEntry.ErrorInfo.class);
+        }
+
+        @Override
+        public void serialize(LogEntry.ErrorInfo error, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(error);
+            writeString(generator, "class", error.getExceptionClass());
+            writeString(generator, "message", error.getMessage());
+            writeValue(generator, provider, "stack_trace", error.getStackTrace());
+            writeString(generator, "root_cause", error.getRootCause());
+            writeString(generator, "stack_hash", error.getStackHash());
+            writeNumber(generator, "stack_count", error.getStackCount());
+            generator.writeEndObject();
+        }
+    }
+
+    static final class RequestInfoSerializer extends ModelSerializer<RequestInfo> {
+
+        RequestInfoSerializer() {
+            super(RequestInfo.class);
+        }
+
+        @Override
+        public void serialize(RequestInfo request, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(request);
+            writeValue(generator, provider, "headers", request.getHeaders());
+            writeValue(generator, provider, "query_params", request.getQueryParams());
+            writeValue(generator, provider, "path_params", request.getPathParams());
+            writeValue(generator, provider, "body", request.getBody());
+            writeString(generator, "content_type", request.getContentType());
+            writeNumber(generator, "content_length", request.getContentLength());
+            generator.writeEndObject();
+        }
+    }
+
+    static final class ResponseInfoSerializer extends ModelSerializer<ResponseInfo> {
+
+        ResponseInfoSerializer() {
+            super(ResponseInfo.class);
+        }
+
+        @Override
+        public void serialize(ResponseInfo response, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(response);
+            writeValue(generator, provider, "headers", response.getHeaders());
+            writeValue(generator, provider, "body", response.getBody());
+            writeString(generator, "content_type", response.getContentType());
+            writeNumber(generator, "content_length", response.getContentLength());
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package th.co.autox.logging.encoder;
+
+import th.co.autox.logging.config.LoggingProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes how log entries are written: standard or compact mode,
+ * field aliases and the top-level fields written per log type.
+ *
+ * <p>The profile configured by auto-configuration is published through
+ * {@link #current()} so that encoders created by Logback pick it up.</p>
+ */
+public final class OutputProfile {
+
+    /**
+     * Profile that writes every field under its canonical name.
+     */
+    public static final OutputProfile STANDARD = new OutputProfile(false, Map.of(), Map.of());
+
+    /**
+     * Built-in short aliases enabled by {@code logging.structured.output.short-aliases}.
+     */
+    public static final Map<String, String> SHORT_ALIASES = Map.ofEntries(
+            Map.entry("@timestamp", "ts"),
+            Map.entry("@version", "v"),
+            Map.entry("application", "app"),
+            Map.entry("message", "msg"),
+            Map.entry("logger_name", "logger"),
+            Map.entry("thread_name", "thread"),
+            Map.entry("level", "lvl"),
+            Map.entry("level_value", "lvl_val"),
+            Map.entry("correlation_id", "cid"),
+            Map.entry("status_code", "status"),
+            Map.entry("duration_ms", "dur"),
+            Map.entry("remote_address", "ip"),
+            Map.entry("user_agent", "ua"),
+            Map.entry("request_body", "req"),
+            Map.entry("response_body", "res"),
+            Map.entry("error", "err")
+    );
+
+    private static volatile OutputProfile current = STANDARD;
+
+    private final boolean compact;
+    private final Map<String, String> aliases;
+    private final Map<String, Set<String>> projections;
+
+    private OutputProfile(boolean compact, Map<String, String> aliases,
+                          Map<String, Set<String>> projections) {
+        this.compact = compact;
+        this.aliases = aliases;
+        this.projections = projections;
+    }
+
+    /**
+     * Build a profile from configuration properties.
+     */
+    public static OutputProfile from(LoggingProperties.OutputConfig config) {
+        if (config == null) {
+            return STANDARD;
+        }
+        Map<String, String> aliases = new HashMap<>();
+        if (config.isShortAliases()) {
+            aliases.putAll(SHORT_ALIASES);
+        }
+        aliases.putAll(config.getAliases());
+
+        Map<String, Set<String>> projections = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : config.getFields().entrySet()) {
+            projections.put(entry.getKey(), Set.copyOf(entry.getValue()));
+        }
+        return of(config.getMode() == LoggingProperties.OutputMode.COMPACT, aliases, projections);
+    }
+
+    /**
+     * Build a profile from explicit values.
+     */
+    public static OutputProfile of(boolean compact, Map<String, String> aliases,
+                                   Map<String, Set<String>> projections) {
+        return new OutputProfile(compact, Map.copyOf(aliases), Map.copyOf(projections));
+    }
+
+    /**
+     * Get the globally configured profile.
+     */
+    public static OutputProfile current() {
+        return current;
+    }
+
+    /**
+     * Set the globally configured profile.
+     * This is typically called by auto-configuration.
+     */
+    public static void configure(OutputProfile profile) {
+        current = profile != null ? profile : STANDARD;
+    }
+
+    /**
+     * Whether empty and default fields are omitted.
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Whether this profile writes exactly what Jackson writes for a {@code LogEntry}.
+     */
+    public boolean isDefault() {
+        return !compact && aliases.isEmpty() && projections.isEmpty();
+    }
+
+    /**
+     * Get the output name of a canonical field.
+     */
+    public String fieldName(String field) {
+        return aliases.getOrDefault(field, field);
+    }
+
+    /**
+     * Check whether a top-level field is written for the given log type.
+     */
+    public boolean includes(String type, String field) {
+        Set<String> fields = type != null ? projections.get(type) : null;
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Get the effective field aliases (canonical name to output name).
+     */
+    public Map<String, String> getAliases() {
+        return aliases;
+    }
+}
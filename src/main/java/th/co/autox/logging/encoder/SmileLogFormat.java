@@ -0,0 +1,163 @@
+package th.co.autox.logging.encoder;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Binary log records: one Smile document per event, each preceded by its length as a
+ * 4-byte big-endian integer instead of followed by a line separator.
+ *
+ * <p>Smile back-references repeated field names and short string values within a record,
+ * such as the keys and values an {@link th.co.autox.logging.core.AppLogger} entry repeats
+ * from the event around it. Every record is self-contained, so files can be rolled and
+ * split at any record. The message of an {@code AppLogger} entry is stored as a structure
+ * instead of a string holding JSON; {@link #decode} turns it back into the string, so
+ * decoded records are the JSON lines {@link JsonLogEncoder} writes in its default format.</p>
+ *
+ * <pre>
+ * java -cp app.jar th.co.autox.logging.encoder.SmileLogFormat logs/app.smile.log &gt; app.json.log
+ * </pre>
+ */
+public final class SmileLogFormat {
+
+    /**
+     * Largest record accepted when decoding; longer lengths mean the input is not framed
+     * Smile or is corrupt.
+     */
+    static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private static final String USAGE = "Usage: SmileLogFormat [--message-field=<name>] [<file>|-]...";
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private static final SmileFactory SMILE_FACTORY = newFactory();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private SmileLogFormat() {
+        // Utility class
+    }
+
+    /**
+     * Create a Smile factory writing back-references for repeated names and string values.
+     */
+    public static SmileFactory newFactory() {
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+
+    /**
+     * Write one record with its length prefix.
+     */
+    public static void writeFrame(OutputStream out, ByteArrayOutputStream record) throws IOException {
+        int length = record.size();
+        out.write(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        record.writeTo(out);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Set<String> messageFields = Set.of("message", OutputProfile.SHORT_ALIASES.get("message"));
+        List<String> inputs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--message-field=")) {
+                messageFields = Set.of(arg.substring("--message-field=".length()));
+            } else if (arg.startsWith("--")) {
+                System.err.println(USAGE);
+                System.exit(2);
+            } else {
+                inputs.add(arg);
+            }
+        }
+        if (inputs.isEmpty()) {
+            inputs.add("-");
+        }
+        OutputStream out = new BufferedOutputStream(System.out, 65536);
+        long records = 0;
+        for (String input : inputs) {
+            try (InputStream in = "-".equals(input) ? System.in : Files.newInputStream(Path.of(input))) {
+                records += decode(in, out, messageFields);
+            }
+        }
+        out.flush();
+        System.err.printf("%d records%n", records);
+    }
+
+    /**
+     * Decode framed Smile records into JSON lines, one record at a time.
+     *
+     * @param messageFields top-level fields whose structured value is written back as a
+     *                      string of JSON
+     * @return the number of records decoded
+     */
+    public static long decode(InputStream in, OutputStream out, Set<String> messageFields) throws IOException {
+        DataInputStream frames = new DataInputStream(new BufferedInputStream(in, 65536));
+        byte[] record = new byte[4096];
+        long count = 0;
+        while (true) {
+            int length;
+            try {
+                length = frames.readInt();
+            } catch (EOFException e) {
+                return count;
+            }
+            if (length < 0 || length > MAX_RECORD_BYTES) {
+                throw new IOException("Invalid record length " + length + " after " + count + " records");
+            }
+            if (length > record.length) {
+                record = new byte[Math.max(length, record.length * 2)];
+            }
+            frames.readFully(record, 0, length);
+            try (JsonParser parser = SMILE_FACTORY.createParser(record, 0, length);
+                 JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Record " + count + " is not an object");
+                }
+                copyRecord(parser, generator, messageFields);
+            }
+            out.write(LINE_SEPARATOR);
+            count++;
+        }
+    }
+
+    private static void copyRecord(JsonParser parser, JsonGenerator generator, Set<String> messageFields)
+            throws IOException {
+        generator.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            generator.writeFieldName(field);
+            if (value == JsonToken.START_OBJECT && messageFields.contains(field)) {
+                StringWriter json = new StringWriter(256);
+                try (JsonGenerator nested = JSON_FACTORY.createGenerator(json)) {
+                    nested.copyCurrentStructure(parser);
+                }
+                generator.writeString(json.toString());
+            } else {
+                generator.copyCurrentStructure(parser);
+            }
+        }
+        generator.writeEndObject();
+    }
+}
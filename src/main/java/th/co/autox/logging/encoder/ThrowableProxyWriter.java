@@ -0,0 +1,140 @@
+package th.co.autox.logging.encoder;
+
+import ch.qos.logback.classic.spi.ClassPackagingData;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Streams an {@link IThrowableProxy} chain into a {@link JsonGenerator}.
+ *
+ * <p>Causes and suppressed exceptions are written as nested objects up to a
+ * maximum depth, frames are limited per throwable, and frames shared with the
+ * enclosing trace are elided the same way Logback's pattern layout does.
+ * Formatted frame strings are kept in a bounded cache keyed by
+ * {@link StackTraceElement}, so hot frames are formatted once.</p>
+ */
+public class ThrowableProxyWriter {
+
+    private final int maxDepth;
+    private final int maxFrames;
+    private final boolean elideCommonFrames;
+    private final boolean includePackagingData;
+    private final boolean shortenPackagingData;
+    private final int frameCacheSize;
+    private final ConcurrentMap<StackTraceElement, String> frameCache = new ConcurrentHashMap<>();
+
+    public ThrowableProxyWriter(int maxDepth, int maxFrames, boolean elideCommonFrames,
+                                boolean includePackagingData, boolean shortenPackagingData,
+                                int frameCacheSize) {
+        this.maxDepth = Math.max(1, maxDepth);
+        this.maxFrames = Math.max(0, maxFrames);
+        this.elideCommonFrames = elideCommonFrames;
+        this.includePackagingData = includePackagingData;
+        this.shortenPackagingData = shortenPackagingData;
+        this.frameCacheSize = Math.max(0, frameCacheSize);
+    }
+
+    /**
+     * Write the fields of a throwable into the currently open JSON object.
+     */
+    public void writeFields(JsonGenerator generator, IThrowableProxy proxy) throws IOException {
+        writeFields(generator, proxy, 1);
+    }
+
+    private void writeFields(JsonGenerator generator, IThrowableProxy proxy, int depth) throws IOException {
+        generator.writeStringField("class", proxy.getClassName());
+        generator.writeStringField("message", proxy.getMessage());
+        writeFrames(generator, proxy);
+
+        IThrowableProxy[] suppressed = proxy.getSuppressed();
+        IThrowableProxy cause = proxy.getCause();
+        if (depth >= maxDepth) {
+            if (cause != null || (suppressed != null && suppressed.length > 0)) {
+                generator.writeBooleanField("truncated", true);
+            }
+            return;
+        }
+
+        if (suppressed != null && suppressed.length > 0) {
+            generator.writeArrayFieldStart("suppressed");
+            for (IThrowableProxy item : suppressed) {
+                generator.writeStartObject();
+                writeFields(generator, item, depth + 1);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        if (cause != null) {
+            generator.writeObjectFieldStart("cause");
+            writeFields(generator, cause, depth + 1);
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeFrames(JsonGenerator generator, IThrowableProxy proxy) throws IOException {
+        StackTraceElementProxy[] frames = proxy.getStackTraceElementProxyArray();
+        if (frames == null || frames.length == 0 || maxFrames == 0) {
+            return;
+        }
+
+        int commonFrames = elideCommonFrames ? proxy.getCommonFrames() : 0;
+        int available = Math.max(0, frames.length - commonFrames);
+        int written = Math.min(available, maxFrames);
+
+        generator.writeArrayFieldStart("stack_trace");
+        for (int i = 0; i < written; i++) {
+            generator.writeString(formatFrame(frames[i]));
+        }
+        generator.writeEndArray();
+
+        if (available > written) {
+            generator.writeNumberField("frames_omitted", available - written);
+        }
+        if (commonFrames > 0) {
+            generator.writeNumberField("common_frames_omitted", commonFrames);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private String formatFrame(StackTraceElementProxy frame) {
+        StackTraceElement element = frame.getStackTraceElement();
+        String cached = frameCache.get(element);
+        if (cached != null) {
+            return cached;
+        }
+
+        String formatted = element.toString();
+        ClassPackagingData packagingData = frame.getClassPackagingData();
+        if (includePackagingData && packagingData != null) {
+            formatted = formatted + " " + formatPackagingData(packagingData);
+        }
+
+        if (frameCache.size() >= frameCacheSize) {
+            frameCache.clear();
+        }
+        frameCache.put(element, formatted);
+        return formatted;
+    }
+
+    @SuppressWarnings("deprecation")
+    private String formatPackagingData(ClassPackagingData packagingData) {
+        String location = packagingData.getCodeLocation();
+        String version = packagingData.getVersion();
+        if (shortenPackagingData && location != null) {
+            if (location.endsWith(".jar")) {
+                location = location.substring(0, location.length() - 4);
+            }
+            if (version != null && location.endsWith("-" + version)) {
+                location = location.substring(0, location.length() - version.length() - 1);
+            }
+        }
+        String prefix = packagingData.isExact() ? "[" : "~[";
+        return prefix + location + ":" + version + "]";
+    }
+}
@@ -2,10 +2,17 @@ package th.co.autox.logging.filter;
 
 import th.co.autox.logging.config.LoggingProperties;
 import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.context.RequestTimings;
 import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.debug.DebugOverrides;
 import th.co.autox.logging.core.AppLoggerFactory;
+import th.co.autox.logging.metrics.LatencyMetrics;
+import th.co.autox.logging.metrics.TrafficSketches;
 import th.co.autox.logging.model.RequestInfo;
 import th.co.autox.logging.model.ResponseInfo;
+import th.co.autox.logging.shedding.LoadSheddingController;
+import th.co.autox.logging.shedding.SheddingLevel;
+import th.co.autox.logging.util.BodyFormatter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,7 +25,6 @@ import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -33,10 +39,12 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
     private final AppLogger log;
     private final LoggingProperties properties;
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final BodyFormatter bodyFormatter;
 
     public RequestLoggingFilter(AppLoggerFactory loggerFactory, LoggingProperties properties) {
         this.log = loggerFactory.getLogger(RequestLoggingFilter.class);
         this.properties = properties;
+        this.bodyFormatter = new BodyFormatter(properties);
     }
 
     @Override
@@ -54,6 +62,9 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         // Add correlation ID to response header
         response.setHeader(CorrelationContext.CORRELATION_ID_HEADER, correlationId);
 
+        // Enable DEBUG for this request when it carries a valid signed token
+        DebugOverrides.beginRequest(correlationId, request.getHeader(DebugOverrides.DEBUG_LOG_HEADER));
+
         // Check if request should be logged
         if (!shouldLog(request)) {
             try {
@@ -64,31 +75,68 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             return;
         }
 
-        // Wrap request and response to capture body
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        // Read the load shedding level once per request
+        SheddingLevel shedding = LoadSheddingController.currentLevel();
+        boolean captureRequestBody = properties.getRequest().isLogBody() && !shedding.dropsRequestBody();
+        boolean captureResponseBody = properties.getRequest().isLogResponseBody() && !shedding.dropsResponseBody();
+        boolean logInfo = !shedding.samplesRequestInfo() || LoadSheddingController.sample();
+
+        // Wrap request and response only when their body is captured
+        HttpServletRequest requestToUse = captureRequestBody
+                ? new ContentCachingRequestWrapper(request) : request;
+        ContentCachingResponseWrapper wrappedResponse = captureResponseBody
+                ? new ContentCachingResponseWrapper(response) : null;
+        HttpServletResponse responseToUse = wrappedResponse != null ? wrappedResponse : response;
 
+        RequestTimings timings = properties.getRequest().isLogTimings() ? RequestTimings.begin() : null;
         long startTime = System.currentTimeMillis();
+        boolean completed = false;
 
         try {
             // Log incoming request
-            logIncomingRequest(wrappedRequest);
+            if (logInfo) {
+                logIncomingRequest(requestToUse);
+            }
 
             // Process request
-            filterChain.doFilter(wrappedRequest, wrappedResponse);
+            filterChain.doFilter(requestToUse, responseToUse);
 
-            // Log response
+            // Log response (errors are always logged, even when sampled out)
             long duration = System.currentTimeMillis() - startTime;
-            logIncomingResponse(wrappedRequest, wrappedResponse, duration);
+            completed = true;
+            recordMetrics(requestToUse, responseToUse.getStatus(), duration);
+            if (logInfo || responseToUse.getStatus() >= 400) {
+                logIncomingResponse(requestToUse, responseToUse, duration, timings);
+            }
 
         } finally {
+            if (!completed) {
+                recordMetrics(requestToUse, 500, System.currentTimeMillis() - startTime);
+            }
             // Copy response body to actual response
-            wrappedResponse.copyBodyToResponse();
+            if (wrappedResponse != null) {
+                wrappedResponse.copyBodyToResponse();
+            }
             cleanup();
         }
     }
 
-    private void logIncomingRequest(ContentCachingRequestWrapper request) {
+    private void recordMetrics(HttpServletRequest request, int statusCode, long duration) {
+        Object route = request.getAttribute(LatencyMetrics.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        LatencyMetrics metrics = LatencyMetrics.current();
+        if (metrics != null) {
+            metrics.recordIncoming(request.getMethod(), route != null ? route.toString() : null,
+                    statusCode, duration);
+        }
+        TrafficSketches sketches = TrafficSketches.current();
+        if (sketches != null) {
+            sketches.record(request.getRemoteAddr(),
+                    request.getMethod() + " " + (route != null ? route : request.getRequestURI()),
+                    request.getHeader("User-Agent"));
+        }
+    }
+
+    private void logIncomingRequest(HttpServletRequest request) {
         String method = request.getMethod();
         String uri = request.getRequestURI();
         String queryString = request.getQueryString();
@@ -103,11 +151,9 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             requestInfoBuilder.headers(maskHeaders(getHeaders(request)));
         }
 
-        if (properties.getRequest().isLogBody()) {
-            String body = getRequestBody(request);
-            if (body != null && !body.isEmpty()) {
-                requestInfoBuilder.body(truncateBody(body));
-            }
+        if (request instanceof ContentCachingRequestWrapper wrappedRequest) {
+            requestInfoBuilder.body(bodyFormatter.format(wrappedRequest.getContentAsByteArray(),
+                    request.getContentType()));
         }
 
         requestInfoBuilder.contentType(request.getContentType());
@@ -119,9 +165,10 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
                 request.getRemoteAddr(), request.getHeader("User-Agent"));
     }
 
-    private void logIncomingResponse(ContentCachingRequestWrapper request,
-                                     ContentCachingResponseWrapper response,
-                                     long duration) {
+    private void logIncomingResponse(HttpServletRequest request,
+                                     HttpServletResponse response,
+                                     long duration,
+                                     RequestTimings timings) {
         String method = request.getMethod();
         String uri = request.getRequestURI();
         int statusCode = response.getStatus();
@@ -132,19 +179,17 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             responseInfoBuilder.headers(getResponseHeaders(response));
         }
 
-        if (properties.getRequest().isLogResponseBody()) {
-            String body = getResponseBody(response);
-            if (body != null && !body.isEmpty()) {
-                responseInfoBuilder.body(truncateBody(body));
+        if (response instanceof ContentCachingResponseWrapper wrappedResponse) {
+            responseInfoBuilder.body(bodyFormatter.format(wrappedResponse.getContentAsByteArray(),
+                    response.getContentType()));
+            if (wrappedResponse.getContentSize() > 0) {
+                responseInfoBuilder.contentLength((long) wrappedResponse.getContentSize());
             }
         }
 
         responseInfoBuilder.contentType(response.getContentType());
-        if (response.getContentSize() > 0) {
-            responseInfoBuilder.contentLength((long) response.getContentSize());
-        }
 
-        log.logIncomingResponse(method, uri, statusCode, duration, responseInfoBuilder.build());
+        log.logIncomingResponse(method, uri, statusCode, duration, responseInfoBuilder.build(), timings);
     }
 
     private boolean shouldLog(HttpServletRequest request) {
@@ -181,7 +226,7 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         return headers;
     }
 
-    private Map<String, String> getResponseHeaders(ContentCachingResponseWrapper response) {
+    private Map<String, String> getResponseHeaders(HttpServletResponse response) {
         Map<String, String> headers = new HashMap<>();
         response.getHeaderNames()
                 .forEach(name -> headers.put(name, response.getHeader(name)));
@@ -201,32 +246,10 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
                 .anyMatch(masked -> masked.equalsIgnoreCase(headerName));
     }
 
-    private String getRequestBody(ContentCachingRequestWrapper request) {
-        byte[] content = request.getContentAsByteArray();
-        if (content.length > 0) {
-            return new String(content, StandardCharsets.UTF_8);
-        }
-        return null;
-    }
-
-    private String getResponseBody(ContentCachingResponseWrapper response) {
-        byte[] content = response.getContentAsByteArray();
-        if (content.length > 0) {
-            return new String(content, StandardCharsets.UTF_8);
-        }
-        return null;
-    }
-
-    private String truncateBody(String body) {
-        int maxSize = properties.getRequest().getMaxBodySize();
-        if (body.length() > maxSize) {
-            return body.substring(0, maxSize) + "... [TRUNCATED]";
-        }
-        return body;
-    }
-
     private void cleanup() {
+        DebugOverrides.endRequest();
         CorrelationContext.clear();
+        RequestTimings.clear();
         MDC.clear();
     }
 
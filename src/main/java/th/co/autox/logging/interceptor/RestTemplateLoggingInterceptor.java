@@ -2,11 +2,16 @@ package th.co.autox.logging.interceptor;
 
 import th.co.autox.logging.config.LoggingProperties;
 import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.context.RequestTimings;
 import th.co.autox.logging.core.AppLogger;
 import th.co.autox.logging.core.AppLoggerFactory;
+import th.co.autox.logging.debug.DebugOverrides;
+import th.co.autox.logging.metrics.LatencyMetrics;
 import th.co.autox.logging.model.RequestInfo;
 import th.co.autox.logging.model.ResponseInfo;
+import th.co.autox.logging.util.BodyFormatter;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
@@ -14,7 +19,6 @@ import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.util.StreamUtils;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,10 +29,12 @@ public class RestTemplateLoggingInterceptor implements ClientHttpRequestIntercep
 
     private final AppLogger log;
     private final LoggingProperties properties;
+    private final BodyFormatter bodyFormatter;
 
     public RestTemplateLoggingInterceptor(AppLoggerFactory loggerFactory, LoggingProperties properties) {
         this.log = loggerFactory.getLogger(RestTemplateLoggingInterceptor.class);
         this.properties = properties;
+        this.bodyFormatter = new BodyFormatter(properties);
     }
 
     @Override
@@ -38,33 +44,62 @@ public class RestTemplateLoggingInterceptor implements ClientHttpRequestIntercep
         request.getHeaders().add(CorrelationContext.CORRELATION_ID_HEADER,
                 CorrelationContext.getCorrelationId());
 
+        // Propagate a per-request DEBUG override
+        String debugToken = DebugOverrides.propagationHeader();
+        if (debugToken != null) {
+            request.getHeaders().set(DebugOverrides.DEBUG_LOG_HEADER, debugToken);
+        }
+
         if (!properties.isEnabled() || !properties.getRequest().isEnabled()) {
             return execution.execute(request, body);
         }
 
+        RequestTimings timings = RequestTimings.current();
+        long startNanos = System.nanoTime();
         long startTime = System.currentTimeMillis();
         String method = request.getMethod().name();
         String uri = request.getURI().toString();
 
         // Log outgoing request
-        logOutgoingRequest(method, uri, body);
+        logOutgoingRequest(method, uri, request, body);
 
         // Execute request
-        ClientHttpResponse response = execution.execute(request, body);
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            recordLatency(method, uri, 0, System.currentTimeMillis() - startTime);
+            recordDownstream(timings, startNanos);
+            throw e;
+        }
 
         // Log response
         long duration = System.currentTimeMillis() - startTime;
+        recordLatency(method, uri, response.getStatusCode().value(), duration);
+        recordDownstream(timings, startNanos);
         logOutgoingResponse(method, uri, response, duration);
 
         return response;
     }
 
-    private void logOutgoingRequest(String method, String uri, byte[] body) {
+    private void recordLatency(String method, String uri, int statusCode, long duration) {
+        LatencyMetrics metrics = LatencyMetrics.current();
+        if (metrics != null) {
+            metrics.recordOutgoing(method, uri, statusCode, duration);
+        }
+    }
+
+    private void recordDownstream(RequestTimings timings, long startNanos) {
+        if (timings != null) {
+            timings.recordDownstream(System.nanoTime() - startNanos);
+        }
+    }
+
+    private void logOutgoingRequest(String method, String uri, HttpRequest request, byte[] body) {
         RequestInfo.RequestInfoBuilder requestInfoBuilder = RequestInfo.builder();
 
         if (properties.getRequest().isLogBody() && body != null && body.length > 0) {
-            String bodyStr = new String(body, StandardCharsets.UTF_8);
-            requestInfoBuilder.body(truncateBody(bodyStr));
+            requestInfoBuilder.body(bodyFormatter.format(body, contentTypeOf(request.getHeaders())));
             requestInfoBuilder.contentLength((long) body.length);
         }
 
@@ -76,8 +111,8 @@ public class RestTemplateLoggingInterceptor implements ClientHttpRequestIntercep
             int statusCode = response.getStatusCode().value();
 
             ResponseInfo.ResponseInfoBuilder responseInfoBuilder = ResponseInfo.builder();
-            responseInfoBuilder.contentType(response.getHeaders().getContentType() != null
-                    ? response.getHeaders().getContentType().toString() : null);
+            String contentType = contentTypeOf(response.getHeaders());
+            responseInfoBuilder.contentType(contentType);
 
             if (properties.getRequest().isLogHeaders()) {
                 Map<String, String> headers = new HashMap<>();
@@ -87,10 +122,10 @@ public class RestTemplateLoggingInterceptor implements ClientHttpRequestIntercep
             }
 
             if (properties.getRequest().isLogResponseBody()) {
-                String bodyStr = StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
-                if (!bodyStr.isEmpty()) {
-                    responseInfoBuilder.body(truncateBody(bodyStr));
-                    responseInfoBuilder.contentLength((long) bodyStr.length());
+                byte[] content = StreamUtils.copyToByteArray(response.getBody());
+                if (content.length > 0) {
+                    responseInfoBuilder.body(bodyFormatter.format(content, contentType));
+                    responseInfoBuilder.contentLength((long) content.length);
                 }
             }
 
@@ -101,12 +136,7 @@ public class RestTemplateLoggingInterceptor implements ClientHttpRequestIntercep
         }
     }
 
-    private String truncateBody(String body) {
-        int maxSize = properties.getRequest().getMaxBodySize();
-        if (body.length() > maxSize) {
-            return body.substring(0, maxSize) + "... [TRUNCATED]";
-        }
-        return body;
+    private static String contentTypeOf(HttpHeaders headers) {
+        return headers.getContentType() != null ? headers.getContentType().toString() : null;
     }
 }
-
@@ -2,8 +2,11 @@ package th.co.autox.logging.interceptor;
 
 import th.co.autox.logging.config.LoggingProperties;
 import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.context.RequestTimings;
 import th.co.autox.logging.core.AppLogger;
 import th.co.autox.logging.core.AppLoggerFactory;
+import th.co.autox.logging.debug.DebugOverrides;
+import th.co.autox.logging.metrics.LatencyMetrics;
 import th.co.autox.logging.model.ResponseInfo;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.reactive.function.client.ClientRequest;
@@ -35,6 +38,9 @@ public class WebClientLoggingFilter implements ExchangeFilterFunction {
             return next.exchange(addCorrelationHeader(request));
         }
 
+        // Captured on the calling thread; the callbacks below may run on another one
+        RequestTimings timings = RequestTimings.current();
+        long startNanos = System.nanoTime();
         long startTime = System.currentTimeMillis();
         String correlationId = CorrelationContext.getCorrelationId();
         String method = request.method().name();
@@ -49,19 +55,44 @@ public class WebClientLoggingFilter implements ExchangeFilterFunction {
                     // Restore correlation context in reactive chain
                     CorrelationContext.setCorrelationId(correlationId);
                     long duration = System.currentTimeMillis() - startTime;
+                    recordLatency(method, uri, response.statusCode().value(), duration);
+                    recordDownstream(timings, startNanos);
                     logOutgoingResponse(method, uri, response, duration);
                 })
                 .doOnError(error -> {
                     CorrelationContext.setCorrelationId(correlationId);
                     long duration = System.currentTimeMillis() - startTime;
-                    log.error("Outgoing request failed: " + method + " " + uri + " after " + duration + "ms", error);
+                    recordLatency(method, uri, 0, duration);
+                    recordDownstream(timings, startNanos);
+                    log.error("Outgoing request failed", error, Map.of(
+                            "method", method,
+                            "uri", uri,
+                            "duration_ms", duration));
                 });
     }
 
+    private void recordLatency(String method, String uri, int statusCode, long duration) {
+        LatencyMetrics metrics = LatencyMetrics.current();
+        if (metrics != null) {
+            metrics.recordOutgoing(method, uri, statusCode, duration);
+        }
+    }
+
+    private void recordDownstream(RequestTimings timings, long startNanos) {
+        if (timings != null) {
+            timings.recordDownstream(System.nanoTime() - startNanos);
+        }
+    }
+
     private ClientRequest addCorrelationHeader(ClientRequest request) {
-        return ClientRequest.from(request)
-                .header(CorrelationContext.CORRELATION_ID_HEADER, CorrelationContext.getCorrelationId())
-                .build();
+        ClientRequest.Builder builder = ClientRequest.from(request)
+                .header(CorrelationContext.CORRELATION_ID_HEADER, CorrelationContext.getCorrelationId());
+        // Propagate a per-request DEBUG override
+        String debugToken = DebugOverrides.propagationHeader();
+        if (debugToken != null) {
+            builder.headers(headers -> headers.set(DebugOverrides.DEBUG_LOG_HEADER, debugToken));
+        }
+        return builder.build();
     }
 
     private void logOutgoingResponse(String method, String uri, ClientResponse response, long duration) {
@@ -0,0 +1,69 @@
+package th.co.autox.logging.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Count-Min Sketch.
+ *
+ * <p>Each item increments one counter in each of {@code depth} rows; its estimate is
+ * the smallest of those counters. Estimates never undercount and overcount by at most
+ * {@code e / width} of the total with probability {@code 1 - e^-depth}. Row indexes
+ * come from one 64-bit hash split into two halves (Kirsch-Mitzenmacher).</p>
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param depth number of rows
+     * @param width counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = Math.max(1, depth);
+        this.width = Integer.highestOneBit(Math.max(2, width) * 2 - 1);
+        this.mask = this.width - 1;
+        this.counters = new AtomicLongArray(this.depth * this.width);
+    }
+
+    /**
+     * Count one occurrence and return the item's new estimate.
+     */
+    public long add(String item) {
+        long hash = Hashing.hash64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + column));
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimated number of occurrences of an item.
+     */
+    public long estimate(String item) {
+        long hash = Hashing.hash64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, counters.get(row * width + column));
+        }
+        return estimate;
+    }
+
+    /**
+     * Reset all counters.
+     */
+    public void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package th.co.autox.logging.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate top-K items of a stream, backed by a {@link CountMinSketch}.
+ *
+ * <p>Every item is counted in the sketch. Items whose estimate reaches the current
+ * admission threshold are kept as candidates; when there are more than {@code 2k}
+ * candidates the smallest are dropped and the threshold is raised to the smallest
+ * kept estimate. Memory is fixed by the sketch size and {@code k}; the hot path takes
+ * no lock unless it has to trim the candidates.</p>
+ */
+public class HeavyHitters {
+
+    /**
+     * One item with its estimated count.
+     */
+    public record Count(String value, long count) {
+    }
+
+    private static final Comparator<Map.Entry<String, Long>> BY_COUNT_DESC =
+            Map.Entry.<String, Long>comparingByValue().reversed();
+
+    private final CountMinSketch sketch;
+    private final int k;
+    private final ConcurrentHashMap<String, Long> candidates = new ConcurrentHashMap<>();
+    private volatile long threshold;
+
+    public HeavyHitters(int k, CountMinSketch sketch) {
+        this.k = Math.max(1, k);
+        this.sketch = sketch;
+    }
+
+    /**
+     * Count one occurrence of an item.
+     */
+    public void add(String item) {
+        long estimate = sketch.add(item);
+        if (estimate < threshold) {
+            return;
+        }
+        candidates.merge(item, estimate, Math::max);
+        if (candidates.size() > 2 * k) {
+            trim();
+        }
+    }
+
+    /**
+     * The top {@code k} items by estimated count, highest first.
+     */
+    public List<Count> top() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort(BY_COUNT_DESC);
+        List<Count> top = new ArrayList<>(Math.min(k, entries.size()));
+        for (int i = 0; i < entries.size() && i < k; i++) {
+            top.add(new Count(entries.get(i).getKey(), entries.get(i).getValue()));
+        }
+        return top;
+    }
+
+    /**
+     * Take the top items and start counting from zero.
+     */
+    public synchronized List<Count> drain() {
+        List<Count> top = top();
+        threshold = 0;
+        candidates.clear();
+        sketch.reset();
+        return top;
+    }
+
+    private synchronized void trim() {
+        if (candidates.size() <= 2 * k) {
+            return;
+        }
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort(BY_COUNT_DESC);
+        threshold = entries.get(k - 1).getValue();
+        for (int i = k; i < entries.size(); i++) {
+            candidates.remove(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package th.co.autox.logging.metrics;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free HyperLogLog distinct counter.
+ *
+ * <p>Uses {@code 2^precision} registers; the standard error is about
+ * {@code 1.04 / sqrt(2^precision)} (1.6% at precision 12). Small cardinalities use
+ * linear counting.</p>
+ */
+public class HyperLogLog {
+
+    private final int precision;
+    private final int registerCount;
+    private final AtomicIntegerArray registers;
+
+    /**
+     * @param precision number of index bits, between 4 and 16
+     */
+    public HyperLogLog(int precision) {
+        this.precision = Math.min(16, Math.max(4, precision));
+        this.registerCount = 1 << this.precision;
+        this.registers = new AtomicIntegerArray(registerCount);
+    }
+
+    /**
+     * Add one item.
+     */
+    public void add(String item) {
+        long hash = Hashing.hash64(item);
+        int index = (int) (hash >>> (64 - precision));
+        // Guard bit so that the rank is bounded when the remaining bits are all zero
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        int current = registers.get(index);
+        while (rank > current) {
+            if (registers.compareAndSet(index, current, rank)) {
+                return;
+            }
+            current = registers.get(index);
+        }
+    }
+
+    /**
+     * Estimated number of distinct items added since the last reset.
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < registerCount; i++) {
+            int value = registers.get(i);
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / registerCount);
+        double estimate = alpha * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Reset all registers.
+     */
+    public void reset() {
+        for (int i = 0; i < registerCount; i++) {
+            registers.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package th.co.autox.logging.metrics;
+
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.core.AppLoggerFactory;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-route and per-downstream-host latency histograms, written as one
+ * {@code metrics} log entry per key and interval.
+ *
+ * <p>Incoming requests are keyed by method and route template (for example
+ * {@code GET /loans/{id}}), outgoing calls by method and host. Every request is
+ * recorded, whether or not its request log is written, so per-request logs can be
+ * sampled while the percentiles stay exact to the histogram's precision.</p>
+ *
+ * <p>The active instance is published through {@link #current()}; recording is a
+ * no-op while metrics are disabled.</p>
+ */
+public class LatencyMetrics {
+
+    /**
+     * Request attribute holding the matched route template.
+     * Same value as Spring MVC's {@code HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE},
+     * without requiring Spring MVC on the classpath.
+     */
+    public static final String BEST_MATCHING_PATTERN_ATTRIBUTE =
+            "org.springframework.web.servlet.HandlerMapping.bestMatchingPattern";
+
+    /**
+     * Key used for requests that matched no route, and for keys beyond {@code max-keys}.
+     */
+    public static final String UNMATCHED = "UNMATCHED";
+    private static final String OTHER = "OTHER";
+
+    private static volatile LatencyMetrics current;
+
+    private final AppLogger log;
+    private final long intervalMs;
+    private final int maxKeys;
+    private final ConcurrentMap<String, Stats> incoming = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Stats> outgoing = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    public LatencyMetrics(AppLoggerFactory loggerFactory, LoggingProperties properties) {
+        this.log = loggerFactory.getLogger(LatencyMetrics.class);
+        this.intervalMs = Math.max(1000, properties.getMetrics().getIntervalMs());
+        this.maxKeys = Math.max(1, properties.getMetrics().getMaxKeys());
+    }
+
+    /**
+     * Get the active instance, or null when metrics are disabled.
+     */
+    public static LatencyMetrics current() {
+        return current;
+    }
+
+    /**
+     * Record an incoming request.
+     *
+     * @param route route template, or null when no route matched
+     */
+    public void recordIncoming(String method, String route, int statusCode, long durationMs) {
+        String key = method + " " + (route != null ? route : UNMATCHED);
+        stats(incoming, key).record(statusCode, durationMs);
+    }
+
+    /**
+     * Record an outgoing call. A status code of 0 means the call failed without a response.
+     */
+    public void recordOutgoing(String method, String uri, int statusCode, long durationMs) {
+        String key = method + " " + hostOf(uri);
+        stats(outgoing, key).record(statusCode, durationMs);
+    }
+
+    /**
+     * Start periodic reporting and publish this instance.
+     */
+    public synchronized void start() {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "latency-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(this::report, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        current = this;
+    }
+
+    /**
+     * Write the last partial interval and stop reporting.
+     */
+    public synchronized void stop() {
+        if (current == this) {
+            current = null;
+        }
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+            report();
+        }
+    }
+
+    /**
+     * Write one summary entry per key that had traffic in this interval.
+     */
+    public void report() {
+        report("incoming", "route", incoming);
+        report("outgoing", "host", outgoing);
+    }
+
+    private void report(String direction, String keyField, ConcurrentMap<String, Stats> stats) {
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats value = entry.getValue();
+            LatencyHistogram.Snapshot snapshot = value.histogram.drain();
+            long errors = value.errors.sumThenReset();
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            String key = entry.getKey();
+            int separator = key.indexOf(' ');
+
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("direction", direction);
+            fields.put("method", key.substring(0, separator));
+            fields.put(keyField, key.substring(separator + 1));
+            fields.put("interval_ms", intervalMs);
+            fields.put("count", snapshot.getCount());
+            fields.put("error_count", errors);
+            fields.put("p50_ms", snapshot.getValueAtPercentile(50));
+            fields.put("p95_ms", snapshot.getValueAtPercentile(95));
+            fields.put("p99_ms", snapshot.getValueAtPercentile(99));
+            fields.put("max_ms", snapshot.getMax());
+            fields.put("mean_ms", Math.round(snapshot.getMean() * 10) / 10.0);
+            log.logMetrics("Latency summary", fields);
+        }
+    }
+
+    private Stats stats(ConcurrentMap<String, Stats> map, String key) {
+        Stats stats = map.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        if (map.size() >= maxKeys) {
+            String overflow = key.substring(0, key.indexOf(' ') + 1) + OTHER;
+            return map.computeIfAbsent(overflow, k -> new Stats());
+        }
+        return map.computeIfAbsent(key, k -> new Stats());
+    }
+
+    private static String hostOf(String uri) {
+        try {
+            URI parsed = URI.create(uri);
+            if (parsed.getHost() == null) {
+                return UNMATCHED;
+            }
+            return parsed.getPort() > 0 ? parsed.getHost() + ":" + parsed.getPort() : parsed.getHost();
+        } catch (IllegalArgumentException e) {
+            return UNMATCHED;
+        }
+    }
+
+    private static final class Stats {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        private void record(int statusCode, long durationMs) {
+            histogram.record(durationMs);
+            if (statusCode >= 500 || statusCode == 0) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package th.co.autox.logging.metrics;
+
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.core.AppLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-memory traffic sketches for client addresses, routes and user agents,
+ * written as one {@code metrics} log entry per interval.
+ *
+ * <p>Each dimension has a {@link HeavyHitters} top-K over a {@link CountMinSketch}
+ * and a {@link HyperLogLog} distinct count. Memory does not grow with traffic, so
+ * the top clients and the number of distinct clients of an interval are known
+ * without querying the raw request logs.</p>
+ *
+ * <p>The active instance is published through {@link #current()}; recording is a
+ * no-op while sketches are disabled.</p>
+ */
+public class TrafficSketches {
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+    private static final int HLL_PRECISION = 12;
+    private static final int MAX_VALUE_LENGTH = 256;
+
+    private static volatile TrafficSketches current;
+
+    private final AppLogger log;
+    private final long intervalMs;
+    private final LongAdder requests = new LongAdder();
+    private final Dimension clients;
+    private final Dimension routes;
+    private final Dimension userAgents;
+    private ScheduledExecutorService reporter;
+
+    public TrafficSketches(AppLoggerFactory loggerFactory, LoggingProperties properties) {
+        this.log = loggerFactory.getLogger(TrafficSketches.class);
+        this.intervalMs = Math.max(1000, properties.getTraffic().getIntervalMs());
+        int topK = properties.getTraffic().getTopK();
+        this.clients = new Dimension(topK);
+        this.routes = new Dimension(topK);
+        this.userAgents = new Dimension(topK);
+    }
+
+    /**
+     * Get the active instance, or null when sketches are disabled.
+     */
+    public static TrafficSketches current() {
+        return current;
+    }
+
+    /**
+     * Record one incoming request. Null values are not counted in their dimension.
+     *
+     * @param route route template, or the request path when no route matched
+     */
+    public void record(String remoteAddress, String route, String userAgent) {
+        requests.increment();
+        clients.add(remoteAddress);
+        routes.add(route);
+        userAgents.add(userAgent);
+    }
+
+    /**
+     * Start periodic reporting and publish this instance.
+     */
+    public synchronized void start() {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "traffic-sketch-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(this::report, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        current = this;
+    }
+
+    /**
+     * Write the last partial interval and stop reporting.
+     */
+    public synchronized void stop() {
+        if (current == this) {
+            current = null;
+        }
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+            report();
+        }
+    }
+
+    /**
+     * Write the summary of this interval and reset the sketches.
+     */
+    public void report() {
+        long count = requests.sumThenReset();
+        if (count == 0) {
+            return;
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("interval_ms", intervalMs);
+        fields.put("requests", count);
+        fields.put("distinct_clients", clients.distinct.estimate());
+        fields.put("distinct_routes", routes.distinct.estimate());
+        fields.put("distinct_user_agents", userAgents.distinct.estimate());
+        fields.put("top_clients", clients.drain());
+        fields.put("top_routes", routes.drain());
+        fields.put("top_user_agents", userAgents.drain());
+        log.logMetrics("Traffic summary", fields);
+    }
+
+    private static final class Dimension {
+        private final HeavyHitters top;
+        private final HyperLogLog distinct = new HyperLogLog(HLL_PRECISION);
+
+        private Dimension(int topK) {
+            this.top = new HeavyHitters(topK, new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH));
+        }
+
+        private void add(String value) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            if (value.length() > MAX_VALUE_LENGTH) {
+                value = value.substring(0, MAX_VALUE_LENGTH);
+            }
+            top.add(value);
+            distinct.add(value);
+        }
+
+        private List<Map<String, Object>> drain() {
+            distinct.reset();
+            List<Map<String, Object>> entries = new ArrayList<>();
+            for (HeavyHitters.Count count : top.drain()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("value", count.value());
+                entry.put("count", count.count());
+                entries.add(entry);
+            }
+            return entries;
+        }
+    }
+}
@@ -22,7 +22,8 @@ import java.util.Map;
 @JsonPropertyOrder({
     "@timestamp", "@version", "application", "message", "logger_name", "thread_name",
     "level", "level_value", "type", "correlation_id", "method", "uri", "status_code",
-    "duration_ms", "remote_address", "user_agent", "request_body", "response_body", "error"
+    "duration_ms", "remote_address", "user_agent", "request_body", "response_body", "error",
+    "timings"
 })
 public class LogEntry {
 
@@ -92,6 +93,10 @@ public class LogEntry {
     @JsonProperty("error")
     private ErrorInfo error;
 
+    // Section and downstream call timings of a request
+    @JsonProperty("timings")
+    private Map<String, Object> timings;
+
     // Additional custom fields
     @JsonProperty("extra")
     private Map<String, Object> extra;
@@ -123,6 +128,12 @@ public class LogEntry {
 
         @JsonProperty("root_cause")
         private String rootCause;
+
+        @JsonProperty("stack_hash")
+        private String stackHash;
+
+        @JsonProperty("stack_count")
+        private Long stackCount;
     }
 }
 
@@ -19,7 +19,19 @@ public enum LogType {
      * Application log type - used for general application logging
      * (debug, info, warn, error messages)
      */
-    APPLICATION("application");
+    APPLICATION("application"),
+
+    /**
+     * Audit log type - used for durable business events
+     * (written to a dedicated file and forced to disk)
+     */
+    AUDIT("audit"),
+
+    /**
+     * Metrics log type - used for periodic summaries
+     * (latency percentiles per route and downstream host)
+     */
+    METRICS("metrics");
 
     private final String value;
 
@@ -0,0 +1,64 @@
+package th.co.autox.logging.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * A validated JSON document that is embedded as-is in a log entry
+ * instead of being escaped into a string.
+ *
+ * <p>Only create instances from JSON that has been parsed and re-generated, such as
+ * the output of {@link th.co.autox.logging.util.BodyFormatter}; the content is not
+ * checked again when it is written.</p>
+ */
+@JsonSerialize(using = RawJson.Serializer.class)
+public final class RawJson {
+
+    private final String json;
+
+    public RawJson(String json) {
+        this.json = json;
+    }
+
+    /**
+     * The JSON text.
+     */
+    public String getJson() {
+        return json;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RawJson raw && raw.json.equals(json);
+    }
+
+    @Override
+    public int hashCode() {
+        return json.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+
+    /**
+     * Writes the JSON text with {@link JsonGenerator#writeRawValue(String)}.
+     */
+    static final class Serializer extends StdSerializer<RawJson> {
+
+        Serializer() {
+            super(RawJson.class);
+        }
+
+        @Override
+        public void serialize(RawJson value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeRawValue(value.json);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package th.co.autox.logging.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
@@ -36,5 +37,14 @@ public class RequestInfo {
 
     @JsonProperty("content_length")
     private Long contentLength;
-}
 
+    /**
+     * Check whether no field is set.
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return headers == null && queryParams == null
+                && pathParams == null && body == null
+                && contentType == null && contentLength == null;
+    }
+}
@@ -0,0 +1,62 @@
+package th.co.autox.logging.recent;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import th.co.autox.logging.context.CorrelationContext;
+
+/**
+ * Logback appender that encodes events and adds them to a {@link RecentLogBuffer}.
+ *
+ * <p>It takes no lock of its own; the buffer's writes are lock-free.</p>
+ */
+public class RecentLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public static final String NAME = "RECENT_LOGS";
+
+    private final RecentLogBuffer buffer;
+    private final Encoder<ILoggingEvent> encoder;
+
+    public RecentLogAppender(RecentLogBuffer buffer, Encoder<ILoggingEvent> encoder) {
+        this.buffer = buffer;
+        this.encoder = encoder;
+        setName(NAME);
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        byte[] bytes = encoder.encode(event);
+        if (bytes == null) {
+            return;
+        }
+        int length = bytes.length;
+        while (length > 0 && (bytes[length - 1] == '\n' || bytes[length - 1] == '\r')) {
+            length--;
+        }
+        if (length > 0) {
+            buffer.add(event.getMDCPropertyMap().get(CorrelationContext.CORRELATION_ID_MDC_KEY), bytes, 0, length);
+        }
+    }
+
+    /**
+     * Start the appender and attach it to the root logger of a logger context.
+     */
+    public void install(LoggerContext loggerContext) {
+        setContext(loggerContext);
+        encoder.setContext(loggerContext);
+        encoder.start();
+        start();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(this);
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (getContext() instanceof LoggerContext loggerContext) {
+            loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).detachAppender(this);
+        }
+        encoder.stop();
+    }
+}
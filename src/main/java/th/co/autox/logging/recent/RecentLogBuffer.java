@@ -0,0 +1,295 @@
+package th.co.autox.logging.recent;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size ring of the most recent encoded log lines, searchable by correlation ID.
+ *
+ * <p>Lines are copied into one off-heap buffer of {@code capacity * maxLineBytes} bytes;
+ * the per-slot metadata and the correlation index are primitive arrays allocated up
+ * front, so the footprint never grows. Longer lines keep their first
+ * {@code maxLineBytes} bytes and are flagged as truncated.</p>
+ *
+ * <p>Writes are lock-free. Each line takes the next sequence number and the slot it maps
+ * to, overwriting the oldest line. A slot's state is {@code 2 * sequence + 1} while it is
+ * written and {@code 2 * sequence + 2} once complete; readers copy a slot and keep the copy
+ * only if the state did not change meanwhile. A writer that finds its slot still being
+ * written by a writer one lap behind drops its line instead of waiting.</p>
+ *
+ * <p>The correlation index is an open-addressing table with twice as many entries as
+ * slots. An entry packs 24 bits of the ID's hash with the low 40 bits of the sequence of
+ * the newest line for that ID, so it is replaced with one CAS; each slot links to the
+ * previous line of its ID. Entries of lines that were overwritten are reused, and when all
+ * {@value #MAX_PROBES} candidate entries are live the oldest is replaced.</p>
+ */
+public final class RecentLogBuffer {
+
+    private static final int MAX_PROBES = 8;
+    private static final int SEQUENCE_BITS = 40;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int READ_ATTEMPTS = 64;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int capacity;
+    private final int mask;
+    private final int maxLineBytes;
+    private final ByteBuffer lines;
+    private final AtomicLongArray states;
+    private final long[] hashes;
+    private final long[] previous;
+    private final int[] lengths;
+    private final AtomicLongArray index;
+    private final int indexMask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+
+    /**
+     * @param capacity     lines kept, rounded up to a power of two
+     * @param maxLineBytes bytes kept per line
+     */
+    public RecentLogBuffer(int capacity, int maxLineBytes) {
+        if (capacity < 1 || capacity > (1 << 29) || maxLineBytes < 1) {
+            throw new IllegalArgumentException("Invalid recent log buffer size: capacity=" + capacity
+                    + ", maxLineBytes=" + maxLineBytes);
+        }
+        int slots = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        if ((long) slots * maxLineBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Recent log buffer exceeds 2 GB: capacity=" + slots
+                    + ", maxLineBytes=" + maxLineBytes);
+        }
+        this.capacity = slots;
+        this.mask = slots - 1;
+        this.maxLineBytes = maxLineBytes;
+        this.lines = ByteBuffer.allocateDirect(slots * maxLineBytes);
+        this.states = new AtomicLongArray(slots);
+        this.hashes = new long[slots];
+        this.previous = new long[slots];
+        this.lengths = new int[slots];
+        this.index = new AtomicLongArray(slots * 2);
+        this.indexMask = slots * 2 - 1;
+    }
+
+    /**
+     * A line read from the buffer.
+     *
+     * @param sequence  position of the line in write order
+     * @param line      the line, or its first {@code maxLineBytes} bytes when truncated
+     * @param truncated whether the line was longer than {@code maxLineBytes}
+     */
+    public record Entry(long sequence, byte[] line, boolean truncated) {
+
+        public String text() {
+            return new String(line, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Buffer counters.
+     *
+     * @param capacity     lines kept
+     * @param maxLineBytes bytes kept per line
+     * @param written      lines written since start
+     * @param dropped      lines dropped because their slot was still being written
+     * @param truncated    lines longer than {@code maxLineBytes}
+     * @param memoryBytes  bytes allocated for lines, slot metadata and the index
+     */
+    public record Stats(int capacity, int maxLineBytes, long written, long dropped, long truncated,
+                        long memoryBytes) {
+    }
+
+    /**
+     * Add a line, overwriting the oldest one.
+     *
+     * @param correlationId correlation ID of the line, or null
+     * @param line          encoded line without its line separator
+     */
+    public void add(String correlationId, byte[] line, int offset, int length) {
+        long seq = sequence.getAndIncrement();
+        int slot = (int) (seq & mask);
+        long state = states.get(slot);
+        if ((state & 1) != 0 || state > 2 * seq || !states.compareAndSet(slot, state, 2 * seq + 1)) {
+            dropped.increment();
+            return;
+        }
+        int stored = Math.min(length, maxLineBytes);
+        if (stored < length) {
+            truncated.increment();
+        }
+        lines.put(slot * maxLineBytes, line, offset, stored);
+        long hash = correlationId == null || correlationId.isEmpty() ? 0 : hash(correlationId);
+        hashes[slot] = hash;
+        lengths[slot] = stored < length ? ~stored : stored;
+        previous[slot] = hash != 0 ? link(hash, seq) : -1;
+        states.set(slot, 2 * seq + 2);
+    }
+
+    /**
+     * The most recent lines, oldest first.
+     */
+    public List<Entry> recent(int limit) {
+        long end = sequence.get();
+        long start = Math.max(0, end - Math.min(Math.max(limit, 0), capacity));
+        List<Entry> entries = new ArrayList<>();
+        for (long seq = start; seq < end; seq++) {
+            Slot slot = read(seq);
+            if (slot != null) {
+                entries.add(slot.entry());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * The most recent lines of a correlation ID still in the buffer, oldest first.
+     */
+    public List<Entry> find(String correlationId, int limit) {
+        List<Entry> entries = new ArrayList<>();
+        if (correlationId == null || correlationId.isEmpty() || limit <= 0) {
+            return entries;
+        }
+        long hash = hash(correlationId);
+        long head = head(hash);
+        // Read after the index, so that end is above every sequence the index can hold
+        long end = sequence.get();
+        long seq = head != 0 ? sequenceOf(head, end) : -1;
+        // Chains are in link order, which can differ from sequence order under contention
+        for (int visited = 0; seq >= 0 && seq > end - capacity - 1 && visited < capacity
+                && entries.size() < limit; visited++) {
+            Slot slot = read(seq);
+            if (slot == null) {
+                break;
+            }
+            if (slot.hash() == hash) {
+                entries.add(slot.entry());
+            }
+            seq = slot.previous();
+        }
+        entries.sort(Comparator.comparingLong(Entry::sequence));
+        return entries;
+    }
+
+    public Stats stats() {
+        long dropped = this.dropped.sum();
+        long memory = (long) capacity * maxLineBytes + (long) capacity * (8 + 8 + 8 + 4) + index.length() * 8L;
+        return new Stats(capacity, maxLineBytes, sequence.get() - dropped, dropped, truncated.sum(), memory);
+    }
+
+    /**
+     * Point the index entry of a hash at a sequence.
+     *
+     * @return the sequence it pointed at before, or -1
+     */
+    private long link(long hash, long seq) {
+        long tag = tag(hash);
+        long entry = (tag << SEQUENCE_BITS) | (seq & SEQUENCE_MASK);
+        int start = (int) hash & indexMask;
+        int oldestAt = start;
+        long oldest = Long.MAX_VALUE;
+        // Other writers may have linked later sequences; all are below the next one
+        long near = sequence.get();
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int at = (start + probe) & indexMask;
+            while (true) {
+                long current = index.get(at);
+                boolean sameTag = current != 0 && current >>> SEQUENCE_BITS == tag;
+                long currentSeq = current != 0 ? sequenceOf(current, near) : -1;
+                if (current == 0 || sameTag || currentSeq <= seq - capacity) {
+                    if (index.compareAndSet(at, current, entry)) {
+                        return sameTag ? currentSeq : -1;
+                    }
+                    continue;
+                }
+                if (currentSeq < oldest) {
+                    oldest = currentSeq;
+                    oldestAt = at;
+                }
+                break;
+            }
+        }
+        long current = index.getAndSet(oldestAt, entry);
+        return current >>> SEQUENCE_BITS == tag ? sequenceOf(current, near) : -1;
+    }
+
+    /**
+     * Index entry of the newest line for a hash, or 0.
+     */
+    private long head(long hash) {
+        long tag = tag(hash);
+        int start = (int) hash & indexMask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            long current = index.get((start + probe) & indexMask);
+            if (current == 0 || current >>> SEQUENCE_BITS == tag) {
+                return current;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Copy a slot if it still holds the given sequence.
+     */
+    private Slot read(long seq) {
+        int slot = (int) (seq & mask);
+        for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+            long before = states.get(slot);
+            if (before == 2 * seq + 1) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (before != 2 * seq + 2) {
+                return null;
+            }
+            long hash = hashes[slot];
+            long prev = previous[slot];
+            int length = lengths[slot];
+            int stored = length < 0 ? ~length : length;
+            byte[] line = new byte[stored];
+            lines.get(slot * maxLineBytes, line, 0, stored);
+            VarHandle.acquireFence();
+            if (states.get(slot) != before) {
+                return null;
+            }
+            return new Slot(new Entry(seq, line, length < 0), hash, prev);
+        }
+        return null;
+    }
+
+    private record Slot(Entry entry, long hash, long previous) {
+    }
+
+    /**
+     * Rebuild a full sequence from its low bits, relative to a recent sequence.
+     */
+    private static long sequenceOf(long entry, long near) {
+        return near - ((near - (entry & SEQUENCE_MASK)) & SEQUENCE_MASK);
+    }
+
+    private static long tag(long hash) {
+        // Never zero, so that an empty entry is 0
+        return (hash >>> SEQUENCE_BITS) | 1;
+    }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+}
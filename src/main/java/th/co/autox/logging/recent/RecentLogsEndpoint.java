@@ -0,0 +1,60 @@
+package th.co.autox.logging.recent;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import th.co.autox.logging.model.RawJson;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the lines in a {@link RecentLogBuffer}.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/recentlogs} - the most recent lines</li>
+ *   <li>{@code GET /actuator/recentlogs?correlationId=...} - the recent lines of one request</li>
+ * </ul>
+ *
+ * <p>Both take an optional {@code limit} (default {@value #DEFAULT_LIMIT}). Lines are
+ * embedded as JSON; truncated lines are returned as strings.</p>
+ */
+@Endpoint(id = "recentlogs")
+public class RecentLogsEndpoint {
+
+    static final int DEFAULT_LIMIT = 100;
+
+    private final RecentLogBuffer buffer;
+
+    public RecentLogsEndpoint(RecentLogBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> recentLogs(@Nullable String correlationId, @Nullable Integer limit) {
+        int max = limit != null ? limit : DEFAULT_LIMIT;
+        List<RecentLogBuffer.Entry> entries = correlationId != null
+                ? buffer.find(correlationId, max)
+                : buffer.recent(max);
+        RecentLogBuffer.Stats stats = buffer.stats();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (correlationId != null) {
+            result.put("correlation_id", correlationId);
+        }
+        result.put("count", entries.size());
+        result.put("lines", entries.stream()
+                .map(entry -> entry.truncated() ? entry.text() : new RawJson(entry.text()))
+                .toList());
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("capacity", stats.capacity());
+        counters.put("max_line_bytes", stats.maxLineBytes());
+        counters.put("written", stats.written());
+        counters.put("dropped", stats.dropped());
+        counters.put("truncated", stats.truncated());
+        counters.put("memory_bytes", stats.memoryBytes());
+        result.put("buffer", counters);
+        return result;
+    }
+}
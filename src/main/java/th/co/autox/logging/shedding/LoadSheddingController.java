@@ -0,0 +1,220 @@
+package th.co.autox.logging.shedding;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AsyncAppenderBase;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.core.AppLoggerFactory;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive controller that sheds logging work when the process is saturated.
+ *
+ * <p>A background task samples process CPU load, async appender queue fill and
+ * average encode latency. When any signal crosses its high threshold the level
+ * steps down one notch (see {@link SheddingLevel}); it steps back up only after
+ * every signal has stayed below its low threshold for a number of consecutive
+ * checks.</p>
+ *
+ * <p>The current level is published through a static volatile field so that
+ * {@code RequestLoggingFilter} and {@code AppLogger} can consult it with a single
+ * read on the hot path.</p>
+ */
+public class LoadSheddingController {
+
+    private static volatile SheddingLevel currentLevel = SheddingLevel.NONE;
+    private static volatile int sampleRate = 10;
+    private static volatile boolean monitoring = false;
+
+    private static final LongAdder ENCODE_NANOS = new LongAdder();
+    private static final LongAdder ENCODE_COUNT = new LongAdder();
+
+    private final AppLogger log;
+    private final LoggingProperties.SheddingConfig config;
+    private final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    private final List<AsyncAppenderBase<?>> asyncAppenders = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+    private int consecutiveRelieved;
+
+    public LoadSheddingController(AppLoggerFactory loggerFactory, LoggingProperties properties) {
+        this.log = loggerFactory.getLogger(LoadSheddingController.class);
+        this.config = properties.getShedding();
+    }
+
+    // ==================== Hot Path ====================
+
+    /**
+     * Get the current shedding level.
+     */
+    public static SheddingLevel currentLevel() {
+        return currentLevel;
+    }
+
+    /**
+     * Decide whether a sampled event should be kept (one in {@code sampleRate}).
+     */
+    public static boolean sample() {
+        int rate = sampleRate;
+        return rate <= 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+
+    /**
+     * Record the time spent encoding one log event.
+     */
+    public static void recordEncodeNanos(long nanos) {
+        if (monitoring) {
+            ENCODE_NANOS.add(nanos);
+            ENCODE_COUNT.increment();
+        }
+    }
+
+    /**
+     * Whether encode latency is being collected.
+     */
+    public static boolean isMonitoring() {
+        return monitoring;
+    }
+
+    // ==================== Lifecycle ====================
+
+    /**
+     * Start periodic pressure checks.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        sampleRate = Math.max(1, config.getSampleRate());
+        monitoring = true;
+        collectAsyncAppenders();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "logging-load-shedding");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, config.getCheckIntervalMs());
+        scheduler.scheduleAtFixedRate(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop pressure checks and restore normal logging.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        monitoring = false;
+        changeLevel(SheddingLevel.NONE, 0, 0, 0);
+    }
+
+    // ==================== Evaluation ====================
+
+    private void check() {
+        try {
+            long count = ENCODE_COUNT.sumThenReset();
+            long nanos = ENCODE_NANOS.sumThenReset();
+            double encodeMicros = count > 0 ? (nanos / (double) count) / 1000.0 : 0;
+            evaluate(processCpuLoad(), queueFill(), encodeMicros);
+        } catch (RuntimeException e) {
+            log.warn("Load shedding check failed", e);
+        }
+    }
+
+    /**
+     * Evaluate one set of signals and adjust the level.
+     *
+     * @param cpuLoad      process CPU load between 0.0 and 1.0
+     * @param queueFill    highest async appender queue fill ratio between 0.0 and 1.0
+     * @param encodeMicros average encode latency in microseconds
+     * @return the level after evaluation
+     */
+    public synchronized SheddingLevel evaluate(double cpuLoad, double queueFill, double encodeMicros) {
+        boolean pressure = cpuLoad >= config.getCpuHighThreshold()
+                || queueFill >= config.getQueueHighThreshold()
+                || encodeMicros >= config.getEncodeLatencyHighMicros();
+        boolean relieved = cpuLoad < config.getCpuLowThreshold()
+                && queueFill < config.getQueueLowThreshold()
+                && encodeMicros < config.getEncodeLatencyLowMicros();
+
+        SheddingLevel level = currentLevel;
+        if (pressure) {
+            consecutiveRelieved = 0;
+            changeLevel(level.stepDown(), cpuLoad, queueFill, encodeMicros);
+        } else if (relieved && level != SheddingLevel.NONE) {
+            if (++consecutiveRelieved >= config.getRecoverySamples()) {
+                consecutiveRelieved = 0;
+                changeLevel(level.stepUp(), cpuLoad, queueFill, encodeMicros);
+            }
+        } else {
+            consecutiveRelieved = 0;
+        }
+        return currentLevel;
+    }
+
+    private void changeLevel(SheddingLevel newLevel, double cpuLoad, double queueFill, double encodeMicros) {
+        SheddingLevel previous = currentLevel;
+        if (previous == newLevel) {
+            return;
+        }
+        currentLevel = newLevel;
+
+        Map<String, Object> extra = new LinkedHashMap<>();
+        extra.put("previous_level", previous.name());
+        extra.put("level", newLevel.name());
+        extra.put("cpu_load", cpuLoad);
+        extra.put("queue_fill", queueFill);
+        extra.put("encode_latency_micros", encodeMicros);
+        log.warn("Logging load shedding level changed", extra);
+    }
+
+    private double processCpuLoad() {
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean sunBean) {
+            double load = sunBean.getProcessCpuLoad();
+            return load >= 0 ? load : 0;
+        }
+        return 0;
+    }
+
+    private double queueFill() {
+        double max = 0;
+        for (AsyncAppenderBase<?> appender : asyncAppenders) {
+            int capacity = appender.getQueueSize();
+            if (capacity > 0 && appender.isStarted()) {
+                max = Math.max(max, appender.getNumberOfElementsInQueue() / (double) capacity);
+            }
+        }
+        return max;
+    }
+
+    private void collectAsyncAppenders() {
+        asyncAppenders.clear();
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context) {
+            for (ch.qos.logback.classic.Logger logger : context.getLoggerList()) {
+                Iterator<Appender<ILoggingEvent>> it = logger.iteratorForAppenders();
+                while (it.hasNext()) {
+                    if (it.next() instanceof AsyncAppenderBase<?> async) {
+                        asyncAppenders.add(async);
+                    }
+                }
+            }
+        }
+    }
+}
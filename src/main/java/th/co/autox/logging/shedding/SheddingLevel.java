@@ -0,0 +1,63 @@
+package th.co.autox.logging.shedding;
+
+/**
+ * Load shedding levels, ordered from no shedding to the most aggressive.
+ * Each level includes the reductions of every level before it.
+ */
+public enum SheddingLevel {
+    /**
+     * Normal operation - nothing is shed.
+     */
+    NONE,
+
+    /**
+     * Response bodies are no longer captured.
+     */
+    DROP_RESPONSE_BODY,
+
+    /**
+     * Request and response bodies are no longer captured.
+     */
+    DROP_REQUEST_BODY,
+
+    /**
+     * Only a sample of INFO request logs is written.
+     */
+    SAMPLE_REQUEST_INFO,
+
+    /**
+     * Only a sample of INFO request and application logs is written.
+     */
+    SAMPLE_APPLICATION_INFO;
+
+    public boolean dropsResponseBody() {
+        return this.ordinal() >= DROP_RESPONSE_BODY.ordinal();
+    }
+
+    public boolean dropsRequestBody() {
+        return this.ordinal() >= DROP_REQUEST_BODY.ordinal();
+    }
+
+    public boolean samplesRequestInfo() {
+        return this.ordinal() >= SAMPLE_REQUEST_INFO.ordinal();
+    }
+
+    public boolean samplesApplicationInfo() {
+        return this.ordinal() >= SAMPLE_APPLICATION_INFO.ordinal();
+    }
+
+    /**
+     * The next more aggressive level, or this level if already at the maximum.
+     */
+    public SheddingLevel stepDown() {
+        SheddingLevel[] levels = values();
+        return this.ordinal() < levels.length - 1 ? levels[this.ordinal() + 1] : this;
+    }
+
+    /**
+     * The next less aggressive level, or this level if already at {@link #NONE}.
+     */
+    public SheddingLevel stepUp() {
+        return this.ordinal() > 0 ? values()[this.ordinal() - 1] : this;
+    }
+}
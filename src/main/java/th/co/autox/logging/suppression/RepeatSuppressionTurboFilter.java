@@ -0,0 +1,106 @@
+package th.co.autox.logging.suppression;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Setter;
+import org.slf4j.Marker;
+
+/**
+ * Logback {@link TurboFilter} that lets the first {@code burst} occurrences of a
+ * repeated event through per window and denies the rest, then writes one
+ * "Suppressed N similar events" line per key and window.
+ *
+ * <p>The key is logger, level, message template (the unformatted pattern, so
+ * {@code log.error("Call to {} failed", host)} is one key) and exception class.</p>
+ *
+ * <pre>
+ * &lt;turboFilter class="th.co.autox.logging.suppression.RepeatSuppressionTurboFilter"&gt;
+ *     &lt;burst&gt;10&lt;/burst&gt;
+ *     &lt;windowMs&gt;10000&lt;/windowMs&gt;
+ *     &lt;maxKeys&gt;10000&lt;/maxKeys&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class RepeatSuppressionTurboFilter extends TurboFilter {
+
+    private static final String FQCN = RepeatSuppressionTurboFilter.class.getName();
+
+    /**
+     * Events let through per key and window.
+     */
+    @Setter
+    private int burst = 10;
+
+    /**
+     * Window length in milliseconds.
+     */
+    @Setter
+    private long windowMs = 10000;
+
+    /**
+     * Maximum number of keys tracked.
+     */
+    @Setter
+    private int maxKeys = 10000;
+
+    private RepeatSuppressor suppressor;
+
+    @Override
+    public void start() {
+        suppressor = new RepeatSuppressor(burst, windowMs, maxKeys);
+        suppressor.start(this::writeSummary);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (suppressor != null) {
+            suppressor.stop();
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                              Object[] params, Throwable t) {
+        if (!isStarted() || format == null || (marker != null && marker.contains(RepeatSuppressor.BYPASS))) {
+            return FilterReply.NEUTRAL;
+        }
+        // Not logger.isEnabledFor(level): that would call the turbo filters again
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        String exceptionClass = t != null ? t.getClass().getName() : lastThrowableClass(params);
+        return suppressor.admit(logger.getName(), level.toString(), format, exceptionClass)
+                ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    /**
+     * The suppressor used by this filter (for tests and metrics).
+     */
+    public RepeatSuppressor getSuppressor() {
+        return suppressor;
+    }
+
+    private void writeSummary(RepeatSuppressor.Summary summary) {
+        if (!(getContext() instanceof LoggerContext loggerContext)) {
+            return;
+        }
+        String loggerName = summary.loggerName() != null ? summary.loggerName() : FQCN;
+        Logger logger = loggerContext.getLogger(loggerName);
+        int level = Level.toLocationAwareLoggerInteger(Level.toLevel(summary.level(), Level.WARN));
+        String message = summary.message() + ": " + summary.template()
+                + (summary.exceptionClass() != null ? " (" + summary.exceptionClass() + ")" : "");
+        logger.log(RepeatSuppressor.BYPASS, FQCN, level, message, null, null);
+    }
+
+    private static String lastThrowableClass(Object[] params) {
+        if (params != null && params.length > 0 && params[params.length - 1] instanceof Throwable throwable) {
+            return throwable.getClass().getName();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,193 @@
+package th.co.autox.logging.suppression;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Suppresses repeated log events during error storms.
+ *
+ * <p>Events are keyed by logger, level, message template and exception class. The first
+ * {@code burst} events of a key are let through in each window; the rest are counted.
+ * A background task reports each key's suppressed count as one {@link Summary} after
+ * its window closes.</p>
+ *
+ * <p>Counters live in a fixed number of lock stripes, each a small LRU map, so the
+ * number of tracked keys is bounded by {@code maxKeys}. Counts of keys evicted while
+ * they still had suppressed events are reported in one aggregate summary.</p>
+ */
+public class RepeatSuppressor {
+
+    /**
+     * Marker for events that must not be counted again: summary lines and
+     * entries already checked by the {@code AppLogger} hook.
+     */
+    public static final Marker BYPASS = MarkerFactory.getDetachedMarker("SUPPRESSION_BYPASS");
+
+    private static final int STRIPES = 16;
+
+    private final int burst;
+    private final long windowMs;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder evictedSuppressed = new LongAdder();
+    private ScheduledExecutorService reporter;
+
+    public RepeatSuppressor(int burst, long windowMs, int maxKeys) {
+        this.burst = Math.max(1, burst);
+        this.windowMs = Math.max(1, windowMs);
+        int perStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe, evictedSuppressed);
+        }
+    }
+
+    /**
+     * Summary of the events suppressed for one key in one window.
+     *
+     * @param loggerName     logger of the suppressed events, or null for the evicted-keys aggregate
+     * @param level          level of the suppressed events
+     * @param template       message template of the suppressed events
+     * @param exceptionClass exception class of the suppressed events, if any
+     * @param suppressed     number of events suppressed
+     */
+    public record Summary(String loggerName, String level, String template, String exceptionClass,
+                          long suppressed) {
+
+        /**
+         * Text of the summary line, e.g. "Suppressed 48,211 similar events".
+         */
+        public String message() {
+            return String.format(Locale.ROOT, "Suppressed %,d similar events", suppressed);
+        }
+    }
+
+    /**
+     * Count an event and decide whether it is written.
+     */
+    public boolean admit(String loggerName, String level, String template, String exceptionClass) {
+        Key key = new Key(loggerName, level, template, exceptionClass);
+        Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        long now = System.currentTimeMillis();
+        synchronized (stripe) {
+            Counter counter = stripe.counters.get(key);
+            if (counter == null) {
+                counter = new Counter(now);
+                stripe.counters.put(key, counter);
+            } else if (now - counter.windowStart >= windowMs) {
+                counter.windowStart = now;
+                counter.count = 0;
+            }
+            counter.count++;
+            if (counter.count <= burst) {
+                return true;
+            }
+            counter.suppressed++;
+            return false;
+        }
+    }
+
+    /**
+     * Collect summaries for keys whose window has closed with suppressed events.
+     */
+    public List<Summary> drainSummaries() {
+        List<Summary> summaries = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Map.Entry<Key, Counter> entry : stripe.counters.entrySet()) {
+                    Counter counter = entry.getValue();
+                    if (counter.suppressed > 0 && now - counter.windowStart >= windowMs) {
+                        Key key = entry.getKey();
+                        summaries.add(new Summary(key.loggerName, key.level, key.template,
+                                key.exceptionClass, counter.suppressed));
+                        counter.suppressed = 0;
+                    }
+                }
+            }
+        }
+        long evicted = evictedSuppressed.sumThenReset();
+        if (evicted > 0) {
+            summaries.add(new Summary(null, "WARN", "events of keys evicted from tracking", null, evicted));
+        }
+        return summaries;
+    }
+
+    /**
+     * Number of keys currently tracked.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.counters.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Report summaries to the sink once per window on a daemon thread.
+     */
+    public synchronized void start(Consumer<Summary> sink) {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-suppression-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleWithFixedDelay(() -> drainSummaries().forEach(sink),
+                windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop reporting.
+     */
+    public synchronized void stop() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    private record Key(String loggerName, String level, String template, String exceptionClass) {
+    }
+
+    private static final class Counter {
+        private long windowStart;
+        private long count;
+        private long suppressed;
+
+        private Counter(long windowStart) {
+            this.windowStart = windowStart;
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<Key, Counter> counters;
+
+        private Stripe(int capacity, LongAdder evictedSuppressed) {
+            this.counters = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Counter> eldest) {
+                    if (size() > capacity) {
+                        evictedSuppressed.add(eldest.getValue().suppressed);
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
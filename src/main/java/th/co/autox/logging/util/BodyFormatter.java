@@ -0,0 +1,174 @@
+package th.co.autox.logging.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.model.RawJson;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns captured request and response bodies into log values by content type.
+ *
+ * <ul>
+ *   <li>JSON ({@code application/json}, {@code *+json}) within {@code max-body-size}:
+ *       parsed and re-generated in one streaming pass, masking {@code masked-fields},
+ *       and embedded as {@link RawJson}. Invalid JSON is logged as text.</li>
+ *   <li>Text ({@code text/*}, XML, or no content type): a string, truncated at
+ *       {@code max-body-size}.</li>
+ *   <li>Anything else (forms, multipart, binary) and oversized JSON: only
+ *       {@code content_type} and {@code size_bytes}.</li>
+ * </ul>
+ */
+public class BodyFormatter {
+
+    private static final String TRUNCATED_SUFFIX = "... [TRUNCATED]";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int maxBodySize;
+    private final Set<String> maskedFields;
+    private final String maskValue;
+
+    public BodyFormatter(LoggingProperties properties) {
+        this.maxBodySize = properties.getRequest().getMaxBodySize();
+        this.maskedFields = properties.getMaskedFields().stream()
+                .map(field -> field.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.maskValue = properties.getMaskValue();
+    }
+
+    /**
+     * Format a body, or return null when it is empty.
+     */
+    public Object format(byte[] content, String contentType) {
+        if (content == null || content.length == 0) {
+            return null;
+        }
+        String mediaType = mediaTypeOf(contentType);
+        if (isJson(mediaType)) {
+            if (content.length > maxBodySize) {
+                return summary(contentType, content.length);
+            }
+            RawJson json = maskJson(content);
+            return json != null ? json : truncate(new String(content, charsetOf(contentType)));
+        }
+        if (isText(mediaType)) {
+            return truncate(new String(content, charsetOf(contentType)));
+        }
+        return summary(contentType, content.length);
+    }
+
+    /**
+     * Validate and mask a JSON document in one pass, or return null when it is not valid JSON.
+     */
+    RawJson maskJson(byte[] content) {
+        SegmentedStringWriter out = new SegmentedStringWriter(new BufferRecycler());
+        try (JsonParser parser = jsonFactory.createParser(content);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            copyValue(parser, generator);
+            if (parser.nextToken() != null) {
+                return null;
+            }
+            generator.flush();
+            return new RawJson(out.getAndClear());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void copyValue(JsonParser parser, JsonGenerator generator) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                generator.writeFieldName(name);
+                parser.nextToken();
+                if (maskedFields.contains(name.toLowerCase(Locale.ROOT))) {
+                    parser.skipChildren();
+                    generator.writeString(maskValue);
+                } else {
+                    copyValue(parser, generator);
+                }
+            }
+            generator.writeEndObject();
+        } else if (token == JsonToken.START_ARRAY) {
+            generator.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                copyValue(parser, generator);
+            }
+            generator.writeEndArray();
+        } else if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            // Keep the number exactly as sent (no double rounding)
+            generator.writeNumber(parser.getText());
+        } else {
+            generator.copyCurrentEvent(parser);
+        }
+    }
+
+    private String truncate(String body) {
+        if (body.length() > maxBodySize) {
+            return body.substring(0, maxBodySize) + TRUNCATED_SUFFIX;
+        }
+        return body;
+    }
+
+    private static Map<String, Object> summary(String contentType, int size) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("content_type", contentType);
+        summary.put("size_bytes", size);
+        return summary;
+    }
+
+    private static String mediaTypeOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int separator = contentType.indexOf(';');
+        return (separator >= 0 ? contentType.substring(0, separator) : contentType)
+                .trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isJson(String mediaType) {
+        return mediaType != null && (mediaType.equals("application/json") || mediaType.endsWith("+json"));
+    }
+
+    private static boolean isText(String mediaType) {
+        return mediaType == null || mediaType.isEmpty()
+                || mediaType.startsWith("text/")
+                || mediaType.equals("application/xml")
+                || mediaType.endsWith("+xml");
+    }
+
+    private static Charset charsetOf(String contentType) {
+        if (contentType != null) {
+            int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+            if (index >= 0) {
+                String name = contentType.substring(index + "charset=".length()).split(";", 2)[0]
+                        .trim().replace("\"", "");
+                try {
+                    return Charset.forName(name);
+                } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                    return StandardCharsets.UTF_8;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
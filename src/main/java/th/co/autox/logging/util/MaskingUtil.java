@@ -14,12 +14,19 @@ import java.util.stream.Collectors;
  */
 public class MaskingUtil {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
+    private static final String DEFAULT_MASK_VALUE = "***MASKED***";
     private MaskingUtil() {
         // Utility class
     }
 
+    /**
+     * Holds the mapper so that it is built on first use rather than when the class loads.
+     */
+    private static final class MapperHolder {
+        private static final ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(SensitiveSerializerModifier.module(DEFAULT_MASK_VALUE));
+    }
+
     /**
      * Mask sensitive fields in a JSON string.
      */
@@ -29,13 +36,13 @@ public class MaskingUtil {
         }
 
         try {
-            JsonNode rootNode = objectMapper.readTree(json);
+            JsonNode rootNode = MapperHolder.objectMapper.readTree(json);
             Set<String> fieldsLowerCase = fieldsToMask.stream()
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
             maskFields(rootNode, fieldsLowerCase, maskValue);
-            return objectMapper.writeValueAsString(rootNode);
+            return MapperHolder.objectMapper.writeValueAsString(rootNode);
         } catch (JsonProcessingException e) {
             // If not valid JSON, return as-is
             return json;
@@ -44,6 +51,8 @@ public class MaskingUtil {
 
     /**
      * Mask sensitive fields in an object.
+     * Properties annotated with {@link Sensitive} are masked while the object is
+     * converted to a tree; fields matching {@code fieldsToMask} are masked in the tree.
      */
     public static Object maskObjectFields(Object obj, List<String> fieldsToMask, String maskValue) {
         if (obj == null) {
@@ -51,10 +60,13 @@ public class MaskingUtil {
         }
 
         try {
-            String json = objectMapper.writeValueAsString(obj);
-            String maskedJson = maskJsonFields(json, fieldsToMask, maskValue);
-            return objectMapper.readTree(maskedJson);
-        } catch (JsonProcessingException e) {
+            JsonNode rootNode = MapperHolder.objectMapper.valueToTree(obj);
+            Set<String> fieldsLowerCase = fieldsToMask.stream()
+                    .map(String::toLowerCase)
+                    .collect(Collectors.toSet());
+            maskFields(rootNode, fieldsLowerCase, maskValue);
+            return rootNode;
+        } catch (IllegalArgumentException e) {
             return obj;
         }
     }
@@ -0,0 +1,60 @@
+package th.co.autox.logging.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a DTO field (or getter) whose value must be masked when the object is logged.
+ *
+ * <pre>
+ * public class LoanApplication {
+ *     &#64;Sensitive
+ *     private String password;
+ *
+ *     &#64;Sensitive(Sensitive.Strategy.LAST_4)
+ *     private String citizenId;
+ *
+ *     &#64;Sensitive(Sensitive.Strategy.HASHED)
+ *     private String email;
+ * }
+ * </pre>
+ *
+ * <p>Applied by {@link SensitiveSerializerModifier} on the logging mapper only; other
+ * mappers of the application (e.g. for HTTP responses) are not affected.</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Sensitive {
+
+    /**
+     * How the value is masked.
+     */
+    Strategy value() default Strategy.FULL;
+
+    /**
+     * Masking strategies.
+     */
+    enum Strategy {
+
+        /**
+         * Replace the value with the configured mask value.
+         */
+        FULL,
+
+        /**
+         * Keep the last 4 characters, e.g. {@code ********1234}.
+         */
+        LAST_4,
+
+        /**
+         * Replace the value with a short SHA-256 fingerprint, e.g. {@code sha256:9f86d081884c7d65},
+         * so that equal values can be correlated across entries. Not suitable for
+         * low-entropy values, which can be recovered by brute force.
+         */
+        HASHED
+    }
+}
@@ -0,0 +1,102 @@
+package th.co.autox.logging.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jackson {@link BeanSerializerModifier} that masks properties annotated with
+ * {@link Sensitive} while the bean is serialized.
+ *
+ * <p>The annotation is looked up once per class, when Jackson builds the bean
+ * serializer; Jackson caches that serializer, so later objects of the class are
+ * masked without reflection, in the same pass that writes them.</p>
+ */
+public class SensitiveSerializerModifier extends BeanSerializerModifier {
+
+    private static final int HASH_BYTES = 8;
+
+    private final Map<Sensitive.Strategy, JsonSerializer<Object>> serializers =
+            new EnumMap<>(Sensitive.Strategy.class);
+
+    public SensitiveSerializerModifier(String maskValue) {
+        for (Sensitive.Strategy strategy : Sensitive.Strategy.values()) {
+            serializers.put(strategy, new MaskingSerializer(strategy, maskValue));
+        }
+    }
+
+    /**
+     * Module that registers this modifier on a mapper.
+     */
+    public static SimpleModule module(String maskValue) {
+        SimpleModule module = new SimpleModule("SensitiveDataModule");
+        module.setSerializerModifier(new SensitiveSerializerModifier(maskValue));
+        return module;
+    }
+
+    @Override
+    public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                     List<BeanPropertyWriter> beanProperties) {
+        for (BeanPropertyWriter writer : beanProperties) {
+            Sensitive sensitive = writer.getAnnotation(Sensitive.class);
+            if (sensitive != null) {
+                writer.assignSerializer(serializers.get(sensitive.value()));
+            }
+        }
+        return beanProperties;
+    }
+
+    /**
+     * Writes a masked string in place of the property value.
+     */
+    static final class MaskingSerializer extends StdSerializer<Object> {
+
+        private final Sensitive.Strategy strategy;
+        private final String maskValue;
+
+        MaskingSerializer(Sensitive.Strategy strategy, String maskValue) {
+            super(Object.class);
+            this.strategy = strategy;
+            this.maskValue = maskValue;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeString(mask(String.valueOf(value)));
+        }
+
+        String mask(String value) {
+            return switch (strategy) {
+                case FULL -> maskValue;
+                case LAST_4 -> value.length() <= 4
+                        ? maskValue
+                        : "*".repeat(value.length() - 4) + value.substring(value.length() - 4);
+                case HASHED -> "sha256:" + HexFormat.of().formatHex(sha256(value), 0, HASH_BYTES);
+            };
+        }
+
+        private static byte[] sha256(String value) {
+            try {
+                return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
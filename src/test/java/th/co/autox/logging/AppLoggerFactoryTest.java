@@ -0,0 +1,61 @@
+package th.co.autox.logging;
+
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.core.AppLoggerFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for AppLoggerFactory.
+ */
+class AppLoggerFactoryTest {
+
+    @Test
+    void cacheIsBoundedAndCountsHitsAndMisses() {
+        LoggingProperties properties = new LoggingProperties();
+        properties.getLoggerCache().setMaxSize(100);
+        AppLoggerFactory factory = new AppLoggerFactory("test-app", properties);
+
+        AppLogger first = factory.getLogger("partner.0");
+        assertThat(factory.getLogger("partner.0")).isSameAs(first);
+        for (int i = 0; i < 1000; i++) {
+            factory.getLogger("partner." + i);
+        }
+
+        AppLoggerFactory.CacheStats stats = factory.getCacheStats();
+        assertThat(stats.size()).isEqualTo(100);
+        assertThat(stats.hits()).isEqualTo(2);
+        assertThat(stats.misses()).isEqualTo(1000);
+        assertThat(stats.evictions()).isEqualTo(900);
+    }
+
+    @Test
+    void recentlyUsedLoggersAreKept() {
+        LoggingProperties properties = new LoggingProperties();
+        properties.getLoggerCache().setMaxSize(2);
+        AppLoggerFactory factory = new AppLoggerFactory("test-app", properties);
+
+        AppLogger a = factory.getLogger("a");
+        factory.getLogger("b");
+        factory.getLogger("a");
+        factory.getLogger("c");
+
+        assertThat(factory.getLogger("a")).isSameAs(a);
+        assertThat(factory.getCacheStats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void loggersShareOneObjectMapper() {
+        LoggingProperties properties = new LoggingProperties();
+        AppLoggerFactory factory = new AppLoggerFactory("test-app", properties);
+
+        AppLogger byName = factory.getLogger("tenant.alpha");
+        AppLogger byClass = factory.getLogger(AppLoggerFactoryTest.class);
+        AppLogger direct = new AppLogger(AppLoggerFactoryTest.class, "test-app", properties);
+
+        assertThat(byClass.getObjectMapper()).isSameAs(byName.getObjectMapper());
+        assertThat(direct.getObjectMapper()).isSameAs(byName.getObjectMapper());
+    }
+}
@@ -0,0 +1,44 @@
+package th.co.autox.logging;
+
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AsyncLogDispatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for AsyncLogDispatcher.
+ */
+class AsyncLogDispatcherTest {
+
+    @Test
+    void entriesWithSameCorrelationIdKeepOrder() {
+        LoggingProperties.AsyncSerializationConfig config = new LoggingProperties.AsyncSerializationConfig();
+        config.setThreads(4);
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(config);
+
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int sequence = i;
+            dispatcher.dispatch("corr-1", () -> written.add(sequence));
+        }
+        dispatcher.shutdown();
+
+        assertThat(written).hasSize(1000).isSorted();
+    }
+
+    @Test
+    void entriesAreWrittenOnCallerAfterShutdown() {
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(new LoggingProperties.AsyncSerializationConfig());
+        dispatcher.shutdown();
+
+        List<String> threads = new CopyOnWriteArrayList<>();
+        dispatcher.dispatch(null, () -> threads.add(Thread.currentThread().getName()));
+
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+        assertThat(dispatcher.getPendingCount()).isZero();
+    }
+}
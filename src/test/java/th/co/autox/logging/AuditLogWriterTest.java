@@ -0,0 +1,90 @@
+package th.co.autox.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.core.AuditLogWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for AuditLogWriter and AppLogger audit logging.
+ */
+class AuditLogWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void resetWriter() {
+        AppLogger.configureAuditWriter(null);
+    }
+
+    @Test
+    void concurrentSubmissionsAreAllWritten() throws Exception {
+        Path file = directory.resolve("audit.log");
+        AuditLogWriter writer = new AuditLogWriter(file, 64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            byte[] line = ("{\"n\":" + i + "}\n").getBytes(StandardCharsets.UTF_8);
+            futures.add(CompletableFuture.supplyAsync(() -> writer.submit(line), executor)
+                    .thenCompose(future -> future));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        executor.shutdown();
+        writer.close();
+
+        assertThat(Files.readAllLines(file)).hasSize(800);
+        assertThat(writer.getRecordCount()).isEqualTo(800);
+        assertThat(writer.getBatchCount()).isBetween(1L, 800L);
+    }
+
+    @Test
+    void submitAfterCloseFails() throws Exception {
+        AuditLogWriter writer = new AuditLogWriter(directory.resolve("audit.log"), 64);
+        writer.close();
+
+        assertThat(writer.submit(new byte[]{'x'})).isCompletedExceptionally();
+    }
+
+    @Test
+    void auditWritesDurableEntry() throws Exception {
+        Path file = directory.resolve("audit.log");
+        AuditLogWriter writer = new AuditLogWriter(file, 64);
+        AppLogger.configureAuditWriter(writer);
+
+        new AppLogger(AuditLogWriterTest.class).audit("Loan approved", Map.of("loan_id", "L-1"));
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(1);
+        JsonNode entry = new ObjectMapper().readTree(lines.get(0));
+        assertThat(entry.get("type").asText()).isEqualTo("audit");
+        assertThat(entry.get("message").asText()).isEqualTo("Loan approved");
+        assertThat(entry.get("extra").get("loan_id").asText()).isEqualTo("L-1");
+        writer.close();
+    }
+
+    @Test
+    void auditWithoutWriterFails() {
+        AppLogger logger = new AppLogger(AuditLogWriterTest.class);
+
+        assertThatThrownBy(() -> logger.audit("Loan approved", null))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,62 @@
+package th.co.autox.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.model.RawJson;
+import th.co.autox.logging.model.RequestInfo;
+import th.co.autox.logging.util.BodyFormatter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for BodyFormatter and RawJson.
+ */
+class BodyFormatterTest {
+
+    private final LoggingProperties properties = new LoggingProperties();
+    private final BodyFormatter formatter = new BodyFormatter(properties);
+
+    @Test
+    void jsonBodyIsMaskedAndEmbeddedRaw() throws Exception {
+        Object body = formatter.format(bytes("""
+                {"user": "alice", "Password": {"old": "a", "new": "b"},
+                 "items": [{"token": "t-1", "amount": 10.50}], "ok": true}
+                """), "application/json; charset=UTF-8");
+
+        assertThat(body).isInstanceOf(RawJson.class);
+        assertThat(body.toString()).isEqualTo("{\"user\":\"alice\",\"Password\":\"***MASKED***\","
+                + "\"items\":[{\"token\":\"***MASKED***\",\"amount\":10.50}],\"ok\":true}");
+
+        String json = new ObjectMapper().writeValueAsString(RequestInfo.builder().body(body).build());
+        assertThat(json).isEqualTo("{\"body\":" + body + "}");
+    }
+
+    @Test
+    void invalidJsonFallsBackToText() {
+        assertThat(formatter.format(bytes("{\"a\": 1"), "application/json")).isEqualTo("{\"a\": 1");
+        assertThat(formatter.format(bytes("{} {}"), "application/problem+json")).isEqualTo("{} {}");
+    }
+
+    @Test
+    void textIsTruncatedAndOtherBodiesAreSummarized() {
+        properties.getRequest().setMaxBodySize(5);
+        BodyFormatter small = new BodyFormatter(properties);
+
+        assertThat(small.format(bytes("hello world"), "text/plain")).isEqualTo("hello... [TRUNCATED]");
+        assertThat(small.format(bytes("{\"a\":12345}"), "application/json"))
+                .isEqualTo(Map.of("content_type", "application/json", "size_bytes", 11));
+        assertThat(small.format(bytes("password=secret"), "application/x-www-form-urlencoded"))
+                .isEqualTo(Map.of("content_type", "application/x-www-form-urlencoded", "size_bytes", 15));
+        assertThat(small.format(new byte[] {1, 2, 3}, "image/png"))
+                .isEqualTo(Map.of("content_type", "image/png", "size_bytes", 3));
+        assertThat(small.format(new byte[0], "text/plain")).isNull();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,141 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import th.co.autox.logging.appender.BulkFormat;
+import th.co.autox.logging.appender.BulkShippingAppender;
+import th.co.autox.logging.appender.InMemoryBulkSink;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for BulkShippingAppender.
+ */
+class BulkShippingAppenderTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final InMemoryBulkSink sink = new InMemoryBulkSink();
+
+    @Test
+    void flushesFullBatchesAndRemainderOnStop() throws Exception {
+        BulkShippingAppender appender = appender();
+        appender.setBatchSize(10);
+        appender.setFlushIntervalMs(60_000);
+        appender.start();
+
+        append(appender, 25);
+        awaitRequests(2);
+        assertThat(sink.getLines()).hasSize(20);
+
+        appender.stop();
+        assertThat(sink.getRequestCount()).isEqualTo(3);
+        assertThat(sink.getLines()).hasSize(25);
+        assertThat(new ObjectMapper().readTree(sink.getLines().get(0)).get("message").asText())
+                .isEqualTo("event 0");
+    }
+
+    @Test
+    void flushesPartialBatchAfterInterval() throws Exception {
+        BulkShippingAppender appender = appender();
+        appender.setFlushIntervalMs(50);
+        appender.start();
+
+        append(appender, 3);
+        awaitRequests(1);
+
+        assertThat(sink.getLines()).hasSize(3);
+        appender.stop();
+    }
+
+    @Test
+    void retriesRetryableFailures() {
+        sink.failNext(2, 503);
+        BulkShippingAppender appender = appender();
+        appender.setRetryBackoffMs(1);
+        appender.start();
+
+        append(appender, 5);
+        appender.stop();
+
+        assertThat(sink.getAttemptCount()).isEqualTo(3);
+        assertThat(sink.getLines()).hasSize(5);
+        assertThat(appender.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void dropsBatchOnClientError() {
+        sink.failNext(1, 400);
+        BulkShippingAppender appender = appender();
+        appender.start();
+
+        append(appender, 5);
+        appender.stop();
+
+        assertThat(sink.getAttemptCount()).isEqualTo(1);
+        assertThat(appender.getFailedBatchCount()).isEqualTo(1);
+        assertThat(appender.getDroppedCount()).isEqualTo(5);
+    }
+
+    @Test
+    void dropsEventsWhenQueueIsFull() {
+        sink.setLatencyMs(100);
+        BulkShippingAppender appender = appender();
+        appender.setQueueCapacity(10);
+        appender.setBatchSize(5);
+        appender.setFlushIntervalMs(10);
+        appender.start();
+
+        append(appender, 200);
+        appender.stop();
+
+        assertThat(appender.getDroppedCount()).isPositive();
+        assertThat(appender.getShippedCount() + appender.getDroppedCount()).isEqualTo(200);
+        assertThat(sink.getLines()).hasSize((int) appender.getShippedCount());
+    }
+
+    @Test
+    void writesLokiPushPayload() {
+        BulkShippingAppender appender = appender();
+        appender.setFormat(BulkFormat.LOKI);
+        appender.setLabels("app=orders,env=test");
+        appender.start();
+
+        append(appender, 2);
+        appender.stop();
+
+        assertThat(sink.getLines()).hasSize(2);
+        assertThat(sink.getLines().get(1)).contains("\"message\":\"event 1\"");
+    }
+
+    private BulkShippingAppender appender() {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.start();
+
+        BulkShippingAppender appender = new BulkShippingAppender();
+        appender.setContext(context);
+        appender.setName("bulk-test");
+        appender.setEncoder(encoder);
+        appender.setSink(sink);
+        return appender;
+    }
+
+    private void append(BulkShippingAppender appender, int count) {
+        for (int i = 0; i < count; i++) {
+            appender.doAppend(new LoggingEvent("test", context.getLogger("test.Bulk"),
+                    Level.INFO, "event " + i, null, null));
+        }
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sink.getRequestCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
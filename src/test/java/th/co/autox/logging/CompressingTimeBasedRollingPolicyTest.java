@@ -0,0 +1,131 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import th.co.autox.logging.appender.BlockGzip;
+import th.co.autox.logging.appender.CompressingTimeBasedRollingPolicy;
+import th.co.autox.logging.appender.CorrelationLookup;
+import th.co.autox.logging.appender.IndexingRollingFileAppender;
+import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for CompressingTimeBasedRollingPolicy and BlockGzip.
+ */
+class CompressingTimeBasedRollingPolicyTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsRangesWithoutDecompressingTheWholeArchive() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            content.append("{\"n\":").append(i).append(",\"pad\":\"").append("x".repeat(i % 50)).append("\"}\n");
+        }
+        content.append("y".repeat(5000)).append('\n');
+        content.append("last line without separator");
+        Path source = dir.resolve("app.json.log");
+        Files.writeString(source, content);
+        Path archive = dir.resolve("app.json.log.gz");
+
+        BlockGzip.compress(source, archive, 1024, Deflater.BEST_SPEED);
+
+        byte[] original = Files.readAllBytes(source);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive))) {
+            assertThat(in.readAllBytes()).isEqualTo(original);
+        }
+        assertThat(Files.size(archive)).isLessThan(original.length / 2);
+        try (BlockGzip.Reader reader = new BlockGzip.Reader(archive)) {
+            assertThat(reader.size()).isEqualTo(original.length);
+            assertThat(reader.blockCount()).isGreaterThan(10);
+            // A range across several blocks
+            assertThat(new String(reader.read(1000, 5000), StandardCharsets.UTF_8))
+                    .isEqualTo(content.substring(1000, 6000));
+            int offset = content.indexOf("{\"n\":1234,");
+            assertThat(reader.readLine(offset)).isEqualTo("{\"n\":1234,\"pad\":\"" + "x".repeat(34) + "\"}");
+            assertThat(reader.readLine(content.indexOf("yyy"))).isEqualTo("y".repeat(5000));
+            assertThat(reader.readLine(content.indexOf("last line"))).isEqualTo("last line without separator");
+            assertThat(reader.readLine(original.length)).isNull();
+        }
+    }
+
+    @Test
+    void compressesRolledFilesInTheBackgroundAndKeepsThemSearchable() throws Exception {
+        IndexingRollingFileAppender appender = new IndexingRollingFileAppender();
+        appender.setContext(context);
+        appender.setName("COMPRESSED_FILE");
+        appender.setFile(dir.resolve("app.json.log").toString());
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        appender.setEncoder(encoder);
+        CompressingTimeBasedRollingPolicy<ILoggingEvent> policy = new CompressingTimeBasedRollingPolicy<>();
+        policy.setContext(context);
+        policy.setFileNamePattern(dir.resolve("app.%d{yyyy-MM-dd_HH-mm-ss}.json.log.gz").toString());
+        policy.setParent(appender);
+        policy.start();
+        appender.setRollingPolicy(policy);
+        appender.start();
+
+        for (int i = 0; i < 200; i++) {
+            log(appender, i % 2 == 0 ? "order-1" : "order-2", "line " + i);
+        }
+        // The first line of the next second rolls the file over
+        Thread.sleep(1100);
+        log(appender, "order-3", "after rollover");
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((policy.getCompressedCount() == 0 || policy.getPendingCompressionCount() > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        List<String> names;
+        try (Stream<Path> files = Files.list(dir)) {
+            names = files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+        assertThat(names).anyMatch(name -> name.endsWith(".json.log.gz"))
+                .anyMatch(name -> name.endsWith(".json.log.gz.bidx"))
+                .anyMatch(name -> name.endsWith(".json.log.gz.cidx"))
+                .noneMatch(name -> name.matches("app\\.[0-9_-]+\\.json\\.log"));
+        assertThat(policy.getCompressionFailedCount()).isZero();
+
+        CorrelationLookup.Result result = CorrelationLookup.find("order-1", List.of(dir));
+        assertThat(result.matches()).hasSize(100)
+                .allMatch(match -> match.file().toString().endsWith(".gz"))
+                .allMatch(match -> match.line().contains("\"correlation_id\":\"order-1\""));
+        assertThat(result.scannedFiles()).isZero();
+        assertThat(result.matches().get(99).line()).contains("\"message\":\"line 198\"");
+        appender.stop();
+    }
+
+    private void log(IndexingRollingFileAppender appender, String correlationId, String message) {
+        MDC.put(CorrelationContext.CORRELATION_ID_MDC_KEY, correlationId);
+        try {
+            appender.doAppend(new LoggingEvent("test", context.getLogger("compress-test"), Level.INFO, message,
+                    null, null));
+        } finally {
+            MDC.remove(CorrelationContext.CORRELATION_ID_MDC_KEY);
+        }
+    }
+}
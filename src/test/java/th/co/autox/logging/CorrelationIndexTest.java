@@ -0,0 +1,136 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.rolling.DefaultTimeBasedFileNamingAndTriggeringPolicy;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import th.co.autox.logging.appender.CorrelationIndex;
+import th.co.autox.logging.appender.CorrelationLookup;
+import th.co.autox.logging.appender.IndexingRollingFileAppender;
+import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for IndexingRollingFileAppender, CorrelationIndex and CorrelationLookup.
+ */
+class CorrelationIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private DefaultTimeBasedFileNamingAndTriggeringPolicy<ILoggingEvent> triggering;
+
+    @Test
+    void rolledFilesAreSealedAndLookedUpThroughTheIndex() throws IOException {
+        IndexingRollingFileAppender appender = startAppender(time(2026, 1, 1));
+        for (int i = 0; i < 50; i++) {
+            append(appender, "corr-" + (i % 5), "line " + i);
+        }
+        triggering.setCurrentTime(time(2026, 1, 2));
+        append(appender, "corr-1", "after rollover");
+        append(appender, "corr-2", "other request");
+
+        Path rolled = directory.resolve("app.2026-01-01.log");
+        assertThat(CorrelationIndex.indexFor(rolled)).exists();
+        assertThat(CorrelationIndex.journalFor(rolled)).doesNotExist();
+
+        CorrelationLookup.Result result = CorrelationLookup.find("corr-1", List.of(directory));
+
+        assertThat(result.matches()).hasSize(11);
+        assertThat(result.matches()).allMatch(match -> match.line().contains("\"correlation_id\":\"corr-1\""));
+        assertThat(result.matches().get(0).line()).contains("line 1");
+        assertThat(result.matches().get(10).line()).contains("after rollover");
+        assertThat(result.indexedFiles()).isEqualTo(2);
+        assertThat(result.scannedFiles()).isZero();
+        appender.stop();
+    }
+
+    @Test
+    void filesWithoutIndexAreScanned() throws IOException {
+        IndexingRollingFileAppender appender = startAppender(time(2026, 1, 1));
+        for (int i = 0; i < 20; i++) {
+            append(appender, "corr-" + (i % 2), "line " + i);
+        }
+        triggering.setCurrentTime(time(2026, 1, 2));
+        append(appender, "corr-0", "after rollover");
+        appender.stop();
+        Files.delete(CorrelationIndex.indexFor(directory.resolve("app.2026-01-01.log")));
+
+        CorrelationLookup.Result result = CorrelationLookup.find("corr-0", List.of(directory));
+
+        assertThat(result.matches()).hasSize(11);
+        assertThat(result.scannedFiles()).isEqualTo(1);
+        assertThat(result.indexedFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void sealedIndexReturnsOffsetsOfAllLinesWithTheId() throws IOException {
+        Path journal = directory.resolve("test.log.cidx.journal");
+        try (CorrelationIndex.Writer writer = new CorrelationIndex.Writer(journal)) {
+            for (int i = 0; i < 10_000; i++) {
+                writer.append("id-" + (i % 100), i * 10L);
+            }
+        }
+        Path index = directory.resolve("test.log.cidx");
+        CorrelationIndex.seal(journal, index);
+
+        long[] offsets = CorrelationIndex.offsets(index, "id-42");
+
+        assertThat(offsets).hasSize(100);
+        assertThat(offsets[0]).isEqualTo(420);
+        assertThat(offsets[99]).isEqualTo(99_420);
+        assertThat(CorrelationIndex.offsets(index, "missing")).isEmpty();
+        assertThat(journal).doesNotExist();
+    }
+
+    private IndexingRollingFileAppender startAppender(long currentTime) {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(loggerContext);
+        encoder.start();
+
+        IndexingRollingFileAppender appender = new IndexingRollingFileAppender();
+        appender.setContext(loggerContext);
+        appender.setFile(directory.resolve("app.log").toString());
+        appender.setEncoder(encoder);
+
+        TimeBasedRollingPolicy<ILoggingEvent> policy = new TimeBasedRollingPolicy<>();
+        policy.setContext(loggerContext);
+        policy.setFileNamePattern(directory.resolve("app.%d{yyyy-MM-dd}.log").toString());
+        policy.setParent(appender);
+        triggering = new DefaultTimeBasedFileNamingAndTriggeringPolicy<>();
+        triggering.setCurrentTime(currentTime);
+        policy.setTimeBasedFileNamingAndTriggeringPolicy(triggering);
+        policy.start();
+        appender.setRollingPolicy(policy);
+        appender.start();
+        return appender;
+    }
+
+    private void append(IndexingRollingFileAppender appender, String correlationId, String message) {
+        LoggingEvent event = new LoggingEvent(CorrelationIndexTest.class.getName(),
+                loggerContext.getLogger("index-test"), Level.INFO, message, null, null);
+        event.setMDCPropertyMap(Map.of(CorrelationContext.CORRELATION_ID_MDC_KEY, correlationId));
+        event.setTimeStamp(triggering.getCurrentTime());
+        appender.doAppend(event);
+    }
+
+    private static long time(int year, int month, int day) {
+        return LocalDateTime.of(year, month, day, 12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,129 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.debug.DebugOverrideTurboFilter;
+import th.co.autox.logging.debug.DebugOverrides;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for DebugOverrides and DebugOverrideTurboFilter.
+ */
+class DebugOverridesTest {
+
+    @BeforeEach
+    void setUp() {
+        LoggingProperties.DebugOverrideConfig config = new LoggingProperties.DebugOverrideConfig();
+        config.setSecret("test-secret");
+        config.setMaxTtlSeconds(600);
+        DebugOverrides.configure(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DebugOverrides.endRequest();
+        DebugOverrides.registered().keySet().forEach(DebugOverrides::unregister);
+        CorrelationContext.clear();
+    }
+
+    @Test
+    void signedHeaderEnablesDebugForItsCorrelationIdOnly() {
+        String token = DebugOverrides.sign("corr-1", expiryInSeconds(60));
+
+        assertThat(DebugOverrides.beginRequest("corr-2", token)).isFalse();
+        assertThat(DebugOverrides.isActive()).isFalse();
+
+        CorrelationContext.setCorrelationId("corr-1");
+        assertThat(DebugOverrides.beginRequest("corr-1", token)).isTrue();
+        assertThat(DebugOverrides.isEnabledForCurrentRequest()).isTrue();
+        assertThat(DebugOverrides.propagationHeader()).startsWith(token.substring(0, token.indexOf('.')));
+
+        DebugOverrides.endRequest();
+        assertThat(DebugOverrides.isActive()).isFalse();
+        assertThat(DebugOverrides.isEnabledForCurrentRequest()).isFalse();
+    }
+
+    @Test
+    void expiredTamperedAndOverlongTokensAreRejected() {
+        String expired = DebugOverrides.sign("corr-1", expiryInSeconds(-1));
+        String overlong = DebugOverrides.sign("corr-1", expiryInSeconds(3600));
+        String valid = DebugOverrides.sign("corr-1", expiryInSeconds(60));
+        String tampered = valid.substring(0, valid.length() - 2) + "AA";
+
+        assertThat(DebugOverrides.beginRequest("corr-1", expired)).isFalse();
+        assertThat(DebugOverrides.beginRequest("corr-1", overlong)).isFalse();
+        assertThat(DebugOverrides.beginRequest("corr-1", tampered)).isFalse();
+        assertThat(DebugOverrides.beginRequest("corr-1", "garbage")).isFalse();
+    }
+
+    @Test
+    void registeredCorrelationIdRaisesLevelThroughTurboFilter() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = context.getLogger("test.DebugOverride");
+        logger.setLevel(Level.INFO);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+        DebugOverrideTurboFilter filter = new DebugOverrideTurboFilter();
+        filter.install(context);
+        try {
+            CorrelationContext.setCorrelationId("corr-9");
+            logger.debug("before");
+            DebugOverrides.register("corr-9", 60);
+            logger.debug("during");
+            logger.trace("trace stays off");
+            CorrelationContext.setCorrelationId("corr-other");
+            logger.debug("other request");
+
+            assertThat(appender.list).extracting(ILoggingEvent::getMessage).containsExactly("during");
+        } finally {
+            filter.stop();
+            logger.detachAppender(appender);
+            logger.setLevel(null);
+        }
+        assertThat(context.getTurboFilterList()).doesNotContain(filter);
+    }
+
+    @Test
+    void appLoggerWritesDebugForOverriddenRequestWithoutTurboFilter() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = context.getLogger("test.DebugOverrideAppLogger");
+        logger.setLevel(Level.INFO);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            AppLogger log = new AppLogger("test.DebugOverrideAppLogger", "test-app", new LoggingProperties());
+            CorrelationContext.setCorrelationId("corr-5");
+            log.debug("not written");
+            DebugOverrides.register("corr-5", 60);
+            log.debug("written");
+
+            assertThat(appender.list).hasSize(1);
+            assertThat(appender.list.get(0).getLevel()).isEqualTo(Level.DEBUG);
+            assertThat(appender.list.get(0).getMessage()).contains("\"message\":\"written\"");
+        } finally {
+            logger.detachAppender(appender);
+            logger.setLevel(null);
+        }
+    }
+
+    private static long expiryInSeconds(long seconds) {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + seconds;
+    }
+}
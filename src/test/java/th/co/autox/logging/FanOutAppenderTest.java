@@ -0,0 +1,147 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.ContextAware;
+import ch.qos.logback.core.spi.LifeCycle;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import th.co.autox.logging.appender.EncodedConsoleAppender;
+import th.co.autox.logging.appender.EncodedLine;
+import th.co.autox.logging.appender.EncodedLineAppender;
+import th.co.autox.logging.appender.FanOutAppender;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for FanOutAppender and EncodedConsoleAppender.
+ */
+class FanOutAppenderTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    @Test
+    void encodesOnceAndIsolatesFailingAppenders() {
+        CountingEncoder encoder = new CountingEncoder();
+        RecordingAppender first = start(new RecordingAppender("first", false));
+        RecordingAppender failing = start(new RecordingAppender("failing", true));
+        RecordingAppender second = start(new RecordingAppender("second", false));
+        ListAppender<ILoggingEvent> plain = start(new ListAppender<>());
+
+        FanOutAppender fanOut = new FanOutAppender();
+        fanOut.setContext(context);
+        fanOut.setName("FAN_OUT");
+        fanOut.setEncoder(start(encoder));
+        fanOut.setQueueSize(64);
+        fanOut.addAppender(first);
+        fanOut.addAppender(failing);
+        fanOut.addAppender(second);
+        fanOut.addAppender(plain);
+        fanOut.start();
+        for (int i = 0; i < 500; i++) {
+            fanOut.doAppend(event("message " + i));
+        }
+        fanOut.stop();
+
+        assertThat(encoder.calls.get()).isEqualTo(500);
+        assertThat(first.lines).hasSize(500);
+        assertThat(second.lines).isEqualTo(first.lines);
+        assertThat(first.lines.get(0)).contains("\"message\":\"message 0\"").endsWith(System.lineSeparator());
+        assertThat(plain.list).hasSize(500);
+        assertThat(fanOut.getFailedCount()).isEqualTo(500);
+        assertThat(fanOut.getDroppedCount()).isZero();
+        // Every buffer went back to the pool once all appenders had written it
+        assertThat(fanOut.getIdleBufferCount()).isEqualTo((int) fanOut.getAllocatedBufferCount());
+    }
+
+    @Test
+    void consoleAppenderWritesSharedBytes() throws IOException {
+        PrintStream original = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            EncodedConsoleAppender console = new EncodedConsoleAppender();
+            console.setName("JSON_CONSOLE");
+            console.setImmediateFlush(false);
+            console.setEncoder(start(new CountingEncoder()));
+            start(console);
+
+            FanOutAppender fanOut = new FanOutAppender();
+            fanOut.setContext(context);
+            fanOut.setEncoder(start(new JsonLogEncoder()));
+            fanOut.setQueueSize(0);
+            fanOut.addAppender(console);
+            fanOut.start();
+            fanOut.doAppend(event("to the console"));
+            fanOut.stop();
+            console.stop();
+        } finally {
+            System.setOut(original);
+        }
+
+        assertThat(captured.toString(StandardCharsets.UTF_8))
+                .contains("\"message\":\"to the console\"")
+                .endsWith(System.lineSeparator());
+    }
+
+    private LoggingEvent event(String message) {
+        return new LoggingEvent("test", context.getLogger("fan-out-test"), Level.INFO, message, null, null);
+    }
+
+    private <T extends LifeCycle> T start(T component) {
+        if (component instanceof ContextAware aware) {
+            aware.setContext(context);
+        }
+        component.start();
+        return component;
+    }
+
+    private static final class CountingEncoder extends JsonLogEncoder {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void encodeTo(ILoggingEvent event, OutputStream out) throws IOException {
+            calls.incrementAndGet();
+            super.encodeTo(event, out);
+        }
+    }
+
+    private static final class RecordingAppender extends AppenderBase<ILoggingEvent> implements EncodedLineAppender {
+
+        private final List<String> lines = new CopyOnWriteArrayList<>();
+        private final boolean failing;
+
+        RecordingAppender(String name, boolean failing) {
+            this.failing = failing;
+            setName(name);
+        }
+
+        @Override
+        public void appendEncoded(ILoggingEvent event, EncodedLine line) throws IOException {
+            if (failing) {
+                throw new IOException("disk full");
+            }
+            lines.add(new String(line.array(), 0, line.length(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            throw new UnsupportedOperationException("Events must arrive encoded");
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import th.co.autox.logging.appender.FanOutAppender;
+import th.co.autox.logging.appender.GatheringStdoutAppender;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for GatheringStdoutAppender.
+ */
+class GatheringStdoutAppenderTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    @Test
+    void batchesWholeLinesUpToThePipeBufferSize() {
+        RecordingStdoutAppender appender = startAppender();
+        // Hold the writer until all lines are queued, so batches do not depend on timing
+        appender.gate = new CountDownLatch(1);
+        for (int i = 0; i < 2000; i++) {
+            appender.doAppend(event(i % 500 == 0 ? "x".repeat(6000) : "message " + i));
+        }
+        appender.gate.countDown();
+        appender.stop();
+
+        List<String> writes = appender.writes;
+        String output = String.join("", writes);
+        assertThat(output.split(System.lineSeparator())).hasSize(2000);
+        assertThat(output).contains("\"message\":\"message 1\"", "\"message\":\"message 1999\"");
+        assertThat(appender.getLineCount()).isEqualTo(2000);
+        assertThat(appender.getWriteCount()).isEqualTo(writes.size()).isLessThan(2000 / 5);
+        for (String write : writes) {
+            assertThat(write).endsWith(System.lineSeparator());
+            int bytes = write.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes > GatheringStdoutAppender.PIPE_BUF) {
+                // Only a line longer than PIPE_BUF is written on its own
+                assertThat(write.split(System.lineSeparator())).hasSize(1);
+            }
+        }
+    }
+
+    @Test
+    void writesLinesEncodedByAFanOutAppender() {
+        RecordingStdoutAppender appender = startAppender();
+        FanOutAppender fanOut = new FanOutAppender();
+        fanOut.setContext(context);
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        fanOut.setEncoder(encoder);
+        fanOut.setQueueSize(0);
+        fanOut.addAppender(appender);
+        fanOut.start();
+        for (int i = 0; i < 100; i++) {
+            fanOut.doAppend(event("shared " + i));
+        }
+        appender.stop();
+        fanOut.stop();
+
+        assertThat(String.join("", appender.writes)).contains("\"message\":\"shared 99\"");
+        assertThat(appender.getLineCount()).isEqualTo(100);
+        // Lines were released after writing, so every buffer is back in the pool
+        assertThat(fanOut.getIdleBufferCount()).isEqualTo((int) fanOut.getAllocatedBufferCount());
+    }
+
+    private RecordingStdoutAppender startAppender() {
+        RecordingStdoutAppender appender = new RecordingStdoutAppender();
+        appender.setContext(context);
+        appender.setName("JSON_STDOUT");
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        appender.setEncoder(encoder);
+        appender.setMaxFlushTimeMs(10_000);
+        appender.start();
+        return appender;
+    }
+
+    private LoggingEvent event(String message) {
+        return new LoggingEvent("test", context.getLogger("stdout-test"), Level.INFO, message, null, null);
+    }
+
+    /**
+     * Records the bytes of each write call instead of writing to the process's stdout.
+     */
+    private static final class RecordingStdoutAppender extends GatheringStdoutAppender {
+
+        private final List<String> writes = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        protected GatheringByteChannel openChannel() {
+            return new GatheringByteChannel() {
+                @Override
+                public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                    StringBuilder written = new StringBuilder();
+                    long total = 0;
+                    for (int i = offset; i < offset + length; i++) {
+                        total += sources[i].remaining();
+                        written.append(StandardCharsets.UTF_8.decode(sources[i]));
+                    }
+                    writes.add(written.toString());
+                    return total;
+                }
+
+                @Override
+                public long write(ByteBuffer[] sources) throws IOException {
+                    return write(sources, 0, sources.length);
+                }
+
+                @Override
+                public int write(ByteBuffer source) throws IOException {
+                    return (int) write(new ByteBuffer[]{source}, 0, 1);
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
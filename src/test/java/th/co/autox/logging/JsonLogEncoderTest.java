@@ -0,0 +1,83 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for JsonLogEncoder.
+ */
+class JsonLogEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesFramesCausesAndSuppressed() throws Exception {
+        IllegalStateException failure = new IllegalStateException("outer", new IOException("inner"));
+        failure.addSuppressed(new IllegalArgumentException("suppressed"));
+
+        JsonNode error = encode(encoder(), failure).get("error");
+
+        assertThat(error.get("class").asText()).isEqualTo(IllegalStateException.class.getName());
+        assertThat(error.get("message").asText()).isEqualTo("outer");
+        assertThat(error.get("stack_trace")).isNotEmpty();
+        assertThat(error.get("cause").get("class").asText()).isEqualTo(IOException.class.getName());
+        assertThat(error.get("suppressed").get(0).get("message").asText()).isEqualTo("suppressed");
+    }
+
+    @Test
+    void elidesFramesSharedWithEnclosingTrace() throws Exception {
+        JsonNode cause = encode(encoder(), new RuntimeException("outer", new IOException("inner")))
+                .get("error").get("cause");
+
+        assertThat(cause.get("common_frames_omitted").asInt()).isPositive();
+    }
+
+    @Test
+    void limitsFramesPerThrowable() throws Exception {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setMaxStackFrames(2);
+        encoder.start();
+
+        JsonNode error = encode(encoder, new RuntimeException("boom")).get("error");
+
+        assertThat(error.get("stack_trace")).hasSize(2);
+        assertThat(error.get("frames_omitted").asInt()).isPositive();
+    }
+
+    @Test
+    void limitsCauseDepth() throws Exception {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setMaxThrowableDepth(2);
+        encoder.start();
+
+        Throwable chain = new RuntimeException("1", new RuntimeException("2", new RuntimeException("3")));
+        JsonNode cause = encode(encoder, chain).get("error").get("cause");
+
+        assertThat(cause.get("message").asText()).isEqualTo("2");
+        assertThat(cause.has("cause")).isFalse();
+        assertThat(cause.get("truncated").asBoolean()).isTrue();
+    }
+
+    private JsonLogEncoder encoder() {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.start();
+        return encoder;
+    }
+
+    private JsonNode encode(JsonLogEncoder encoder, Throwable throwable) throws IOException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        LoggingEvent event = new LoggingEvent("test", context.getLogger("test.Logger"),
+                Level.ERROR, "failed", throwable, null);
+        return objectMapper.readTree(encoder.encode(event));
+    }
+}
@@ -0,0 +1,59 @@
+package th.co.autox.logging;
+
+import th.co.autox.logging.metrics.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for LatencyHistogram.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.drain();
+
+        assertThat(snapshot.getCount()).isEqualTo(100_000);
+        assertThat(snapshot.getMax()).isEqualTo(100_000);
+        assertThat(snapshot.getMean()).isCloseTo(50_000.5, within(0.01));
+        assertThat(snapshot.getValueAtPercentile(50)).isBetween(50_000L, 51_500L);
+        assertThat(snapshot.getValueAtPercentile(99)).isBetween(99_000L, 100_000L);
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(100_000);
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 64; value++) {
+            histogram.record(value);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.drain();
+
+        assertThat(snapshot.getValueAtPercentile(50)).isEqualTo(31);
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(63);
+    }
+
+    @Test
+    void drainResetsTheHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(250);
+        histogram.record(-5);
+
+        LatencyHistogram.Snapshot first = histogram.drain();
+        LatencyHistogram.Snapshot second = histogram.drain();
+
+        assertThat(first.getCount()).isEqualTo(2);
+        assertThat(first.getValueAtPercentile(0)).isZero();
+        assertThat(second.getCount()).isZero();
+        assertThat(second.getMax()).isZero();
+        assertThat(second.getValueAtPercentile(99)).isZero();
+    }
+}
@@ -0,0 +1,77 @@
+package th.co.autox.logging;
+
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AppLoggerFactory;
+import th.co.autox.logging.shedding.LoadSheddingController;
+import th.co.autox.logging.shedding.SheddingLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for LoadSheddingController.
+ */
+class LoadSheddingControllerTest {
+
+    private LoadSheddingController controller;
+
+    @BeforeEach
+    void setUp() {
+        LoggingProperties properties = new LoggingProperties();
+        properties.getShedding().setRecoverySamples(3);
+        controller = new LoadSheddingController(new AppLoggerFactory("test-app", properties), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        controller.stop();
+    }
+
+    @Test
+    void stepsDownOneLevelPerPressuredCheck() {
+        assertThat(controller.evaluate(0.95, 0, 0)).isEqualTo(SheddingLevel.DROP_RESPONSE_BODY);
+        assertThat(controller.evaluate(0.10, 0.9, 0)).isEqualTo(SheddingLevel.DROP_REQUEST_BODY);
+        assertThat(controller.evaluate(0.10, 0, 10_000)).isEqualTo(SheddingLevel.SAMPLE_REQUEST_INFO);
+        assertThat(LoadSheddingController.currentLevel()).isEqualTo(SheddingLevel.SAMPLE_REQUEST_INFO);
+    }
+
+    @Test
+    void staysAtMostAggressiveLevel() {
+        for (int i = 0; i < 10; i++) {
+            controller.evaluate(1.0, 1.0, 10_000);
+        }
+        assertThat(LoadSheddingController.currentLevel()).isEqualTo(SheddingLevel.SAMPLE_APPLICATION_INFO);
+    }
+
+    @Test
+    void recoversOnlyAfterConsecutiveRelievedChecks() {
+        controller.evaluate(0.95, 0, 0);
+        controller.evaluate(0.95, 0, 0);
+
+        assertThat(controller.evaluate(0.10, 0, 0)).isEqualTo(SheddingLevel.DROP_REQUEST_BODY);
+        assertThat(controller.evaluate(0.10, 0, 0)).isEqualTo(SheddingLevel.DROP_REQUEST_BODY);
+        assertThat(controller.evaluate(0.10, 0, 0)).isEqualTo(SheddingLevel.DROP_RESPONSE_BODY);
+    }
+
+    @Test
+    void valuesBetweenThresholdsResetRecovery() {
+        controller.evaluate(0.95, 0, 0);
+
+        controller.evaluate(0.10, 0, 0);
+        controller.evaluate(0.10, 0, 0);
+        controller.evaluate(0.70, 0, 0);
+        controller.evaluate(0.10, 0, 0);
+
+        assertThat(LoadSheddingController.currentLevel()).isEqualTo(SheddingLevel.DROP_RESPONSE_BODY);
+    }
+
+    @Test
+    void levelsIncludePreviousReductions() {
+        assertThat(SheddingLevel.NONE.dropsResponseBody()).isFalse();
+        assertThat(SheddingLevel.DROP_REQUEST_BODY.dropsResponseBody()).isTrue();
+        assertThat(SheddingLevel.SAMPLE_APPLICATION_INFO.dropsRequestBody()).isTrue();
+        assertThat(SheddingLevel.SAMPLE_REQUEST_INFO.samplesApplicationInfo()).isFalse();
+    }
+}
@@ -0,0 +1,80 @@
+package th.co.autox.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import th.co.autox.logging.autoconfigure.LoggingRuntimeHints;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.core.LoggingRuntime;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import th.co.autox.logging.encoder.ModelSerializers;
+import th.co.autox.logging.model.LogEntry;
+import th.co.autox.logging.model.RequestInfo;
+import th.co.autox.logging.model.ResponseInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for native-image hints, the hand-written model serializers and lazy mapper creation.
+ */
+class NativeSupportTest {
+
+    @Test
+    void hintsCoverLogbackComponentsModelsAndConfiguration() {
+        RuntimeHints hints = new RuntimeHints();
+        new LoggingRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(JsonLogEncoder.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(LogEntry.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(LogEntry.ErrorInfo.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("logback-structured.xml")).accepts(hints);
+    }
+
+    @Test
+    void modelSerializersMatchBeanSerialization() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("loanId", "L-1");
+        body.put("amounts", List.of(1, 2));
+        LogEntry entry = LogEntry.builder()
+                .timestamp("2026-01-01T00:00:00.000+07:00")
+                .application("app")
+                .message("done")
+                .level("INFO")
+                .levelValue(20000)
+                .type("request")
+                .statusCode(200)
+                .durationMs(12L)
+                .requestBody(RequestInfo.builder().headers(Map.of("Accept", "*/*"))
+                        .queryParams(Map.of("q", "1")).body(body).contentLength(10L).build())
+                .responseBody(ResponseInfo.builder().body("ok").contentType("text/plain").build())
+                .error(LogEntry.ErrorInfo.builder().exceptionClass("java.lang.IllegalStateException")
+                        .stackTrace(new String[]{"a", "b"}).stackHash("00ff").stackCount(3L).build())
+                .timings(Map.of("sections", Map.of("db", 4)))
+                .extra(Map.of("tenant", "t1"))
+                .build();
+
+        ObjectMapper reflective = new ObjectMapper();
+        ObjectMapper handWritten = new ObjectMapper().registerModule(ModelSerializers.module());
+
+        assertThat(handWritten.writeValueAsString(entry)).isEqualTo(reflective.writeValueAsString(entry));
+    }
+
+    @Test
+    void mapperIsBuiltOnFirstLogEvent() {
+        LoggingProperties properties = new LoggingProperties();
+        AppLogger logger = new AppLogger(NativeSupportTest.class, "test-app", properties);
+        LoggingRuntime runtime = LoggingRuntime.of(properties);
+
+        assertThat(runtime.isInitialized()).isFalse();
+
+        logger.info("first");
+
+        assertThat(runtime.isInitialized()).isTrue();
+    }
+}
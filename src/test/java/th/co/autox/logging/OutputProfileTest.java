@@ -0,0 +1,145 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import th.co.autox.logging.encoder.LogEntryWriter;
+import th.co.autox.logging.encoder.OutputProfile;
+import th.co.autox.logging.model.LogEntry;
+import th.co.autox.logging.model.LogType;
+import th.co.autox.logging.model.RequestInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for OutputProfile, LogEntryWriter and the compact mode of JsonLogEncoder.
+ */
+class OutputProfileTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        OutputProfile.configure(OutputProfile.STANDARD);
+        MDC.clear();
+    }
+
+    @Test
+    void standardWriterMatchesJacksonOutput() throws Exception {
+        LogEntry entry = applicationEntry();
+
+        String expected = objectMapper.writeValueAsString(entry);
+        String actual = LogEntryWriter.writeAsString(entry, objectMapper, OutputProfile.STANDARD);
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void compactModeOmitsEmptyAndDefaultFields() throws Exception {
+        OutputProfile profile = OutputProfile.of(true, Map.of(), Map.of());
+
+        String json = LogEntryWriter.writeAsString(applicationEntry(), objectMapper, profile);
+
+        assertThat(json).contains("\"message\":\"hello\"");
+        assertThat(json).doesNotContain("\"@version\"", "\"method\"", "\"uri\"",
+                "\"request_body\"", "\"response_body\"");
+    }
+
+    @Test
+    void compactModeOmitsEmptyRequestInfo() throws Exception {
+        LogEntry entry = applicationEntry();
+        entry.setRequestBody(RequestInfo.builder().build());
+        entry.setResponseBody(RequestInfo.builder().contentType("application/json").build());
+
+        String json = LogEntryWriter.writeAsString(entry, objectMapper, OutputProfile.of(true, Map.of(), Map.of()));
+
+        assertThat(json).doesNotContain("\"request_body\"");
+        assertThat(json).contains("\"response_body\":{\"content_type\":\"application/json\"}");
+    }
+
+    @Test
+    void shortAliasesRenameFields() throws Exception {
+        LoggingProperties.OutputConfig config = new LoggingProperties.OutputConfig();
+        config.setMode(LoggingProperties.OutputMode.COMPACT);
+        config.setShortAliases(true);
+        config.getAliases().put("type", "t");
+
+        String json = LogEntryWriter.writeAsString(applicationEntry(), objectMapper, OutputProfile.from(config));
+
+        assertThat(json).contains("\"msg\":\"hello\"", "\"cid\":\"abc\"", "\"t\":\"application\"");
+        assertThat(json).doesNotContain("\"correlation_id\"");
+    }
+
+    @Test
+    void projectionLimitsFieldsPerType() throws Exception {
+        OutputProfile profile = OutputProfile.of(true, Map.of(),
+                Map.of(LogType.APPLICATION.getValue(), Set.of("message", "level")));
+
+        String json = LogEntryWriter.writeAsString(applicationEntry(), objectMapper, profile);
+
+        assertThat(json).isEqualTo("{\"message\":\"hello\",\"level\":\"INFO\"}");
+    }
+
+    @Test
+    void encoderCompactModeOmitsEmptyFields() {
+        MDC.clear();
+        OutputProfile.configure(OutputProfile.from(compactConfig()));
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.start();
+
+        String json = new String(encoder.encode(event()), StandardCharsets.UTF_8);
+
+        assertThat(json).contains("\"message\":\"hello\"");
+        assertThat(json).doesNotContain("\"method\"", "\"request_body\"", "\"correlation_id\"");
+    }
+
+    @Test
+    void encoderStandardModeKeepsAllFields() {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.start();
+
+        String json = new String(encoder.encode(event()), StandardCharsets.UTF_8);
+
+        assertThat(json).contains("\"@version\":\"1\"", "\"method\":\"\"", "\"uri\":\"\"",
+                "\"request_body\":{}", "\"response_body\":{}");
+        assertThat(json).endsWith(System.lineSeparator());
+    }
+
+    private LoggingProperties.OutputConfig compactConfig() {
+        LoggingProperties.OutputConfig config = new LoggingProperties.OutputConfig();
+        config.setMode(LoggingProperties.OutputMode.COMPACT);
+        config.setFields(Map.of(LogType.REQUEST.getValue(), List.of("message")));
+        return config;
+    }
+
+    private LogEntry applicationEntry() {
+        return LogEntry.builder()
+                .timestamp("2026-02-09T10:15:30.123+07:00")
+                .application("test-app")
+                .message("hello")
+                .loggerName("test.Logger")
+                .threadName("main")
+                .level("INFO")
+                .levelValue(20000)
+                .type(LogType.APPLICATION.getValue())
+                .correlationId("abc")
+                .build();
+    }
+
+    private LoggingEvent event() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        return new LoggingEvent("test", context.getLogger("test.Logger"), Level.INFO, "hello", null, null);
+    }
+}
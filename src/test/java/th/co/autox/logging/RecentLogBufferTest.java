@@ -0,0 +1,146 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import th.co.autox.logging.model.RawJson;
+import th.co.autox.logging.recent.RecentLogAppender;
+import th.co.autox.logging.recent.RecentLogBuffer;
+import th.co.autox.logging.recent.RecentLogsEndpoint;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RecentLogBuffer, RecentLogAppender and RecentLogsEndpoint.
+ */
+class RecentLogBufferTest {
+
+    @Test
+    void keepsTheMostRecentLinesAndFindsThemByCorrelationId() {
+        RecentLogBuffer buffer = new RecentLogBuffer(8, 64);
+        for (int i = 0; i < 20; i++) {
+            add(buffer, i % 2 == 0 ? "even" : "odd", "line-" + i);
+        }
+
+        assertThat(texts(buffer.recent(100))).containsExactly(
+                "line-12", "line-13", "line-14", "line-15", "line-16", "line-17", "line-18", "line-19");
+        assertThat(texts(buffer.recent(2))).containsExactly("line-18", "line-19");
+        assertThat(texts(buffer.find("even", 100))).containsExactly("line-12", "line-14", "line-16", "line-18");
+        assertThat(texts(buffer.find("odd", 2))).containsExactly("line-17", "line-19");
+        assertThat(buffer.find("missing", 100)).isEmpty();
+        assertThat(buffer.stats().written()).isEqualTo(20);
+    }
+
+    @Test
+    void footprintIsFixedAndLongLinesAreTruncated() {
+        RecentLogBuffer buffer = new RecentLogBuffer(100, 16);
+        RecentLogBuffer.Stats before = buffer.stats();
+
+        for (int i = 0; i < 10_000; i++) {
+            add(buffer, "corr-" + i, "x".repeat(i % 40));
+        }
+
+        RecentLogBuffer.Stats after = buffer.stats();
+        assertThat(after.capacity()).isEqualTo(128);
+        assertThat(after.memoryBytes()).isEqualTo(before.memoryBytes());
+        assertThat(after.truncated()).isPositive();
+        RecentLogBuffer.Entry last = buffer.find("corr-9999", 1).get(0);
+        assertThat(last.truncated()).isTrue();
+        assertThat(last.line()).hasSize(16);
+        assertThat(texts(buffer.find("corr-9965", 10))).containsExactly("x".repeat(5));
+        assertThat(buffer.find("corr-100", 10)).isEmpty();
+    }
+
+    @Test
+    void concurrentWritersKeepLinesIntact() throws Exception {
+        RecentLogBuffer buffer = new RecentLogBuffer(1024, 64);
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String id = "thread-" + t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    add(buffer, id, id + ":" + i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (int i = 0; i < 200; i++) {
+            for (RecentLogBuffer.Entry entry : buffer.find("thread-1", 50)) {
+                assertThat(entry.text()).startsWith("thread-1:");
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        RecentLogBuffer.Stats stats = buffer.stats();
+        assertThat(stats.written() + stats.dropped()).isEqualTo((long) threads * perThread);
+        for (int t = 0; t < threads; t++) {
+            add(buffer, "thread-" + t, "thread-" + t + ":last");
+        }
+        for (int t = 0; t < threads; t++) {
+            String prefix = "thread-" + t + ":";
+            List<String> lines = texts(buffer.find("thread-" + t, 100));
+            assertThat(lines).allMatch(line -> line.startsWith(prefix)).endsWith(prefix + "last");
+        }
+    }
+
+    @Test
+    void endpointReturnsEncodedLinesOfARequest() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        RecentLogBuffer buffer = new RecentLogBuffer(16, 4096);
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setApplicationName("test-app");
+        RecentLogAppender appender = new RecentLogAppender(buffer, encoder);
+        appender.install(context);
+        try {
+            MDC.put(CorrelationContext.CORRELATION_ID_MDC_KEY, "corr-42");
+            context.getLogger("orders").info("order created");
+            MDC.put(CorrelationContext.CORRELATION_ID_MDC_KEY, "corr-43");
+            context.getLogger("orders").info("other request");
+        } finally {
+            MDC.remove(CorrelationContext.CORRELATION_ID_MDC_KEY);
+            appender.stop();
+        }
+
+        Map<String, Object> result = new RecentLogsEndpoint(buffer).recentLogs("corr-42", null);
+
+        assertThat(result).containsEntry("count", 1);
+        List<?> lines = (List<?>) result.get("lines");
+        assertThat(lines).singleElement().isInstanceOf(RawJson.class);
+        assertThat(lines.get(0).toString())
+                .startsWith("{")
+                .contains("\"message\":\"order created\"", "\"correlation_id\":\"corr-42\"")
+                .doesNotContain("\n");
+        assertThat(new RecentLogsEndpoint(buffer).recentLogs("corr-43", null)).containsEntry("count", 1);
+        assertThat(context.getLogger("ROOT").getAppender(RecentLogAppender.NAME)).isNull();
+    }
+
+    private static void add(RecentLogBuffer buffer, String correlationId, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        buffer.add(correlationId, bytes, 0, bytes.length);
+    }
+
+    private static List<String> texts(List<RecentLogBuffer.Entry> entries) {
+        return entries.stream().map(RecentLogBuffer.Entry::text).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import th.co.autox.logging.suppression.RepeatSuppressionTurboFilter;
+import th.co.autox.logging.suppression.RepeatSuppressor;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RepeatSuppressor and RepeatSuppressionTurboFilter.
+ */
+class RepeatSuppressorTest {
+
+    @Test
+    void letsBurstThroughAndSummarizesTheRest() throws InterruptedException {
+        RepeatSuppressor suppressor = new RepeatSuppressor(3, 50, 100);
+
+        int admitted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (suppressor.admit("svc", "ERROR", "Outgoing request failed", "java.io.IOException")) {
+                admitted++;
+            }
+        }
+        assertThat(admitted).isEqualTo(3);
+        assertThat(suppressor.drainSummaries()).isEmpty();
+
+        Thread.sleep(60);
+        List<RepeatSuppressor.Summary> summaries = suppressor.drainSummaries();
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.get(0).suppressed()).isEqualTo(997);
+        assertThat(summaries.get(0).message()).isEqualTo("Suppressed 997 similar events");
+        assertThat(suppressor.admit("svc", "ERROR", "Outgoing request failed", "java.io.IOException")).isTrue();
+    }
+
+    @Test
+    void keysDifferByLevelAndExceptionClass() {
+        RepeatSuppressor suppressor = new RepeatSuppressor(1, 60_000, 100);
+
+        assertThat(suppressor.admit("svc", "ERROR", "failed", "java.io.IOException")).isTrue();
+        assertThat(suppressor.admit("svc", "WARN", "failed", "java.io.IOException")).isTrue();
+        assertThat(suppressor.admit("svc", "ERROR", "failed", "java.lang.IllegalStateException")).isTrue();
+        assertThat(suppressor.admit("svc", "ERROR", "failed", "java.io.IOException")).isFalse();
+    }
+
+    @Test
+    void trackedKeysAreBounded() {
+        RepeatSuppressor suppressor = new RepeatSuppressor(1, 60_000, 160);
+
+        for (int i = 0; i < 10_000; i++) {
+            suppressor.admit("svc", "ERROR", "message " + i, null);
+        }
+
+        assertThat(suppressor.size()).isLessThanOrEqualTo(160);
+    }
+
+    @Test
+    void turboFilterDeniesRepeatsAndWritesSummary() throws InterruptedException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = context.getLogger("test.RepeatSuppression");
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+
+        RepeatSuppressionTurboFilter filter = new RepeatSuppressionTurboFilter();
+        filter.setContext(context);
+        filter.setBurst(2);
+        filter.setWindowMs(50);
+        filter.start();
+        context.addTurboFilter(filter);
+        try {
+            for (int i = 0; i < 100; i++) {
+                logger.error("Call to {} failed", "host-" + i);
+            }
+            assertThat(appender.list).hasSize(2);
+
+            long deadline = System.currentTimeMillis() + 2000;
+            while (appender.list.size() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(appender.list.get(2).getFormattedMessage())
+                    .isEqualTo("Suppressed 98 similar events: Call to {} failed");
+        } finally {
+            context.getTurboFilterList().remove(filter);
+            filter.stop();
+            logger.detachAppender(appender);
+        }
+    }
+}
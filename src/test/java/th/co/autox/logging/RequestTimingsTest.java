@@ -0,0 +1,62 @@
+package th.co.autox.logging;
+
+import th.co.autox.logging.context.RequestTimings;
+import th.co.autox.logging.core.AppLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RequestTimings and AppLogger sections.
+ */
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sectionsAndDownstreamCallsAreSummarized() {
+        RequestTimings timings = RequestTimings.begin();
+
+        try (AppLogger.Section ignored = AppLogger.section("creditCheck")) {
+            timings.recordDownstream(2_500_000);
+        }
+        for (int i = 0; i < 3; i++) {
+            timings.recordSection("scoring", 1_000_000);
+        }
+        timings.recordDownstream(1_250_000);
+
+        Map<String, Object> map = timings.toMap();
+
+        Map<String, Object> sections = (Map<String, Object>) map.get("sections");
+        assertThat(sections).containsOnlyKeys("creditCheck", "scoring");
+        assertThat(sections.get("creditCheck")).isInstanceOf(Double.class);
+        assertThat(sections.get("scoring")).isEqualTo(Map.of("ms", 3.0, "count", 3));
+        assertThat(map).containsEntry("downstream_calls", 2).containsEntry("downstream_ms", 3.8);
+    }
+
+    @Test
+    void sectionsBeyondCapacityAreCounted() {
+        RequestTimings timings = RequestTimings.begin();
+        for (int i = 0; i < RequestTimings.MAX_SECTIONS + 2; i++) {
+            timings.recordSection("step" + i, 1_000);
+        }
+
+        assertThat(timings.toMap()).containsEntry("dropped_sections", 2);
+    }
+
+    @Test
+    void nothingIsRecordedOutsideARequest() {
+        try (AppLogger.Section ignored = AppLogger.section("creditCheck")) {
+            assertThat(RequestTimings.current()).isNull();
+        }
+
+        assertThat(RequestTimings.begin().toMap()).isNull();
+    }
+}
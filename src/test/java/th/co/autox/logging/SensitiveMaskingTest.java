@@ -0,0 +1,77 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.core.AppLogger;
+import th.co.autox.logging.util.MaskingUtil;
+import th.co.autox.logging.util.Sensitive;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the Sensitive annotation and SensitiveSerializerModifier.
+ */
+class SensitiveMaskingTest {
+
+    public static class Applicant {
+        public String name = "Somchai";
+
+        @Sensitive
+        public String password = "hunter2";
+
+        @Sensitive(Sensitive.Strategy.LAST_4)
+        public String citizenId = "1101700230701";
+
+        @Sensitive(Sensitive.Strategy.HASHED)
+        public String email = "somchai@example.com";
+
+        @Sensitive
+        public String pin = null;
+    }
+
+    @Test
+    void annotatedFieldsAreMaskedInExtraAndRequestBodies() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = context.getLogger("test.SensitiveMasking");
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            AppLogger log = new AppLogger("test.SensitiveMasking", "test-app", new LoggingProperties());
+            log.info("Application received", Map.of("applicant", new Applicant()));
+            log.logRequest("POST", "/api/applicants", 201, 12, new Applicant(), null);
+
+            assertThat(appender.list).hasSize(2);
+            for (ILoggingEvent event : appender.list) {
+                String json = event.getMessage();
+                assertThat(json).contains("\"name\":\"Somchai\"")
+                        .contains("\"password\":\"***MASKED***\"")
+                        .contains("\"citizenId\":\"*********0701\"")
+                        .containsPattern("\"email\":\"sha256:[0-9a-f]{16}\"")
+                        .contains("\"pin\":null")
+                        .doesNotContain("hunter2", "somchai@example.com", "1101700230701");
+            }
+        } finally {
+            logger.detachAppender(appender);
+        }
+    }
+
+    @Test
+    void maskObjectFieldsAppliesAnnotationsAndFieldNames() {
+        JsonNode masked = (JsonNode) MaskingUtil.maskObjectFields(new Applicant(), List.of("name"), "###");
+
+        assertThat(masked.get("name").asText()).isEqualTo("###");
+        assertThat(masked.get("password").asText()).isEqualTo("***MASKED***");
+        assertThat(masked.get("citizenId").asText()).isEqualTo("*********0701");
+    }
+}
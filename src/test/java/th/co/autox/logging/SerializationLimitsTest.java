@@ -0,0 +1,97 @@
+package th.co.autox.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import th.co.autox.logging.config.LoggingProperties;
+import th.co.autox.logging.encoder.BoundedJsonGenerator;
+import th.co.autox.logging.encoder.BoundedSerializerModifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for BoundedJsonGenerator and BoundedSerializerModifier.
+ */
+class SerializationLimitsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(BoundedSerializerModifier.module());
+    private final LoggingProperties.SerializationLimitsConfig limits = new LoggingProperties.SerializationLimitsConfig();
+
+    public static class Node {
+        public String name;
+        public Node parent;
+        public List<Node> children = new ArrayList<>();
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    void cyclesAreMarkedInsteadOfOverflowingTheStack() throws Exception {
+        Node root = new Node("root");
+        Node child = new Node("child");
+        child.parent = root;
+        root.children.add(child);
+
+        JsonNode json = write(Map.of("node", root));
+
+        assertThat(json.at("/node/children/0/name").asText()).isEqualTo("child");
+        assertThat(json.at("/node/children/0/parent").asText()).isEqualTo("[cycle]");
+    }
+
+    @Test
+    void depthElementsAndStringsAreBounded() throws Exception {
+        limits.setMaxDepth(3);
+        limits.setMaxElements(5);
+        limits.setMaxStringLength(4);
+
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("deep", Map.of("a", Map.of("b", Map.of("c", 1))));
+        value.put("list", IntStream.range(0, 1000).boxed().toList());
+        value.put("text", "abcdefgh");
+
+        JsonNode json = write(value);
+
+        assertThat(json.at("/deep/a/b").asText()).isEqualTo("[depth limit]");
+        assertThat(json.get("list")).hasSize(6);
+        assertThat(json.at("/list/5").asText()).isEqualTo("[+995 more]");
+        assertThat(json.get("text").asText()).isEqualTo("abcd... [TRUNCATED]");
+    }
+
+    @Test
+    void byteBudgetStopsDescending() throws Exception {
+        limits.setMaxEntryBytes(1000);
+        limits.setMaxElements(10_000);
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            rows.add(Map.of("id", "row-" + i));
+        }
+
+        String json = BoundedJsonGenerator.writeValueAsString(mapper, Map.of("rows", rows), limits);
+
+        assertThat(json.length()).isLessThan(2000);
+        JsonNode tree = mapper.readTree(json);
+        assertThat(tree.get("rows").get(tree.get("rows").size() - 1).asText()).matches("\\[\\+\\d+ more]");
+    }
+
+    @Test
+    void snapshotTreeIsBoundedToo() throws Exception {
+        Node root = new Node("root");
+        root.parent = root;
+
+        JsonNode tree = BoundedJsonGenerator.valueToTree(mapper, root, limits);
+
+        assertThat(tree.get("parent").asText()).isEqualTo("[cycle]");
+    }
+
+    private JsonNode write(Object value) throws Exception {
+        return mapper.readTree(BoundedJsonGenerator.writeValueAsString(mapper, value, limits));
+    }
+}
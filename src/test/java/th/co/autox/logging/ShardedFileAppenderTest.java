@@ -0,0 +1,126 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import th.co.autox.logging.appender.ShardedFileAppender;
+import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for ShardedFileAppender.
+ */
+class ShardedFileAppenderTest {
+
+    private static final Pattern LINE = Pattern.compile("\"message\":\"(req-\\d+) (\\d+)\"");
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsTheLinesOfOneRequestInOrderInOneShard() throws Exception {
+        ShardedFileAppender appender = newAppender("SHARDED");
+        appender.setFile(dir.resolve("app.json.log").toString());
+        appender.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 500; i++) {
+                    String request = "req-" + (thread * 10 + i % 10);
+                    MDC.put(CorrelationContext.CORRELATION_ID_MDC_KEY, request);
+                    try {
+                        appender.doAppend(event(request + " " + i));
+                    } finally {
+                        MDC.remove(CorrelationContext.CORRELATION_ID_MDC_KEY);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        appender.stop();
+
+        Map<String, Integer> shardOf = new HashMap<>();
+        Map<String, Integer> lastSequence = new HashMap<>();
+        int total = 0;
+        for (int shard = 0; shard < 4; shard++) {
+            int index = shard;
+            Path file = dir.resolve("app.json.log." + shard);
+            assertThat(file).exists();
+            for (String line : Files.readAllLines(file)) {
+                Matcher matcher = LINE.matcher(line);
+                assertThat(matcher.find()).isTrue();
+                String request = matcher.group(1);
+                int sequence = Integer.parseInt(matcher.group(2));
+                assertThat(line).contains("\"correlation_id\":\"" + request + "\"");
+                assertThat(shardOf.computeIfAbsent(request, key -> index)).as("shard of %s", request).isEqualTo(shard);
+                assertThat(sequence).as("order of %s", request)
+                        .isGreaterThan(lastSequence.getOrDefault(request, -1));
+                lastSequence.put(request, sequence);
+                total++;
+            }
+        }
+        assertThat(total).isEqualTo(2000);
+        assertThat(lastSequence).hasSize(40);
+        assertThat(appender.getShardLineCounts()).hasSize(4);
+        assertThat(appender.getDroppedCount()).isZero();
+        assertThat(appender.getFailedCount()).isZero();
+    }
+
+    @Test
+    void namesShardFilesAfterTheRollingPattern() throws IOException {
+        ShardedFileAppender appender = newAppender("SHARDED_PATTERN");
+        appender.setShards(2);
+        appender.setFileNamePattern(dir.resolve("app.%d{yyyy-MM-dd}.json.log").toString());
+        appender.start();
+        appender.doAppend(event("no correlation id"));
+        appender.stop();
+
+        String today = LocalDate.now().toString();
+        Path first = dir.resolve("app." + today + ".json.log.0");
+        Path second = dir.resolve("app." + today + ".json.log.1");
+        assertThat(first).exists();
+        assertThat(second).exists();
+        assertThat(Files.readString(first) + Files.readString(second)).contains("\"message\":\"no correlation id\"");
+    }
+
+    private ShardedFileAppender newAppender(String name) {
+        ShardedFileAppender appender = new ShardedFileAppender();
+        appender.setContext(context);
+        appender.setName(name);
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        appender.setEncoder(encoder);
+        appender.setShards(4);
+        appender.setFileNamePattern(dir.resolve("app.%d{yyyy-MM-dd}.json.log").toString());
+        appender.setMaxFlushTimeMs(10_000);
+        return appender;
+    }
+
+    private LoggingEvent event(String message) {
+        return new LoggingEvent("test", context.getLogger("sharded-test"), Level.INFO, message, null, null);
+    }
+}
@@ -0,0 +1,114 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import th.co.autox.logging.context.CorrelationContext;
+import th.co.autox.logging.encoder.JsonLogEncoder;
+import th.co.autox.logging.encoder.LogEntryWriter;
+import th.co.autox.logging.encoder.SmileLogFormat;
+import th.co.autox.logging.model.LogEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the Smile format of JsonLogEncoder and SmileLogFormat.
+ */
+class SmileLogFormatTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void decodesToTheJsonLinesOfTheDefaultFormat() throws IOException {
+        List<ILoggingEvent> events = events();
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        ByteArrayOutputStream smile = new ByteArrayOutputStream();
+        JsonLogEncoder jsonEncoder = encoder("json");
+        JsonLogEncoder smileEncoder = encoder("smile");
+        for (ILoggingEvent event : events) {
+            jsonEncoder.encodeTo(event, json);
+            smileEncoder.encodeTo(event, smile);
+        }
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        long records = SmileLogFormat.decode(new ByteArrayInputStream(smile.toByteArray()), decoded,
+                Set.of("message"));
+
+        assertThat(records).isEqualTo(events.size());
+        assertThat(decoded.toString(StandardCharsets.UTF_8)).isEqualTo(json.toString(StandardCharsets.UTF_8));
+        assertThat(smile.size()).isLessThan(json.size());
+    }
+
+    @Test
+    void rejectsInputThatIsNotFramedSmile() {
+        byte[] text = "{\"message\":\"not framed\"}\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> SmileLogFormat.decode(new ByteArrayInputStream(text),
+                new ByteArrayOutputStream(), Set.of("message")))
+                .isInstanceOf(IOException.class);
+    }
+
+    private List<ILoggingEvent> events() throws IOException {
+        List<ILoggingEvent> events = new ArrayList<>();
+        MDC.put(CorrelationContext.CORRELATION_ID_MDC_KEY, "order-42");
+        try {
+            for (int i = 0; i < 20; i++) {
+                events.add(event("Processed order " + i, null));
+                LogEntry entry = LogEntry.builder()
+                        .timestamp("2026-10-18T10:15:30.123+07:00")
+                        .application("orders")
+                        .message("Order " + i + " accepted")
+                        .loggerName("orders")
+                        .threadName("http-nio-8080-exec-1")
+                        .level("INFO")
+                        .levelValue(20000)
+                        .type("application")
+                        .correlationId("order-42")
+                        .requestBody(Map.of("orderId", i, "amount", 12.5 * i, "items", List.of("a", "b")))
+                        .build();
+                LoggingEvent logged = event(objectMapper.writeValueAsString(entry), null);
+                logged.addMarker(LogEntryWriter.ENTRY);
+                events.add(logged);
+            }
+            // Marked, but not an object: kept as a string
+            LoggingEvent notObject = event("[\"not an entry\"]", null);
+            notObject.addMarker(LogEntryWriter.ENTRY);
+            events.add(notObject);
+            events.add(event("Payment failed", new IllegalStateException("declined")));
+        } finally {
+            MDC.remove(CorrelationContext.CORRELATION_ID_MDC_KEY);
+        }
+        return events;
+    }
+
+    private LoggingEvent event(String message, Throwable throwable) {
+        LoggingEvent event = new LoggingEvent("test", context.getLogger("smile-test"), Level.INFO, message,
+                throwable, null);
+        event.prepareForDeferredProcessing();
+        return event;
+    }
+
+    private JsonLogEncoder encoder(String format) {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.setFormat(format);
+        encoder.start();
+        return encoder;
+    }
+}
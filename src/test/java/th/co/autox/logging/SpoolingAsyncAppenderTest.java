@@ -0,0 +1,165 @@
+package th.co.autox.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import th.co.autox.logging.appender.DiskSpool;
+import th.co.autox.logging.appender.SpoolingAsyncAppender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for SpoolingAsyncAppender and DiskSpool.
+ */
+class SpoolingAsyncAppenderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void spoolReturnsRecordsInOrderAcrossReopen() throws IOException {
+        try (DiskSpool spool = new DiskSpool(directory, 4096, 1 << 20)) {
+            for (int i = 0; i < 100; i++) {
+                assertThat(spool.append(bytes("record " + i))).isTrue();
+            }
+            assertThat(text(spool.poll())).isEqualTo("record 0");
+            assertThat(text(spool.poll())).isEqualTo("record 1");
+        }
+
+        try (DiskSpool spool = new DiskSpool(directory, 4096, 1 << 20)) {
+            assertThat(spool.getPendingRecords()).isEqualTo(98);
+            for (int i = 2; i < 100; i++) {
+                assertThat(text(spool.poll())).isEqualTo("record " + i);
+            }
+            assertThat(spool.poll()).isNull();
+        }
+    }
+
+    @Test
+    void spoolDeletesReplayedSegments() throws IOException {
+        try (DiskSpool spool = new DiskSpool(directory, 4096, 1 << 20)) {
+            for (int i = 0; i < 500; i++) {
+                spool.append(bytes("record " + i));
+            }
+            long segments = segmentCount();
+            while (spool.poll() != null) {
+                // drain
+            }
+            assertThat(segmentCount()).isLessThan(segments).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void spoolRejectsRecordsBeyondCap() throws IOException {
+        try (DiskSpool spool = new DiskSpool(directory, 4096, 8192)) {
+            int accepted = 0;
+            while (spool.append(new byte[1000])) {
+                accepted++;
+            }
+            assertThat(accepted).isEqualTo(8);
+            assertThat(spool.getDiskBytes()).isEqualTo(8192);
+        }
+    }
+
+    @Test
+    void spoolDiscardsRecordsWithBadChecksum() throws IOException {
+        try (DiskSpool spool = new DiskSpool(directory, 4096, 1 << 20)) {
+            spool.append(bytes("first"));
+            spool.append(bytes("second"));
+            spool.append(bytes("third"));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Flip a payload byte of the second record: header (8) + "first" (5) + header (8)
+            file.seek(8 + 5 + 8);
+            file.write('X');
+        }
+
+        try (DiskSpool spool = new DiskSpool(directory, 4096, 1 << 20)) {
+            assertThat(spool.getCorruptRecords()).isEqualTo(1);
+            assertThat(text(spool.poll())).isEqualTo("first");
+            assertThat(spool.poll()).isNull();
+        }
+    }
+
+    @Test
+    void overflowIsSpooledAndReplayedInOrder() throws InterruptedException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        SlowAppender slow = new SlowAppender();
+        slow.setContext(context);
+        slow.start();
+
+        SpoolingAsyncAppender appender = new SpoolingAsyncAppender();
+        appender.setContext(context);
+        appender.setName("spool-test");
+        appender.setQueueSize(4);
+        appender.setDiscardingThreshold(0);
+        appender.setSpoolDirectory(directory.toString());
+        appender.setReplayIdleMs(1);
+        appender.addAppender(slow);
+        appender.start();
+
+        for (int i = 0; i < 200; i++) {
+            appender.doAppend(new LoggingEvent("test", context.getLogger("test.Spool"),
+                    Level.INFO, "event " + i, null, null));
+        }
+        assertThat(appender.getSpooledCount()).isPositive();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (slow.messages.size() < 200 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        appender.stop();
+
+        assertThat(slow.messages).containsExactlyElementsOf(
+                IntStream.range(0, 200).mapToObj(i -> "event " + i).toList());
+        assertThat(appender.getReplayedCount()).isEqualTo(appender.getSpooledCount());
+        assertThat(appender.getSpoolDepth()).isZero();
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static class SlowAppender extends AppenderBase<ILoggingEvent> {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(event.getFormattedMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package th.co.autox.logging;
+
+import th.co.autox.logging.core.StackTraceCache;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for StackTraceCache.
+ */
+class StackTraceCacheTest {
+
+    @Test
+    void identicalTracesShareFingerprintAndFrames() {
+        StackTraceCache cache = new StackTraceCache(16, 0);
+
+        RuntimeException[] failures = failures("first", "second");
+        StackTraceCache.Trace first = cache.lookup(failures[0], 50);
+        StackTraceCache.Trace second = cache.lookup(failures[1], 50);
+
+        assertThat(second.hash()).isEqualTo(first.hash());
+        assertThat(second.frames()).isSameAs(first.frames());
+        assertThat(second.count()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void differentExceptionClassesHaveDifferentFingerprints() {
+        StackTraceCache cache = new StackTraceCache(16, 0);
+        RuntimeException runtime = new RuntimeException("x");
+        IllegalStateException illegalState = new IllegalStateException("x");
+        illegalState.setStackTrace(runtime.getStackTrace());
+
+        assertThat(cache.lookup(runtime, 50).hash()).isNotEqualTo(cache.lookup(illegalState, 50).hash());
+    }
+
+    @Test
+    void framesAreLimitedToMaxDepth() {
+        StackTraceCache cache = new StackTraceCache(16, 0);
+
+        assertThat(cache.lookup(new RuntimeException("x"), 2).frames()).hasSize(2);
+    }
+
+    @Test
+    void rootCauseKeepsCurrentMessage() {
+        StackTraceCache cache = new StackTraceCache(16, 0);
+
+        RuntimeException[] failures = failures("db down", "db timeout");
+        StackTraceCache.Trace first = cache.lookup(failures[0], 50);
+        StackTraceCache.Trace second = cache.lookup(failures[1], 50);
+
+        assertThat(second.hash()).isEqualTo(first.hash());
+        assertThat(first.rootCause()).isEqualTo("java.io.IOException: db down");
+        assertThat(second.rootCause()).isEqualTo("java.io.IOException: db timeout");
+    }
+
+    @Test
+    void repeatedTraceWithinWindowOmitsFrames() {
+        StackTraceCache cache = new StackTraceCache(16, 60_000);
+
+        RuntimeException[] failures = failures("x", "x");
+        StackTraceCache.Trace first = cache.lookup(failures[0], 50);
+        StackTraceCache.Trace second = cache.lookup(failures[1], 50);
+
+        assertThat(first.frames()).isNotEmpty();
+        assertThat(second.frames()).isNull();
+        assertThat(second.hash()).isEqualTo(first.hash());
+    }
+
+    @Test
+    void cacheIsBounded() {
+        StackTraceCache cache = new StackTraceCache(2, 0);
+
+        cache.lookup(new RuntimeException(), 50);
+        cache.lookup(new IllegalStateException(), 50);
+        cache.lookup(new IllegalArgumentException(), 50);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.counts()).hasSize(2);
+    }
+
+    private RuntimeException[] failures(String... rootCauseMessages) {
+        // Created at the same call site, so every instance has an identical stack trace
+        RuntimeException[] result = new RuntimeException[rootCauseMessages.length];
+        for (int i = 0; i < rootCauseMessages.length; i++) {
+            result[i] = new RuntimeException("wrapper", new java.io.IOException(rootCauseMessages[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package th.co.autox.logging;
+
+import th.co.autox.logging.metrics.CountMinSketch;
+import th.co.autox.logging.metrics.HeavyHitters;
+import th.co.autox.logging.metrics.HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for the traffic sketches.
+ */
+class TrafficSketchesTest {
+
+    @Test
+    void countMinSketchNeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 2048);
+        for (int i = 0; i < 50_000; i++) {
+            sketch.add("10.0.0." + (i % 5000));
+        }
+        sketch.add("203.0.113.7");
+
+        assertThat(sketch.estimate("10.0.0.42")).isBetween(10L, 10L + 50_000 * 3 / 2048);
+        assertThat(sketch.estimate("203.0.113.7")).isGreaterThanOrEqualTo(1);
+
+        sketch.reset();
+        assertThat(sketch.estimate("10.0.0.42")).isZero();
+    }
+
+    @Test
+    void heavyHittersFindsDominantItems() {
+        HeavyHitters hitters = new HeavyHitters(3, new CountMinSketch(4, 2048));
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 4 == 0) {
+                hitters.add("203.0.113.7");
+            } else if (i % 10 == 1) {
+                hitters.add("198.51.100.23");
+            } else {
+                hitters.add("10.0." + (i % 251) + "." + (i % 199));
+            }
+        }
+
+        List<HeavyHitters.Count> top = hitters.drain();
+
+        assertThat(top).hasSize(3);
+        assertThat(top.get(0).value()).isEqualTo("203.0.113.7");
+        assertThat(top.get(0).count()).isBetween(25_000L, 25_500L);
+        assertThat(top.get(1).value()).isEqualTo("198.51.100.23");
+        assertThat(hitters.top()).isEmpty();
+    }
+
+    @Test
+    void hyperLogLogEstimatesDistinctCount() {
+        HyperLogLog small = new HyperLogLog(12);
+        for (int i = 0; i < 1000; i++) {
+            small.add("client-" + (i % 100));
+        }
+        assertThat((double) small.estimate()).isCloseTo(100, within(3.0));
+
+        HyperLogLog large = new HyperLogLog(12);
+        for (int i = 0; i < 200_000; i++) {
+            large.add("client-" + i);
+        }
+        assertThat((double) large.estimate()).isCloseTo(200_000, within(200_000 * 0.05));
+
+        large.reset();
+        assertThat(large.estimate()).isZero();
+    }
+}